@@ -2,8 +2,10 @@ package com.psbral.projeto;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SetisAvaliacaoTecnicaApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,119 @@
+package com.psbral.projeto.cache;
+
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Mantém o cache de {@code findById} coerente entre réplicas. Depois do commit de um update ou
+ * delete, remove a entrada local e publica um aviso {@code origem;enviadoEm;id} no
+ * {@link InvalidationTransport}; as demais instâncias removem a entrada ao receber.
+ * <p>
+ * A métrica {@code users.cache.invalidation.lag} mede do envio até a remoção na réplica
+ * (relógios de parede, então depende de NTP entre as máquinas).
+ */
+@Component
+public class CacheInvalidationBus implements InvalidationTransport.Listener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final CacheManager cacheManager;
+    private final InvalidationTransport transport;
+    private final Clock clock;
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Counter published;
+    private final Counter publishFailures;
+    private final Counter received;
+    private final Counter resets;
+    private final Timer lag;
+
+    @Autowired
+    public CacheInvalidationBus(CacheManager cacheManager,
+                                InvalidationTransport transport,
+                                MeterRegistry registry) {
+        this(cacheManager, transport, registry, Clock.systemUTC());
+    }
+
+    CacheInvalidationBus(CacheManager cacheManager,
+                         InvalidationTransport transport,
+                         MeterRegistry registry,
+                         Clock clock) {
+        this.cacheManager = cacheManager;
+        this.transport = transport;
+        this.clock = clock;
+        this.published = Counter.builder("users.cache.invalidation.published")
+                .description("Avisos de invalidação enviados")
+                .register(registry);
+        this.publishFailures = Counter.builder("users.cache.invalidation.publish.failures")
+                .description("Avisos que não puderam ser enviados (réplicas dependem do TTL)")
+                .register(registry);
+        this.received = Counter.builder("users.cache.invalidation.received")
+                .description("Avisos de outras réplicas aplicados")
+                .register(registry);
+        this.resets = Counter.builder("users.cache.invalidation.resets")
+                .description("Descartes completos do cache após (re)conexão do transporte")
+                .register(registry);
+        this.lag = Timer.builder("users.cache.invalidation.lag")
+                .description("Tempo entre o envio do aviso e a remoção na réplica")
+                .register(registry);
+        transport.subscribe(this);
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.CREATED) {
+            return;   // nada em cache para um id novo (404 não é cacheado)
+        }
+        users().evict(event.id());
+        try {
+            transport.publish(origin + ";" + clock.millis() + ";" + event.id());
+            published.increment();
+        } catch (RuntimeException e) {
+            publishFailures.increment();
+            log.error("Invalidação do usuário {} não publicada", event.id(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(String message) {
+        String[] parts = message.split(";", 3);
+        if (parts.length != 3) {
+            log.warn("Aviso de invalidação ignorado (formato inválido): {}", message);
+            return;
+        }
+        if (origin.equals(parts[0])) {
+            return;   // já removido localmente antes de publicar
+        }
+        users().evict(parts[2]);
+        received.increment();
+        lag.record(Duration.ofMillis(Math.max(0, clock.millis() - Long.parseLong(parts[1]))));
+    }
+
+    @Override
+    public void onReset() {
+        users().clear();
+        resets.increment();
+    }
+
+    private Cache users() {
+        Cache cache = cacheManager.getCache(ConfigCache.USERS);
+        if (cache == null) {
+            throw new IllegalStateException("Cache não configurado: " + ConfigCache.USERS);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,20 @@
+package com.psbral.projeto.cache;
+
+/**
+ * Meio pelo qual as réplicas trocam avisos de invalidação. Entrega é "no máximo uma vez":
+ * quando o transporte pode ter perdido mensagens (ex.: reconexão), avisa com {@link Listener#onReset()}.
+ */
+public interface InvalidationTransport {
+
+    void publish(String message);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        void onMessage(String message);
+
+        /** Mensagens podem ter sido perdidas; o cache local deve ser descartado por inteiro. */
+        void onReset();
+    }
+}
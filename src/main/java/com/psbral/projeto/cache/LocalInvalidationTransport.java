@@ -0,0 +1,28 @@
+package com.psbral.projeto.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Entrega síncrona dentro da JVM: suficiente com uma única instância e usado nos testes
+ * para ligar vários barramentos como se fossem réplicas.
+ */
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String message) {
+        listeners.forEach(listener -> listener.onMessage(message));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /** Simula uma reconexão do transporte. */
+    public void reset() {
+        listeners.forEach(Listener::onReset);
+    }
+}
@@ -0,0 +1,164 @@
+package com.psbral.projeto.cache;
+
+import com.psbral.projeto.config.CacheInvalidationProperties;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Transporte via {@code LISTEN/NOTIFY} do Postgres. Usa duas conexões dedicadas, fora do pool:
+ * uma presa numa thread que só escuta o canal e outra, compartilhada, para publicar.
+ * Depois de cada (re)conexão do listener os ouvintes recebem {@code onReset()}, pois
+ * notificações enviadas enquanto a conexão estava caída se perderam.
+ */
+public class PostgresInvalidationTransport implements InvalidationTransport, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final CacheInvalidationProperties properties;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object publishLock = new Object();
+    private Connection publisher;
+    private Thread listenerThread;
+    private volatile boolean running = true;
+
+    public PostgresInvalidationTransport(String url,
+                                         String username,
+                                         String password,
+                                         CacheInvalidationProperties properties) {
+        if (!properties.channel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Canal de invalidação inválido: " + properties.channel());
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.properties = properties;
+    }
+
+    @Override
+    public void publish(String message) {
+        synchronized (publishLock) {
+            try {
+                notify(message);
+            } catch (SQLException first) {
+                // conexão pode ter caído desde o último aviso: reabre uma vez
+                closePublisher();
+                try {
+                    notify(message);
+                } catch (SQLException e) {
+                    closePublisher();
+                    throw new IllegalStateException("Falha ao publicar invalidação de cache", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Listener listener) {
+        listeners.add(listener);
+        if (listenerThread == null) {
+            listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+            listenerThread.setDaemon(true);
+            listenerThread.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        synchronized (publishLock) {
+            closePublisher();
+        }
+    }
+
+    private void notify(String message) throws SQLException {
+        if (publisher == null || publisher.isClosed()) {
+            publisher = DriverManager.getConnection(url, username, password);
+        }
+        try (PreparedStatement statement = publisher.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, properties.channel());
+            statement.setString(2, message);
+            statement.execute();
+        }
+    }
+
+    private void closePublisher() {
+        if (publisher != null) {
+            try {
+                publisher.close();
+            } catch (SQLException ignored) {
+                // já estava quebrada
+            }
+            publisher = null;
+        }
+    }
+
+    private void listen() {
+        int timeoutMillis = (int) properties.pollTimeout().toMillis();
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                log.info("Escutando invalidações de cache no canal {}", properties.channel());
+                listeners.forEach(Listener::onReset);
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(timeoutMillis);
+                    if (notifications == null || notifications.length == 0) {
+                        // sem tráfego: confirma que a conexão ainda está viva
+                        if (!connection.isValid(Math.max(1, timeoutMillis / 1000))) {
+                            throw new SQLException("Conexão do listener de invalidação perdida");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Listener de invalidação desconectado; nova tentativa em {}",
+                            properties.reconnectBackoff(), e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void dispatch(String message) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onMessage(message);
+            } catch (RuntimeException e) {
+                log.error("Falha ao processar invalidação de cache: {}", message, e);
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(properties.reconnectBackoff().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limites da busca de vários usuários por id em uma chamada.
+ *
+ * @param maxSize  quantidade máxima de ids por requisição
+ */
+@ConfigurationProperties(prefix = "app.users.batch")
+public record BatchLookupProperties(
+        @DefaultValue("500") int maxSize
+) { }
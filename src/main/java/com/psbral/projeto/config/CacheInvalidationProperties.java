@@ -0,0 +1,26 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Barramento de invalidação do cache de usuários entre réplicas.
+ *
+ * @param transport        {@code none} (cache desligado), {@code local} (uma instância só)
+ *                         ou {@code postgres} (LISTEN/NOTIFY)
+ * @param channel          canal do NOTIFY
+ * @param pollTimeout      espera máxima por notificações antes de checar a conexão
+ * @param reconnectBackoff pausa entre tentativas de reconectar o listener
+ */
+@ConfigurationProperties(prefix = "app.cache.invalidation")
+public record CacheInvalidationProperties(
+        @DefaultValue("none") Transport transport,
+        @DefaultValue("user_cache_invalidation") String channel,
+        @DefaultValue("5s") Duration pollTimeout,
+        @DefaultValue("2s") Duration reconnectBackoff
+) {
+
+    public enum Transport { NONE, LOCAL, POSTGRES }
+}
@@ -0,0 +1,26 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Compressão das respostas negociada por {@code Accept-Encoding}.
+ *
+ * @param enabled          liga o {@code ResponseCompressionFilter}
+ * @param algorithms       algoritmos aceitos, em ordem de preferência ({@code zstd}, {@code gzip})
+ * @param minResponseSize  respostas menores que isso seguem sem compressão
+ * @param mimeTypes        tipos de conteúdo elegíveis
+ * @param zstdLevel        nível do zstd (1 = mais rápido, 19 = menor)
+ */
+@ConfigurationProperties(prefix = "app.compression")
+public record CompressionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue({"zstd", "gzip"}) List<String> algorithms,
+        @DefaultValue("2KB") DataSize minResponseSize,
+        @DefaultValue({"application/json", "application/cbor", "application/x-jackson-smile",
+                "application/x-protobuf"}) List<String> mimeTypes,
+        @DefaultValue("3") int zstdLevel
+) { }
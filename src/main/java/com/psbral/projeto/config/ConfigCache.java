@@ -0,0 +1,51 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.cache.InvalidationTransport;
+import com.psbral.projeto.cache.LocalInvalidationTransport;
+import com.psbral.projeto.cache.PostgresInvalidationTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class ConfigCache {
+
+    public static final String USERS = "users";
+
+    // sem transporte escolhido o cache fica desligado: com várias réplicas, as outras serviriam
+    // o usuário antigo até o TTL. O barramento continua ligado, mas não tem o que remover.
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.invalidation", name = "transport", havingValue = "none", matchIfMissing = true)
+    public CacheManager noOpCacheManager() {
+        return new NoOpCacheManager();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.invalidation", name = "transport", havingValue = "none", matchIfMissing = true)
+    public InvalidationTransport noInvalidationTransport() {
+        return new LocalInvalidationTransport();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.invalidation", name = "transport", havingValue = "local")
+    public InvalidationTransport localInvalidationTransport() {
+        return new LocalInvalidationTransport();
+    }
+
+    // conexões próprias, fora do pool e do roteamento de shards: o canal vive no banco de spring.datasource.*
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.invalidation", name = "transport", havingValue = "postgres")
+    public InvalidationTransport postgresInvalidationTransport(DataSourceProperties dataSource,
+                                                               CacheInvalidationProperties properties) {
+        return new PostgresInvalidationTransport(
+                dataSource.determineUrl(),
+                dataSource.determineUsername(),
+                dataSource.determinePassword(),
+                properties);
+    }
+}
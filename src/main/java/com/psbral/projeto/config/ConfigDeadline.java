@@ -0,0 +1,68 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.diagnostics.InstrumentedDataSource;
+import com.psbral.projeto.resilience.DeadlineDataSource;
+import com.psbral.projeto.resilience.DeadlineFilter;
+import com.psbral.projeto.resilience.DeadlineTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Prazo por requisição ({@code app.deadline.*}), do header até o pool e o JDBC.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.deadline", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConfigDeadline {
+
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(DeadlineProperties properties, MeterRegistry registry) {
+        FilterRegistrationBean<DeadlineFilter> registration =
+                new FilterRegistrationBean<>(new DeadlineFilter(properties, registry));
+        registration.addUrlPatterns("/users", "/users/*");
+        // depois do id de correlação, antes da medição por fase
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    // substitui o JpaTransactionManager do Boot
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        DeadlineTransactionManager transactionManager = new DeadlineTransactionManager();
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    // roda antes do InstrumentedDataSource, que fica por fora e mede a espera já limitada
+    @Bean
+    public static BeanPostProcessor deadlineDataSourcePostProcessor() {
+        return new OrderedDataSourcePostProcessor();
+    }
+
+    private static final class OrderedDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource
+                    && !(bean instanceof DeadlineDataSource)
+                    && !(bean instanceof InstrumentedDataSource)) {
+                return new DeadlineDataSource(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.diagnostics.ContinuousRecording;
+import com.psbral.projeto.diagnostics.JfrEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gravação contínua do JFR e {@code /actuator/jfr}. Os {@code ServiceCallEvent} são emitidos
+ * sempre; sem gravação ativa o custo é uma checagem de flag.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConfigJfr {
+
+    @Bean(destroyMethod = "close")
+    public ContinuousRecording continuousRecording(JfrProperties properties) {
+        return new ContinuousRecording(properties);
+    }
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(ContinuousRecording recording, JfrProperties properties) {
+        return new JfrEndpoint(recording, properties);
+    }
+}
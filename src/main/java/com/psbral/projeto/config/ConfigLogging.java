@@ -0,0 +1,57 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.diagnostics.InstrumentedDataSource;
+import com.psbral.projeto.diagnostics.SqlStatementLog;
+import com.psbral.projeto.web.CorrelationIdFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.hibernate.cfg.JdbcSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Log de SQL (amostrado + consultas lentas) e id de correlação por requisição.
+ * O appender assíncrono e o formato JSON ficam em {@code logback-spring.xml}.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlLoggingProperties.class)
+public class ConfigLogging {
+
+    @Bean
+    public SqlStatementLog sqlStatementLog(SqlLoggingProperties properties) {
+        return new SqlStatementLog(properties);
+    }
+
+    // o Hibernate já mede cada execução: consulta lenta sai sem proxy na conexão
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryLog(SqlLoggingProperties properties) {
+        return hibernate -> hibernate.put(JdbcSettings.LOG_SLOW_QUERY, properties.slowThreshold().toMillis());
+    }
+
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<SqlStatementLog> sqlLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, sqlLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<CorrelationIdFilter> correlationIdFilter() {
+        FilterRegistrationBean<CorrelationIdFilter> registration =
+                new FilterRegistrationBean<>(new CorrelationIdFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
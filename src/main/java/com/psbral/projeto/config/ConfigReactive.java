@@ -0,0 +1,66 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.controllers.UserHandler;
+import com.psbral.projeto.services.exceptions.ReactiveApiExceptionHandler;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Pilha reativa, ligada pelo perfil {@code reactive} ({@code spring.main.web-application-type=reactive}):
+ * rotas WebFlux em {@code /users} sobre R2DBC ({@code spring.r2dbc.*}). JPA e Flyway continuam no
+ * {@code spring.datasource.*}, apontando para o mesmo banco.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ConfigReactive {
+
+    // o DataSourceAutoConfiguration recua quando existe um ConnectionFactory; JPA e Flyway ainda usam o JDBC
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    // o gerenciador R2DBC não vira bean: um segundo TransactionManager quebraria o @Transactional da pilha JPA
+    @Bean
+    public TransactionalOperator reactiveTransactions(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserHandler users, ReactiveApiExceptionHandler errors) {
+        return RouterFunctions.route()
+                .POST("/users", users::insert)
+                .GET("/users", RequestPredicates.queryParam("ids", ids -> true), users::findAllById)
+                .GET("/users", users::findAll)
+                .POST("/users/lookup", users::lookup)
+                .GET("/users/stats", users::stats)
+                .GET("/users/suggest", users::suggest)
+                .GET("/users/{id}", users::findById)
+                .PUT("/users/by-email/{email}", users::upsert)
+                .PUT("/users/by-email", users::upsertAll)
+                .PUT("/users/{id}", users::update)
+                .DELETE("/users/{id}", users::delete)
+                .onError(Throwable.class, errors::handle)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.diagnostics.RequestTimingFilter;
+import com.psbral.projeto.diagnostics.TimingValidator;
+import com.psbral.projeto.diagnostics.TimingsEndpoint;
+import com.psbral.projeto.diagnostics.TraceStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Medição por fase das requisições ({@code Server-Timing} e {@code /actuator/timings}).
+ * Pool, SQL e commit vêm do {@code InstrumentedDataSource} registrado em {@link ConfigLogging}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RequestTimingProperties.class)   // também nos testes @WebMvcTest
+public class ConfigRequestTiming implements WebMvcConfigurer {
+
+    private final ObjectProvider<jakarta.validation.Validator> beanValidator;
+
+    public ConfigRequestTiming(ObjectProvider<jakarta.validation.Validator> beanValidator) {
+        this.beanValidator = beanValidator;
+    }
+
+    @Override
+    public Validator getValidator() {
+        jakarta.validation.Validator validator = beanValidator.getIfUnique();
+        if (validator == null) {
+            return null;
+        }
+        return new TimingValidator(validator instanceof SmartValidator smart
+                ? smart
+                : new SpringValidatorAdapter(validator));
+    }
+
+    @Bean
+    public TraceStore traceStore(RequestTimingProperties properties) {
+        return new TraceStore(properties.capacity());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(RequestTimingProperties properties,
+                                                                           TraceStore traceStore) {
+        FilterRegistrationBean<RequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTimingFilter(properties, traceStore));
+        registration.addUrlPatterns("/users", "/users/*");
+        // por fora da compressão, para o total incluir todos os filtros
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    public TimingsEndpoint timingsEndpoint(TraceStore traceStore) {
+        return new TimingsEndpoint(traceStore);
+    }
+}
@@ -0,0 +1,69 @@
+package com.psbral.projeto.config;
+
+import com.psbral.projeto.sharding.*;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ConfigSharding {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigSharding.class);
+
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties) {
+        return new ShardDataSources(properties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shards) {
+        return new ShardRoutingDataSource(shards.all());
+    }
+
+    @Bean
+    public ShardRouter shardRouter(ShardDataSources shards) {
+        return new ShardRouter(shards.size());
+    }
+
+    @Bean
+    public EmailDirectory emailDirectory(ShardDataSources shards) {
+        return new EmailDirectory(shards.get(0));
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(ShardDataSources shards, ShardRouter router,
+                                           EmailDirectory directory, ShardingProperties properties) {
+        return new ShardRebalancer(shards, router, directory, properties.scanPageSize());
+    }
+
+    // O Flyway do Boot só enxerga o DataSource roteado (shard 0); aplica as mesmas migrações em todos
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardDataSources shards) {
+        return flyway -> {
+            for (int i = 0; i < shards.size(); i++) {
+                log.info("Aplicando migrações no shard {}", i);
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shards.get(i))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.sharding", name = "rebalance-on-startup", havingValue = "true")
+    public ApplicationRunner shardRebalanceRunner(ShardRebalancer rebalancer) {
+        return args -> rebalancer.rebalance();
+    }
+}
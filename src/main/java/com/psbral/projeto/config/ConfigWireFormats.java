@@ -0,0 +1,70 @@
+package com.psbral.projeto.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.psbral.projeto.web.ProtobufHttpMessageConverter;
+import com.psbral.projeto.web.ResponseCompressionFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos binários negociados por {@code Accept}: CBOR, Smile e protobuf
+ * ({@code /proto/users.proto}). JSON continua sendo o padrão.
+ */
+@Configuration
+public class ConfigWireFormats implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder jacksonBuilder;
+
+    public ConfigWireFormats(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        this.jacksonBuilder = jacksonBuilder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // mesmos módulos e features do ObjectMapper de JSON (datas ISO, etc.)
+        ObjectMapper cbor = jacksonBuilder.factory(new CBORFactory()).build();
+        ObjectMapper smile = jacksonBuilder.factory(new SmileFactory()).build();
+
+        // o Spring já registra CBOR/Smile com um ObjectMapper próprio (datas como arrays) antes destes:
+        // substituir no lugar, senão os nossos nunca seriam escolhidos
+        replaceOrAdd(converters, MappingJackson2CborHttpMessageConverter.class,
+                new MappingJackson2CborHttpMessageConverter(cbor));
+        replaceOrAdd(converters, MappingJackson2SmileHttpMessageConverter.class,
+                new MappingJackson2SmileHttpMessageConverter(smile));
+        converters.add(new ProtobufHttpMessageConverter());
+    }
+
+    private static void replaceOrAdd(List<HttpMessageConverter<?>> converters,
+                                     Class<?> type,
+                                     HttpMessageConverter<?> replacement) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (type.isInstance(converters.get(i))) {
+                converters.set(i, replacement);
+                return;
+            }
+        }
+        converters.add(replacement);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(CompressionProperties properties) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCompressionFilter(properties));
+        registration.addUrlPatterns("/users", "/users/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
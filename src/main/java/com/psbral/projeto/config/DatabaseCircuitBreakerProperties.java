@@ -0,0 +1,34 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker das chamadas ao banco e leituras "stale" enquanto ele está aberto.
+ *
+ * @param enabled               quando {@code false}, as chamadas passam direto (sem fast-fail nem snapshot)
+ * @param windowSize            quantidade de chamadas recentes avaliadas com o circuito fechado
+ * @param minimumCalls          chamadas mínimas na janela antes de o circuito poder abrir
+ * @param failureRateThreshold  fração de falhas de banco que abre o circuito
+ * @param slowCallDuration      acima disso, a chamada conta como lenta
+ * @param slowCallRateThreshold fração de chamadas lentas que abre o circuito
+ * @param openDuration          tempo aberto (fast-fail) antes de testar o banco de novo
+ * @param halfOpenProbes        chamadas de teste liberadas na meia-abertura; todas bem-sucedidas fecham o circuito
+ * @param snapshotMaxSize       usuários guardados como última leitura boa
+ * @param snapshotTtl           idade máxima de um snapshot servido como stale
+ */
+@ConfigurationProperties(prefix = "app.resilience.database")
+public record DatabaseCircuitBreakerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int windowSize,
+        @DefaultValue("10") int minimumCalls,
+        @DefaultValue("0.5") double failureRateThreshold,
+        @DefaultValue("2s") Duration slowCallDuration,
+        @DefaultValue("0.8") double slowCallRateThreshold,
+        @DefaultValue("10s") Duration openDuration,
+        @DefaultValue("3") int halfOpenProbes,
+        @DefaultValue("100000") int snapshotMaxSize,
+        @DefaultValue("24h") Duration snapshotTtl
+) { }
@@ -0,0 +1,30 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Prazo (deadline) das requisições em {@code /users}, propagado até o pool e o JDBC.
+ *
+ * @param enabled        liga o filtro e a propagação
+ * @param header         header em que o cliente informa quanto tempo vai esperar ({@code 2000}, {@code 2s}, {@code PT2S})
+ * @param defaultTimeout prazo quando o cliente não informa um e nenhuma rota casa
+ * @param maxTimeout     teto para o prazo pedido pelo cliente
+ * @param routes         prazo padrão por padrão de caminho, ex.: {@code app.deadline.routes[/users/lookup]=10s}
+ */
+@ConfigurationProperties(prefix = "app.deadline")
+public record DeadlineProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("X-Request-Timeout") String header,
+        @DefaultValue("10s") Duration defaultTimeout,
+        @DefaultValue("30s") Duration maxTimeout,
+        Map<String, Duration> routes
+) {
+
+    public DeadlineProperties {
+        routes = routes == null ? Map.of() : Map.copyOf(routes);
+    }
+}
@@ -0,0 +1,27 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Gravação contínua do JDK Flight Recorder e endpoint {@code /actuator/jfr}.
+ *
+ * @param enabled       liga a gravação contínua na subida
+ * @param settings      configuração do JFR: {@code default} (~1% de overhead) ou {@code profile}
+ * @param maxAge        quanto histórico o JFR mantém em disco
+ * @param maxSize       tamanho máximo mantido em disco
+ * @param defaultWindow janela usada quando o pedido não informa uma
+ * @param top           itens em cada lista do resumo
+ */
+@ConfigurationProperties(prefix = "app.jfr")
+public record JfrProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("default") String settings,
+        @DefaultValue("30m") Duration maxAge,
+        @DefaultValue("256MB") DataSize maxSize,
+        @DefaultValue("5m") Duration defaultWindow,
+        @DefaultValue("10") int top
+) { }
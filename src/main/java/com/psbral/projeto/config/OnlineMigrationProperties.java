@@ -0,0 +1,30 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração das migrações online ({@code com.psbral.projeto.migrations}).
+ *
+ * @param enabled             quando {@code false}, o Flyway ainda aplica o expand, mas nenhum backfill roda
+ * @param chunkSize           linhas copiadas por lote (cada lote é uma transação, com o progresso gravado junto)
+ * @param pauseBetweenChunks  pausa mínima entre lotes, para não competir com o tráfego
+ * @param maxRowsPerSecond    teto de vazão do backfill; {@code 0} desliga o teto
+ * @param lockTimeout         espera máxima por lock no DDL e no cut-over (Postgres); estourou, tenta de novo
+ * @param statementTimeout    duração máxima de cada lote e do cut-over (Postgres)
+ * @param lease               sem heartbeat por esse tempo, outra réplica assume o backfill
+ * @param attempts            tentativas do DDL e do cut-over quando o lock não sai a tempo
+ */
+@ConfigurationProperties(prefix = "app.migrations.online")
+public record OnlineMigrationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("50ms") Duration pauseBetweenChunks,
+        @DefaultValue("5000") int maxRowsPerSecond,
+        @DefaultValue("2s") Duration lockTimeout,
+        @DefaultValue("30s") Duration statementTimeout,
+        @DefaultValue("2m") Duration lease,
+        @DefaultValue("5") int attempts
+) { }
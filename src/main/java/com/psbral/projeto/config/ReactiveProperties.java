@@ -0,0 +1,15 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Pilha reativa (perfil {@code reactive}): WebFlux + R2DBC sobre o mesmo {@code tb_usuario}.
+ *
+ * @param fetchSize linhas pedidas ao cursor do banco por vez na listagem; o próximo lote só é
+ *                  buscado quando o cliente consome o anterior
+ */
+@ConfigurationProperties(prefix = "app.reactive")
+public record ReactiveProperties(
+        @DefaultValue("256") int fetchSize
+) { }
@@ -0,0 +1,25 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Medição por fase das requisições: header {@code Server-Timing} e traces amostrados.
+ *
+ * @param enabled      liga a instrumentação (proxy do DataSource, validador e filtro)
+ * @param serverTiming {@code off}, {@code on-request} (cliente envia {@code X-Request-Timing: true}) ou {@code always}
+ * @param sampleRate   fração das requisições guardadas como trace (0 a 1)
+ * @param capacity     traces mantidos em memória
+ * @param maxSpans     trechos listados por trace
+ */
+@ConfigurationProperties(prefix = "app.timing")
+public record RequestTimingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("off") ServerTiming serverTiming,
+        @DefaultValue("0.01") double sampleRate,
+        @DefaultValue("200") int capacity,
+        @DefaultValue("100") int maxSpans
+) {
+
+    public enum ServerTiming { OFF, ON_REQUEST, ALWAYS }
+}
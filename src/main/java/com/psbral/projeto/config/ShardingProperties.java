@@ -0,0 +1,30 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Configuração do particionamento de {@code tb_usuario} entre vários bancos.
+ *
+ * @param enabled             liga o roteamento por shard
+ * @param shards              bancos participantes; o shard 0 também guarda o diretório de e-mails
+ * @param scanPageSize        tamanho da página lida de cada shard no scatter/gather
+ * @param rebalanceOnStartup  executa o {@code ShardRebalancer} antes da aplicação ficar pronta
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Shard> shards,
+        @DefaultValue("500") int scanPageSize,
+        @DefaultValue("false") boolean rebalanceOnStartup
+) {
+
+    public record Shard(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maximumPoolSize
+    ) { }
+}
@@ -0,0 +1,24 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do soft delete de usuários e do expurgo em lotes dos tombstones.
+ *
+ * @param enabled              quando {@code false}, {@code DELETE /users/{id}} remove a linha fisicamente
+ * @param retention            tempo mínimo que um tombstone permanece antes de ser expurgado
+ * @param batchSize            linhas removidas por lote (cada lote é uma transação)
+ * @param maxBatchesPerRun     limite de lotes por execução agendada
+ * @param pauseBetweenBatches  pausa entre lotes, para não competir com o tráfego
+ */
+@ConfigurationProperties(prefix = "app.users.soft-delete")
+public record SoftDeleteProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("7d") Duration retention,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("200") int maxBatchesPerRun,
+        @DefaultValue("200ms") Duration pauseBetweenBatches
+) { }
@@ -0,0 +1,19 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Log de SQL no lugar do {@code spring.jpa.show-sql}.
+ *
+ * @param slowThreshold consultas com esta duração ou mais vão para o logger {@code org.hibernate.SQL_SLOW}
+ *                      ({@code hibernate.log_slow_query}; 0 desliga)
+ * @param sampleRate    fração das conexões com todos os SQL registrados no logger {@code sql.sampled} (0 a 1)
+ */
+@ConfigurationProperties(prefix = "app.logging.sql")
+public record SqlLoggingProperties(
+        @DefaultValue("200ms") Duration slowThreshold,
+        @DefaultValue("0") double sampleRate
+) { }
@@ -0,0 +1,18 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Agregados em memória servidos por {@code GET /users/stats}.
+ *
+ * @param ageBuckets     limites inferiores (em anos) das faixas etárias; a última é aberta
+ * @param maxSignupDays  maior janela aceita em {@code ?days=}
+ */
+@ConfigurationProperties(prefix = "app.users.stats")
+public record UserStatsProperties(
+        @DefaultValue({"0", "18", "25", "35", "45", "55", "65"}) List<Integer> ageBuckets,
+        @DefaultValue("366") int maxSignupDays
+) { }
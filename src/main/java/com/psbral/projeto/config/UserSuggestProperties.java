@@ -0,0 +1,20 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Autocomplete em memória servido por {@code GET /users/suggest}.
+ *
+ * @param defaultLimit   sugestões devolvidas quando {@code ?limit=} não é informado
+ * @param maxLimit       maior {@code ?limit=} aceito
+ * @param minSimilarity  fração mínima dos trigramas da consulta que o usuário precisa ter (0 a 1)
+ * @param maxQueryLength consultas maiores são truncadas
+ */
+@ConfigurationProperties(prefix = "app.users.suggest")
+public record UserSuggestProperties(
+        @DefaultValue("10") int defaultLimit,
+        @DefaultValue("50") int maxLimit,
+        @DefaultValue("0.5") double minSimilarity,
+        @DefaultValue("64") int maxQueryLength
+) { }
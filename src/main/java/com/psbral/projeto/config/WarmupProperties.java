@@ -0,0 +1,26 @@
+package com.psbral.projeto.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Aquecimento executado antes de a aplicação se declarar pronta (readiness).
+ *
+ * @param enabled      liga o aquecimento
+ * @param iterations   chamadas sintéticas por endpoint na fase de aquecimento
+ * @param concurrency  threads disparando as chamadas (espalha o uso entre as conexões do pool)
+ * @param sampleSize   usuários reais amostrados para as chamadas de leitura
+ * @param measurements chamadas por endpoint na medição após o aquecimento
+ * @param timeout      limite total; estourado, a aplicação fica pronta mesmo assim
+ */
+@ConfigurationProperties(prefix = "app.warmup")
+public record WarmupProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("300") int iterations,
+        @DefaultValue("4") int concurrency,
+        @DefaultValue("20") int sampleSize,
+        @DefaultValue("50") int measurements,
+        @DefaultValue("60s") Duration timeout
+) { }
@@ -2,10 +2,13 @@ package com.psbral.projeto.controllers;
 
 import com.psbral.projeto.dto.UserDTO;
 import com.psbral.projeto.services.ServiceRepository;
+import com.psbral.projeto.services.UserStatsService;
+import com.psbral.projeto.services.UserSuggestService;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -13,12 +16,16 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.net.URI;
 import java.util.List;
 
+// no perfil "reactive" as mesmas rotas ficam com o UserHandler
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
 
     private final ServiceRepository service;
+    private final UserStatsService statsService;
+    private final UserSuggestService suggestService;
 
     // CREATE
     @PostMapping
@@ -38,6 +45,31 @@ public class UserController {
         return ResponseEntity.ok(dto);
     }
 
+    // READ – FIND MANY BY ID (GET /users?ids=a,b,c)
+    @GetMapping(params = "ids")
+    public UserDTO.BatchResponse findAllById(@RequestParam List<String> ids) {
+        return service.findAllById(ids);
+    }
+
+    // READ – FIND MANY BY ID, ids no corpo (para listas grandes)
+    @PostMapping("/lookup")
+    public UserDTO.BatchResponse lookup(@RequestBody @Valid UserDTO.BatchRequest dto) {
+        return service.findAllById(dto.ids());
+    }
+
+    // READ – ESTATÍSTICAS (agregados em memória)
+    @GetMapping("/stats")
+    public UserDTO.Stats stats(@RequestParam(defaultValue = "30") int days) {
+        return statsService.stats(days);
+    }
+
+    // READ – AUTOCOMPLETE (índice em memória)
+    @GetMapping("/suggest")
+    public List<UserDTO.Suggestion> suggest(@RequestParam String q,
+                                            @RequestParam(required = false) Integer limit) {
+        return suggestService.suggest(q, limit);
+    }
+
     // READ – FIND BY ID
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO.Response> findById(@PathVariable @NotNull String id) {
@@ -52,6 +84,21 @@ public class UserController {
         return service.update(id, user);
     }
 
+    // UPSERT – cria ou atualiza pelo e-mail (201 se criou; 200 se atualizou ou se nada mudou)
+    @PutMapping("/by-email/{email}")
+    public ResponseEntity<UserDTO.UpsertResponse> upsert(@PathVariable String email,
+                                                         @Valid @RequestBody UserDTO.Request user) {
+        UserDTO.UpsertResponse result = service.upsert(email, user);
+        int status = result.status() == UserDTO.UpsertStatus.CREATED ? 201 : 200;
+        return ResponseEntity.status(status).body(result);
+    }
+
+    // UPSERT EM LOTE (status de cada item na resposta, na ordem do pedido)
+    @PutMapping("/by-email")
+    public List<UserDTO.UpsertResponse> upsertAll(@Valid @RequestBody UserDTO.UpsertBatchRequest dto) {
+        return service.upsertAll(dto.users());
+    }
+
     // DELETE
     @DeleteMapping("/{id}")
     public void delete(@PathVariable @NotNull String id) {
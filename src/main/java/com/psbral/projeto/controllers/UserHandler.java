@@ -0,0 +1,135 @@
+package com.psbral.projeto.controllers;
+
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.ReactiveServiceRepository;
+import com.psbral.projeto.services.UserStatsService;
+import com.psbral.projeto.services.UserSuggestService;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * As rotas do {@link UserController} na pilha reativa (perfil {@code reactive}), ligadas em
+ * {@code ConfigReactive}. Mesmos caminhos, corpos e status, com uma diferença: a listagem sai em
+ * streaming (JSON array, ou NDJSON com {@code Accept: application/x-ndjson}) e por isso responde
+ * {@code 200} também quando vazia.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class UserHandler {
+
+    private final ReactiveServiceRepository service;
+    private final UserStatsService statsService;
+    private final UserSuggestService suggestService;
+    private final Validator validator;
+
+    // CREATE
+    public Mono<ServerResponse> insert(ServerRequest request) {
+        return body(request, UserDTO.Request.class)
+                .flatMap(service::insert)
+                .flatMap(saved -> ServerResponse.status(HttpStatus.CREATED).bodyValue(saved));
+    }
+
+    // READ – FIND ALL (o status sai antes da primeira linha; o cliente lento segura o cursor do banco)
+    public Mono<ServerResponse> findAll(ServerRequest request) {
+        boolean ndjson = request.headers().accept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return ServerResponse.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(service.findAll(), UserDTO.Response.class);
+    }
+
+    // READ – FIND MANY BY ID (GET /users?ids=a,b,c)
+    public Mono<ServerResponse> findAllById(ServerRequest request) {
+        List<String> ids = request.queryParams().get("ids").stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .toList();
+        return service.findAllById(ids)
+                .flatMap(found -> ServerResponse.ok().bodyValue(found));
+    }
+
+    // READ – FIND MANY BY ID, ids no corpo (para listas grandes)
+    public Mono<ServerResponse> lookup(ServerRequest request) {
+        return body(request, UserDTO.BatchRequest.class)
+                .flatMap(dto -> service.findAllById(dto.ids()))
+                .flatMap(found -> ServerResponse.ok().bodyValue(found));
+    }
+
+    // READ – ESTATÍSTICAS (agregados em memória)
+    public Mono<ServerResponse> stats(ServerRequest request) {
+        int days = request.queryParam("days").map(Integer::parseInt).orElse(30);
+        return ServerResponse.ok().bodyValue(statsService.stats(days));
+    }
+
+    // READ – AUTOCOMPLETE (índice em memória)
+    public Mono<ServerResponse> suggest(ServerRequest request) {
+        String query = request.queryParam("q")
+                .orElseThrow(() -> new ServerWebInputException("Parâmetro obrigatório: q"));
+        Integer limit = request.queryParam("limit").map(Integer::valueOf).orElse(null);
+        return ServerResponse.ok().bodyValue(suggestService.suggest(query, limit));
+    }
+
+    // READ – FIND BY ID
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        return service.findById(request.pathVariable("id"))
+                .flatMap(found -> ServerResponse.ok().bodyValue(found));
+    }
+
+    // UPDATE
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return body(request, UserDTO.Request.class)
+                .flatMap(dto -> service.update(request.pathVariable("id"), dto))
+                .flatMap(saved -> ServerResponse.ok().bodyValue(saved));
+    }
+
+    // UPSERT – cria ou atualiza pelo e-mail (201 se criou; 200 se atualizou ou se nada mudou)
+    public Mono<ServerResponse> upsert(ServerRequest request) {
+        return body(request, UserDTO.Request.class)
+                .flatMap(dto -> service.upsert(request.pathVariable("email"), dto))
+                .flatMap(result -> ServerResponse
+                        .status(result.status() == UserDTO.UpsertStatus.CREATED ? HttpStatus.CREATED : HttpStatus.OK)
+                        .bodyValue(result));
+    }
+
+    // UPSERT EM LOTE (status de cada item na resposta, na ordem do pedido)
+    public Mono<ServerResponse> upsertAll(ServerRequest request) {
+        return body(request, UserDTO.UpsertBatchRequest.class)
+                .flatMap(dto -> service.upsertAll(dto.users()).collectList())
+                .flatMap(results -> ServerResponse.ok().bodyValue(results));
+    }
+
+    // DELETE
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return service.delete(request.pathVariable("id"))
+                .then(ServerResponse.ok().build());
+    }
+
+    // o @Valid do UserController
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Corpo da requisição ausente")))
+                .doOnNext(this::validate);
+    }
+
+    private void validate(Object body) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.psbral.projeto.diagnostics;
+
+import com.psbral.projeto.config.JfrProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Gravação do JFR sempre ligada, com histórico limitado por {@code app.jfr.max-age} e
+ * {@code app.jfr.max-size}. Recortes de uma janela são gerados sob demanda com o
+ * {@code JFR.dump begin=...} do HotSpot, sem parar a gravação.
+ */
+public class ContinuousRecording implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ContinuousRecording.class);
+
+    public record Status(String name, String state, String settings, Instant startedAt,
+                         Duration maxAge, long maxSizeBytes, long sizeBytes) { }
+
+    private final JfrProperties properties;
+    private final Recording recording;
+
+    public ContinuousRecording(JfrProperties properties) {
+        this.properties = properties;
+        try {
+            this.recording = new Recording(Configuration.getConfiguration(properties.settings()));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Configuração do JFR inválida: " + properties.settings(), e);
+        }
+        recording.setName("setis-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.maxAge());
+        recording.setMaxSize(properties.maxSize().toBytes());
+        recording.start();
+        log.info("Gravação contínua do JFR iniciada ({}, histórico de {} / {})",
+                properties.settings(), properties.maxAge(), properties.maxSize());
+    }
+
+    public Status status() {
+        return new Status(recording.getName(), recording.getState().name(), properties.settings(),
+                recording.getStartTime(), recording.getMaxAge(), recording.getMaxSize(), recording.getSize());
+    }
+
+    /**
+     * Grava num arquivo temporário os eventos dos últimos {@code window}; quem chama apaga o arquivo.
+     */
+    public Path dump(Duration window) throws IOException {
+        Path file = Files.createTempFile("setis-", ".jfr");
+        Instant begin = Instant.now().minus(window);
+        try {
+            ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "jfrDump",
+                    new Object[]{new String[]{
+                            "name=" + recording.getId(),
+                            "filename=" + file.toAbsolutePath(),
+                            "begin=" + begin}},
+                    new String[]{String[].class.getName()});
+        } catch (JMException e) {
+            // JVM sem o comando de diagnóstico: grava o histórico inteiro
+            log.warn("JFR.dump indisponível; gravando todo o histórico retido", e);
+            recording.dump(file);
+        }
+        return file;
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
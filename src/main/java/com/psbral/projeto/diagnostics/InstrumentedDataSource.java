@@ -0,0 +1,153 @@
+package com.psbral.projeto.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Proxy do DataSource que alimenta o {@link RequestTiming} (espera pelo pool, cada SQL e o
+ * {@code commit}) e o {@link SqlStatementLog} (SQL amostrado). Só a requisição cronometrada ou a
+ * conexão sorteada para o log passam pelo proxy; as demais saem direto do pool.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final SqlStatementLog sqlLog;
+
+    public InstrumentedDataSource(DataSource target, SqlStatementLog sqlLog) {
+        super(target);
+        this.sqlLog = sqlLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        boolean sampled = sqlLog.sample();
+        if (!sampled && !RequestTiming.active()) {
+            return super.getConnection();
+        }
+        long start = RequestTiming.start();
+        Connection connection = super.getConnection();
+        RequestTiming.stop(RequestTiming.Phase.POOL, start);
+        return wrap(connection, sampled);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        boolean sampled = sqlLog.sample();
+        if (!sampled && !RequestTiming.active()) {
+            return super.getConnection(username, password);
+        }
+        long start = RequestTiming.start();
+        Connection connection = super.getConnection(username, password);
+        RequestTiming.stop(RequestTiming.Phase.POOL, start);
+        return wrap(connection, sampled);
+    }
+
+    // mantém o fechamento do pool no shutdown (o Spring infere close() na instância final do bean)
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    // sqlLog nulo: conexão só cronometrada, sem log dos SQL
+    private Connection wrap(Connection connection, boolean sampled) {
+        return (Connection) Proxy.newProxyInstance(
+                InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, sampled ? sqlLog : null));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private record ConnectionHandler(Connection target, SqlStatementLog sqlLog) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("commit")) {
+                long start = RequestTiming.start();
+                try {
+                    return InstrumentedDataSource.invoke(target, method, args);
+                } finally {
+                    RequestTiming.stop(RequestTiming.Phase.COMMIT, start);
+                }
+            }
+
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return Proxy.newProxyInstance(
+                        InstrumentedDataSource.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new StatementHandler(statement, sql, sqlLog));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final SqlStatementLog sqlLog;
+        private int binds;
+
+        StatementHandler(Statement target, String preparedSql, SqlStatementLog sqlLog) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.sqlLog = sqlLog;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && isParameterSetter(method) && args[0] instanceof Integer index) {
+                binds = Math.max(binds, index);
+            } else if (name.equals("clearParameters")) {
+                binds = 0;
+            }
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            long start = System.nanoTime();
+            long timingStart = RequestTiming.start();
+            try {
+                return InstrumentedDataSource.invoke(target, method, args);
+            } finally {
+                RequestTiming.stop(RequestTiming.Phase.SQL, timingStart, sql);
+                if (sqlLog != null) {
+                    sqlLog.record(sql, binds, System.nanoTime() - start);
+                }
+            }
+        }
+
+        // setString(int, ...), setNull(int, ...) etc.; setFetchSize e afins são de Statement
+        private static boolean isParameterSetter(Method method) {
+            Class<?> owner = method.getDeclaringClass();
+            return (owner == PreparedStatement.class || owner == CallableStatement.class)
+                    && method.getParameterCount() >= 2
+                    && method.getParameterTypes()[0] == int.class;
+        }
+    }
+}
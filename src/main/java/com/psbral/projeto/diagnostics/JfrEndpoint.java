@@ -0,0 +1,105 @@
+package com.psbral.projeto.diagnostics;
+
+import com.psbral.projeto.config.JfrProperties;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@code GET /actuator/jfr?window=PT5M} devolve o {@link JfrSummary} da janela;
+ * {@code POST /actuator/jfr} com {@code {"window": "PT5M"}} devolve o recorte {@code .jfr} para
+ * abrir no JDK Mission Control. Sem {@code window}, vale {@code app.jfr.default-window}; janelas
+ * maiores que {@code app.jfr.max-age} são limitadas a ela.
+ * <p>
+ * O recorte traz argumentos da JVM, propriedades de sistema e variáveis de ambiente: o endpoint
+ * não entra na exposição padrão e deve ficar na porta de gerência ({@code management.server.port}).
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private final ContinuousRecording recording;
+    private final JfrProperties properties;
+
+    public JfrEndpoint(ContinuousRecording recording, JfrProperties properties) {
+        this.recording = recording;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public JfrSummary summary(@Nullable Duration window) throws IOException {
+        Duration effective = effectiveWindow(window);
+        Instant from = Instant.now().minus(effective);
+        Path file = recording.dump(effective);
+        try {
+            return JfrSummarizer.summarize(file, from, properties.top());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @WriteOperation(produces = "application/octet-stream")
+    public Resource dump(@Nullable Duration window) throws IOException {
+        return new TemporaryFileResource(recording.dump(effectiveWindow(window)));
+    }
+
+    // além do max-age o JFR não tem histórico: só aumentaria o arquivo lido a cada pedido
+    private Duration effectiveWindow(@Nullable Duration window) {
+        if (window == null) {
+            return properties.defaultWindow();
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new InvalidEndpointRequestException("window deve ser positiva: " + window, "window inválida");
+        }
+        return window.compareTo(properties.maxAge()) > 0 ? properties.maxAge() : window;
+    }
+
+    /**
+     * Apaga o arquivo temporário quando a resposta termina de ser escrita.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        delete();
+                    }
+                }
+            };
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(getFile().toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return "setis.jfr";
+        }
+    }
+}
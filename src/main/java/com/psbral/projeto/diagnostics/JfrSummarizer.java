@@ -0,0 +1,172 @@
+package com.psbral.projeto.diagnostics;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Lê um arquivo do JFR em streaming e agrega as visões do {@link JfrSummary}, considerando só
+ * eventos a partir de {@code from}.
+ */
+final class JfrSummarizer {
+
+    private static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+    private final Instant from;
+    private final int top;
+
+    private long events;
+    private final Map<String, long[]> allocations = new HashMap<>();          // samples, bytes
+    private final Map<String, double[]> contention = new HashMap<>();         // count, total, max
+    private long collections;
+    private double gcTotal;
+    private double gcMax;
+    private final PriorityQueue<JfrSummary.Pause> longestPauses =
+            new PriorityQueue<>(Comparator.comparingDouble(JfrSummary.Pause::millis));
+    private final PriorityQueue<JfrSummary.SlowCall> slowestCalls =
+            new PriorityQueue<>(Comparator.comparingDouble(JfrSummary.SlowCall::millis));
+
+    private JfrSummarizer(Instant from, int top) {
+        this.from = from;
+        this.top = top;
+    }
+
+    static JfrSummary summarize(Path file, Instant from, int top) throws IOException {
+        JfrSummarizer summarizer = new JfrSummarizer(from, top);
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                summarizer.accept(recording.readEvent());
+            }
+        }
+        return summarizer.result(Instant.now());
+    }
+
+    private void accept(RecordedEvent event) {
+        if (event.getStartTime().isBefore(from)) {
+            return;
+        }
+        events++;
+        switch (event.getEventType().getName()) {
+            case "jdk.ObjectAllocationSample" -> {
+                String key = site(event.getStackTrace()) + "|" + className(event.getClass("objectClass"));
+                long[] totals = allocations.computeIfAbsent(key, k -> new long[2]);
+                totals[0]++;
+                totals[1] += event.getLong("weight");
+            }
+            case "jdk.JavaMonitorEnter" ->
+                    contended("monitor", className(event.getClass("monitorClass")), event);
+            case "jdk.ThreadPark" ->
+                    contended("park", className(event.getClass("parkedClass")), event);
+            case "jdk.GarbageCollection" -> {
+                double pause = millis(event.getDuration("sumOfPauses"));
+                collections++;
+                gcTotal += pause;
+                gcMax = Math.max(gcMax, millis(event.getDuration("longestPause")));
+                keepTop(longestPauses, new JfrSummary.Pause(
+                        event.getString("name"), event.getString("cause"), event.getStartTime(), pause));
+            }
+            case ServiceCallEvent.NAME -> keepTop(slowestCalls, new JfrSummary.SlowCall(
+                    event.getString("operation"), event.getString("outcome"),
+                    event.getString("correlationId"), event.getStartTime(), millis(event.getDuration())));
+            default -> {
+                // demais eventos só entram na contagem
+            }
+        }
+    }
+
+    private void contended(String kind, String lock, RecordedEvent event) {
+        double duration = millis(event.getDuration());
+        double[] totals = contention.computeIfAbsent(
+                kind + "|" + lock + "|" + site(event.getStackTrace()), k -> new double[3]);
+        totals[0]++;
+        totals[1] += duration;
+        totals[2] = Math.max(totals[2], duration);
+    }
+
+    private <T> void keepTop(PriorityQueue<T> queue, T item) {
+        queue.add(item);
+        if (queue.size() > top) {
+            queue.poll();
+        }
+    }
+
+    private JfrSummary result(Instant to) {
+        List<JfrSummary.AllocationSite> allocationSites = new ArrayList<>();
+        allocations.forEach((key, totals) -> {
+            String[] parts = key.split("\\|", 2);
+            allocationSites.add(new JfrSummary.AllocationSite(parts[0], parts[1], totals[0], totals[1]));
+        });
+        allocationSites.sort(Comparator.comparingLong(JfrSummary.AllocationSite::bytes).reversed());
+
+        List<JfrSummary.Contention> locks = new ArrayList<>();
+        contention.forEach((key, totals) -> {
+            String[] parts = key.split("\\|", 3);
+            locks.add(new JfrSummary.Contention(parts[0], parts[1], parts[2], (long) totals[0], totals[1], totals[2]));
+        });
+        locks.sort(Comparator.comparingDouble(JfrSummary.Contention::totalMillis).reversed());
+
+        return new JfrSummary(from, to, events,
+                allocationSites.subList(0, Math.min(top, allocationSites.size())),
+                new JfrSummary.GcPauses(collections, gcTotal, gcMax,
+                        descending(longestPauses, Comparator.comparingDouble(JfrSummary.Pause::millis))),
+                locks.subList(0, Math.min(top, locks.size())),
+                descending(slowestCalls, Comparator.comparingDouble(JfrSummary.SlowCall::millis)));
+    }
+
+    private static <T> List<T> descending(PriorityQueue<T> queue, Comparator<T> order) {
+        List<T> items = new ArrayList<>(queue);
+        items.sort(order.reversed());
+        return items;
+    }
+
+    /**
+     * Primeiro frame fora do JDK (onde o código da aplicação pediu a alocação ou o lock);
+     * se a pilha é toda do JDK, o frame do topo.
+     */
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "?";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.isJavaFrame() && !isJdk(frame.getMethod().getType().getName())) {
+                return describe(frame);
+            }
+        }
+        return describe(frames.get(0));
+    }
+
+    private static boolean isJdk(String className) {
+        for (String prefix : JDK_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass == null ? "?" : recordedClass.getName();
+    }
+
+    private static double millis(Duration duration) {
+        return duration == null ? 0 : duration.toNanos() / 1_000_000.0;
+    }
+}
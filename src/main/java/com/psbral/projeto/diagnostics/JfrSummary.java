@@ -0,0 +1,34 @@
+package com.psbral.projeto.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Resumo de um recorte do JFR, servido em {@code GET /actuator/jfr}.
+ */
+public record JfrSummary(
+        Instant from,
+        Instant to,
+        long events,
+        List<AllocationSite> allocationSites,
+        GcPauses gcPauses,
+        List<Contention> lockContention,
+        List<SlowCall> slowestCalls
+) {
+
+    /**
+     * Amostras de {@code jdk.ObjectAllocationSample} somadas pelo primeiro frame fora do JDK.
+     */
+    public record AllocationSite(String site, String objectClass, long samples, long bytes) { }
+
+    public record GcPauses(long collections, double totalMillis, double maxMillis, List<Pause> longest) { }
+
+    public record Pause(String collector, String cause, Instant at, double millis) { }
+
+    /**
+     * Espera por monitor ({@code synchronized}) ou por lock de {@code java.util.concurrent} (park).
+     */
+    public record Contention(String kind, String lock, String site, long count, double totalMillis, double maxMillis) { }
+
+    public record SlowCall(String operation, String outcome, String correlationId, Instant at, double millis) { }
+}
@@ -0,0 +1,164 @@
+package com.psbral.projeto.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tempos por fase da requisição corrente, guardados num {@link ThreadLocal}. Só existe quando
+ * a requisição pediu {@code Server-Timing} ou foi sorteada para trace; fora disso cada ponto
+ * de medição custa uma leitura de ThreadLocal.
+ * <p>
+ * Uso nos pontos de medição:
+ * <pre>{@code
+ * long start = RequestTiming.start();
+ * ...
+ * RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+ * }</pre>
+ * Trabalho feito em outras threads (ex.: consultas paralelas nos shards) não é atribuído.
+ */
+public final class RequestTiming {
+
+    public enum Phase {
+        VALIDATION, POOL, SQL, COMMIT, MAPPING, SERIALIZATION;
+
+        final String metric = name().toLowerCase(Locale.ROOT);
+    }
+
+    public record Span(String phase, double offsetMillis, double durationMillis, String detail) { }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final int MAX_DETAIL = 200;
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[Phase.values().length];
+    private final int[] counts = new int[Phase.values().length];
+    private final List<Span> spans;
+    private final int maxSpans;
+    private int droppedSpans;
+    private long serializationStart;
+    private long totalNanos = -1;
+
+    private RequestTiming(boolean traced, int maxSpans) {
+        this.spans = traced ? new ArrayList<>() : null;
+        this.maxSpans = maxSpans;
+    }
+
+    static RequestTiming begin(boolean traced, int maxSpans) {
+        RequestTiming timing = new RequestTiming(traced, maxSpans);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    public static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    /** Marca o início de um trecho; {@code 0} quando não há medição em curso. */
+    public static long start() {
+        return CURRENT.get() == null ? 0 : System.nanoTime();
+    }
+
+    public static void stop(Phase phase, long start) {
+        stop(phase, start, null);
+    }
+
+    public static void stop(Phase phase, long start, String detail) {
+        if (start == 0) {
+            return;
+        }
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.record(phase, start, System.nanoTime() - start, detail);
+        }
+    }
+
+    /** Chamado logo antes de o corpo ser escrito; a serialização termina no fim da cadeia de filtros. */
+    static void serializationStarted() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null && timing.serializationStart == 0) {
+            timing.serializationStart = System.nanoTime();
+        }
+    }
+
+    void finish() {
+        long end = System.nanoTime();
+        if (serializationStart != 0) {
+            record(Phase.SERIALIZATION, serializationStart, end - serializationStart, null);
+            serializationStart = 0;
+        }
+        totalNanos = end - startNanos;
+    }
+
+    private void record(Phase phase, long start, long duration, String detail) {
+        nanos[phase.ordinal()] += duration;
+        counts[phase.ordinal()]++;
+        if (spans == null) {
+            return;
+        }
+        if (spans.size() >= maxSpans) {
+            droppedSpans++;
+            return;
+        }
+        spans.add(new Span(phase.metric, millis(start - startNanos), millis(duration), truncate(detail)));
+    }
+
+    double millis(Phase phase) {
+        return millis(nanos[phase.ordinal()]);
+    }
+
+    int count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    double totalMillis() {
+        return millis(totalNanos);
+    }
+
+    List<Span> spans() {
+        return spans == null ? List.of() : List.copyOf(spans);
+    }
+
+    int droppedSpans() {
+        return droppedSpans;
+    }
+
+    /**
+     * Valor do header, ex.: {@code pool;dur=0.12, sql;dur=3.40;desc="2x", total;dur=6.02}.
+     * Fases que não ocorreram são omitidas.
+     */
+    String serverTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            header.append(phase.metric).append(";dur=").append(format(millis(phase)));
+            if (count > 1) {
+                header.append(";desc=\"").append(count).append("x\"");
+            }
+            header.append(", ");
+        }
+        return header.append("total;dur=").append(format(totalMillis())).toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+
+    private static String truncate(String detail) {
+        if (detail == null || detail.length() <= MAX_DETAIL) {
+            return detail;
+        }
+        return detail.substring(0, MAX_DETAIL) + "…";
+    }
+}
@@ -0,0 +1,94 @@
+package com.psbral.projeto.diagnostics;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.config.RequestTimingProperties;
+import com.psbral.projeto.web.CorrelationIdFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Abre um {@link RequestTiming} para as requisições que pediram {@code Server-Timing} ou foram
+ * sorteadas para trace. Com o header, a resposta é bufferizada para que ele possa ser escrito
+ * depois da serialização; requisições não medidas passam direto, sem custo extra.
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String OPT_IN_HEADER = "X-Request-Timing";
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final RequestTimingProperties properties;
+    private final TraceStore traces;
+
+    public RequestTimingFilter(RequestTimingProperties properties, TraceStore traces) {
+        this.properties = properties;
+        this.traces = traces;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        boolean header = switch (properties.serverTiming()) {
+            case ALWAYS -> true;
+            case ON_REQUEST -> "true".equalsIgnoreCase(request.getHeader(OPT_IN_HEADER));
+            case OFF -> false;
+        };
+        boolean traced = properties.sampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.sampleRate();
+        if (!header && !traced) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // o trace usa o id de correlação, para cruzar com as linhas de log da mesma requisição
+        String correlationId = MDC.get(CorrelationIdFilter.MDC_KEY);
+        String traceId = !traced ? null
+                : correlationId != null ? correlationId : UlidCreator.getUlid().toString();
+        if (traced) {
+            response.setHeader(TRACE_ID_HEADER, traceId);
+        }
+        ContentCachingResponseWrapper buffered = header ? new ContentCachingResponseWrapper(response) : null;
+        Instant timestamp = Instant.now();
+        RequestTiming timing = RequestTiming.begin(traced, properties.maxSpans());
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            timing.finish();
+            RequestTiming.clear();
+
+            if (traced) {
+                traces.add(trace(traceId, timestamp, request, response.getStatus(), timing));
+            }
+            if (buffered != null) {
+                buffered.setHeader("Server-Timing", timing.serverTiming());
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private static RequestTrace trace(String id, Instant timestamp, HttpServletRequest request,
+                                      int status, RequestTiming timing) {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (RequestTiming.Phase phase : RequestTiming.Phase.values()) {
+            if (timing.count(phase) > 0) {
+                phases.put(phase.metric, timing.millis(phase));
+            }
+        }
+        String path = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        return new RequestTrace(id, timestamp, request.getMethod(), path, status,
+                timing.totalMillis(), phases, timing.spans(), timing.droppedSpans());
+    }
+}
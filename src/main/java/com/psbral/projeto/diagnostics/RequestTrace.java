@@ -0,0 +1,24 @@
+package com.psbral.projeto.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requisição amostrada, exposta em {@code GET /actuator/timings}.
+ *
+ * @param phases       milissegundos acumulados por fase
+ * @param spans        cada trecho medido, em ordem; limitado a {@code app.timing.max-spans}
+ * @param droppedSpans trechos além do limite (somados em {@code phases}, mas não listados)
+ */
+public record RequestTrace(
+        String id,
+        Instant timestamp,
+        String method,
+        String path,
+        int status,
+        double totalMillis,
+        Map<String, Double> phases,
+        List<RequestTiming.Span> spans,
+        int droppedSpans
+) { }
@@ -0,0 +1,49 @@
+package com.psbral.projeto.diagnostics;
+
+import com.psbral.projeto.web.CorrelationIdFilter;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.slf4j.MDC;
+
+/**
+ * Evento JFR de cada chamada do {@code UserController} ao {@code ServiceRepository}. Sem
+ * gravação ativa, {@link #commit()} não faz nada; com gravação, só chamadas acima do threshold
+ * são gravadas.
+ */
+@Name("com.psbral.projeto.ServiceCall")
+@Label("Service Call")
+@Category({"SETIS", "Users"})
+@Description("Chamada ao serviço de usuários feita pelo controller")
+@StackTrace(false)
+@Threshold("1 ms")
+public class ServiceCallEvent extends Event {
+
+    public static final String NAME = "com.psbral.projeto.ServiceCall";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Correlation Id")
+    String correlationId;
+
+    @Label("Outcome")
+    String outcome;
+
+    public static ServiceCallEvent begin(String operation) {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.operation = operation;
+        event.correlationId = MDC.get(CorrelationIdFilter.MDC_KEY);
+        event.begin();
+        return event;
+    }
+
+    public void end(String outcome) {
+        this.outcome = outcome;
+        commit();
+    }
+}
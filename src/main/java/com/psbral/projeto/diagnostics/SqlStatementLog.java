@@ -0,0 +1,43 @@
+package com.psbral.projeto.diagnostics;
+
+import com.psbral.projeto.config.SqlLoggingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Substitui o {@code spring.jpa.show-sql}: registra no logger {@code sql.sampled} os SQL de uma
+ * amostra ({@code app.logging.sql.sample-rate}) das conexões obtidas do pool. Os campos também vão
+ * como pares chave/valor para o log estruturado. Consultas lentas ficam com o próprio Hibernate
+ * ({@code hibernate.log_slow_query}, ver {@link com.psbral.projeto.config.ConfigLogging}), sem
+ * proxy nas conexões.
+ */
+public class SqlStatementLog {
+
+    private static final Logger sampled = LoggerFactory.getLogger("sql.sampled");
+
+    private final double sampleRate;
+
+    public SqlStatementLog(SqlLoggingProperties properties) {
+        this.sampleRate = properties.sampleRate();
+    }
+
+    /**
+     * Sorteia se a conexão que está saindo do pool terá os seus SQL registrados.
+     */
+    public boolean sample() {
+        return sampleRate > 0 && sampled.isInfoEnabled()
+                && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    void record(String sql, int binds, long nanos) {
+        double millis = nanos / 1_000_000.0;
+        sampled.atInfo()
+                .addKeyValue("durationMs", millis)
+                .addKeyValue("binds", binds)
+                .addKeyValue("statement", sql)
+                .log("SQL ({} ms, {} parâmetros): {}", String.format(Locale.ROOT, "%.2f", millis), binds, sql);
+    }
+}
@@ -0,0 +1,47 @@
+package com.psbral.projeto.diagnostics;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Validador do Spring MVC que mede o Bean Validation dos corpos {@code @Valid}.
+ */
+public class TimingValidator implements SmartValidator {
+
+    private final SmartValidator target;
+
+    public TimingValidator(SmartValidator target) {
+        this.target = target;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return target.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object object, Errors errors) {
+        long start = RequestTiming.start();
+        try {
+            target.validate(object, errors);
+        } finally {
+            RequestTiming.stop(RequestTiming.Phase.VALIDATION, start, object.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public void validate(Object object, Errors errors, Object... validationHints) {
+        long start = RequestTiming.start();
+        try {
+            target.validate(object, errors, validationHints);
+        } finally {
+            RequestTiming.stop(RequestTiming.Phase.VALIDATION, start, object.getClass().getSimpleName());
+        }
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value,
+                              Errors errors, Object... validationHints) {
+        target.validateValue(targetType, fieldName, value, errors, validationHints);
+    }
+}
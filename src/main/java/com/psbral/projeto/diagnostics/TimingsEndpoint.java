@@ -0,0 +1,27 @@
+package com.psbral.projeto.diagnostics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.List;
+
+@Endpoint(id = "timings")
+public class TimingsEndpoint {
+
+    private final TraceStore traces;
+
+    public TimingsEndpoint(TraceStore traces) {
+        this.traces = traces;
+    }
+
+    @ReadOperation
+    public List<RequestTrace> recent() {
+        return traces.recent();
+    }
+
+    @ReadOperation
+    public RequestTrace trace(@Selector String id) {
+        return traces.find(id).orElse(null);
+    }
+}
@@ -0,0 +1,38 @@
+package com.psbral.projeto.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Buffer circular com os traces mais recentes; o mais antigo é descartado quando enche.
+ */
+public class TraceStore {
+
+    private final RequestTrace[] traces;
+    private int next;
+    private int size;
+
+    public TraceStore(int capacity) {
+        this.traces = new RequestTrace[Math.max(1, capacity)];
+    }
+
+    public synchronized void add(RequestTrace trace) {
+        traces[next] = trace;
+        next = (next + 1) % traces.length;
+        size = Math.min(size + 1, traces.length);
+    }
+
+    /** Do mais recente para o mais antigo. */
+    public synchronized List<RequestTrace> recent() {
+        List<RequestTrace> result = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            result.add(traces[Math.floorMod(next - i, traces.length)]);
+        }
+        return result;
+    }
+
+    public synchronized Optional<RequestTrace> find(String id) {
+        return recent().stream().filter(trace -> trace.id().equals(id)).findFirst();
+    }
+}
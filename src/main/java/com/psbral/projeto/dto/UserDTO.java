@@ -1,7 +1,11 @@
 package com.psbral.projeto.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 public record UserDTO() {
 
@@ -31,4 +35,48 @@ public record UserDTO() {
             String email,
             LocalDate birthDate
     ) { }
+
+    public record BatchRequest(
+            @NotEmpty(message = "Informe ao menos um id")
+            List<@NotBlank(message = "Id não pode ser vazio") String> ids
+    ) { }
+
+    // users mantém a ordem dos ids pedidos; ids inexistentes vão para missing
+    public record BatchResponse(
+            Map<String, Response> users,
+            List<String> missing
+    ) { }
+
+    public record UpsertBatchRequest(
+            @NotEmpty(message = "Informe ao menos um usuário")
+            List<@Valid @NotNull(message = "Usuário não pode ser nulo") Request> users
+    ) { }
+
+    public enum UpsertStatus { CREATED, UPDATED, UNCHANGED }
+
+    // UNCHANGED: o e-mail já existia com os mesmos dados e nada foi gravado
+    public record UpsertResponse(
+            String id,
+            UpsertStatus status,
+            Response user
+    ) { }
+
+    public record Stats(
+            long total,
+            Map<LocalDate, Long> signupsPerDay,
+            List<AgeBucket> ageDistribution,
+            Instant reconciledAt
+    ) { }
+
+    public record AgeBucket(
+            String range,
+            long count
+    ) { }
+
+    public record Suggestion(
+            String id,
+            String name,
+            String email,
+            double score
+    ) { }
 }
@@ -0,0 +1,51 @@
+package com.psbral.projeto.migrations;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Cópia em lotes declarada por uma {@link OnlineMigration}: percorre {@code table} em ordem de
+ * {@code key} (keyset, usando o índice da chave) e aplica {@code assignments} às linhas do
+ * intervalo que ainda satisfazem {@code pending}. Linhas já gravadas pelo dual write não casam
+ * com {@code pending} e não são tocadas de novo.
+ *
+ * @param name        identificador do backfill em {@code tb_online_migration}
+ * @param table       tabela copiada
+ * @param key         chave única e ordenável (texto), usada para retomar de onde parou
+ * @param assignments cláusula {@code SET}, ex.: {@code last_update = updated_at}
+ * @param pending     condição das linhas que ainda precisam da cópia, ex.: {@code last_update IS NULL}
+ * @param cutOver     comandos curtos executados numa única transação depois do último lote
+ */
+public record Backfill(
+        String name,
+        String table,
+        String key,
+        String assignments,
+        String pending,
+        List<String> cutOver
+) {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    public Backfill {
+        for (String identifier : List.of(name, table, key)) {
+            if (!IDENTIFIER.matcher(identifier).matches()) {
+                throw new IllegalArgumentException("Identificador inválido no backfill: " + identifier);
+            }
+        }
+        cutOver = List.copyOf(cutOver);
+    }
+
+    /**
+     * Maior chave entre as próximas {@code limit} depois de {@code afterKey}; {@code null} no fim.
+     */
+    String chunkEndSql() {
+        return "SELECT MAX(" + key + ") FROM (SELECT " + key + " FROM " + table
+                + " WHERE " + key + " > ? ORDER BY " + key + " LIMIT ?) chunk";
+    }
+
+    String copySql() {
+        return "UPDATE " + table + " SET " + assignments
+                + " WHERE " + key + " > ? AND " + key + " <= ? AND (" + pending + ")";
+    }
+}
@@ -0,0 +1,220 @@
+package com.psbral.projeto.migrations;
+
+import com.psbral.projeto.config.OnlineMigrationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa um {@link Backfill} em um banco: assume o lease em {@code tb_online_migration}, copia
+ * lote a lote a partir de {@code last_key} e termina com o cut-over.
+ * <p>
+ * Cada lote é uma transação que copia o intervalo e grava o novo {@code last_key} junto, então
+ * uma execução interrompida retoma do último lote confirmado. Se o lease foi assumido por outra
+ * réplica (heartbeat vencido), a gravação do progresso falha e o lote é desfeito.
+ */
+final class BackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BackfillJob.class);
+
+    enum Outcome { COMPLETED, SKIPPED, LEASE_LOST, GAVE_UP, INTERRUPTED }
+
+    record Result(String name, Outcome outcome, long rows, int chunks) { }
+
+    private record Chunk(String lastKey, int rows) { }
+
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException(String name) {
+            super("Lease do backfill " + name + " assumido por outra instância");
+        }
+    }
+
+    private final Backfill backfill;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final OnlineMigrationProperties properties;
+    private final String owner;
+    private final Counter rowsCounter;
+    private final Timer chunkTimer;
+    private final boolean postgres;
+
+    BackfillJob(Backfill backfill,
+                DataSource dataSource,
+                OnlineMigrationProperties properties,
+                String owner,
+                Counter rowsCounter,
+                Timer chunkTimer) {
+        this.backfill = backfill;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.properties = properties;
+        this.owner = owner;
+        this.rowsCounter = rowsCounter;
+        this.chunkTimer = chunkTimer;
+        this.postgres = Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) OnlineMigration::isPostgres));
+    }
+
+    Result run() {
+        String name = backfill.name();
+        String lastKey = claim();
+        if (lastKey == null) {
+            return new Result(name, Outcome.SKIPPED, 0, 0);
+        }
+
+        long rows = 0;
+        int chunks = 0;
+        int failures = 0;
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                Chunk chunk;
+                try {
+                    chunk = copyChunk(lastKey);
+                    failures = 0;
+                } catch (PessimisticLockingFailureException | QueryTimeoutException e) {
+                    if (++failures >= properties.attempts()) {
+                        log.warn("Backfill {} parado em {} após {} lotes sem lock; retoma na próxima execução",
+                                name, lastKey, failures, e);
+                        return new Result(name, Outcome.GAVE_UP, rows, chunks);
+                    }
+                    sleep(properties.lockTimeout().toMillis() * failures);
+                    continue;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (chunk == null) {
+                    break;
+                }
+
+                lastKey = chunk.lastKey();
+                rows += chunk.rows();
+                chunks++;
+                rowsCounter.increment(chunk.rows());
+                chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                throttle(chunk.rows(), elapsed);
+            }
+
+            if (!cutOver()) {
+                return new Result(name, Outcome.GAVE_UP, rows, chunks);
+            }
+        } catch (LeaseLostException e) {
+            log.info("{}; {} linhas copiadas por esta instância", e.getMessage(), rows);
+            return new Result(name, Outcome.LEASE_LOST, rows, chunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(name, Outcome.INTERRUPTED, rows, chunks);
+        }
+
+        log.info("Backfill {} concluído: {} linhas em {} lotes", name, rows, chunks);
+        return new Result(name, Outcome.COMPLETED, rows, chunks);
+    }
+
+    /**
+     * Assume o backfill se estiver pendente e sem dono ativo; devolve a chave de onde retomar
+     * ou {@code null} se não há nada a fazer aqui.
+     */
+    private String claim() {
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbc.update("UPDATE tb_online_migration"
+                        + " SET status = 'RUNNING', owner = ?, heartbeat = ?, started_at = COALESCE(started_at, ?)"
+                        + " WHERE name = ? AND status IN ('PENDING', 'RUNNING')"
+                        + " AND (owner IS NULL OR owner = ? OR heartbeat < ?)",
+                owner, now, now, backfill.name(), owner, now.minus(properties.lease()));
+        if (claimed == 0) {
+            return null;
+        }
+        List<Map<String, Object>> row = jdbc.queryForList(
+                "SELECT last_key, rows_done FROM tb_online_migration WHERE name = ?", backfill.name());
+        String lastKey = (String) row.get(0).get("last_key");
+        if (!lastKey.isEmpty()) {
+            log.info("Backfill {} retomado após {} ({} linhas já copiadas)",
+                    backfill.name(), lastKey, row.get(0).get("rows_done"));
+        }
+        return lastKey;
+    }
+
+    private Chunk copyChunk(String afterKey) {
+        return transactions.execute(status -> {
+            applyTimeouts();
+            String end = jdbc.queryForObject(backfill.chunkEndSql(), String.class, afterKey, properties.chunkSize());
+            if (end == null) {
+                return null;
+            }
+            int copied = jdbc.update(backfill.copySql(), afterKey, end);
+            heartbeat("last_key = ?, rows_done = rows_done + ?", end, copied);
+            return new Chunk(end, copied);
+        });
+    }
+
+    /**
+     * Comandos de cut-over e o {@code COMPLETED} numa transação só; sem lock a tempo, tenta de novo.
+     */
+    private boolean cutOver() throws InterruptedException {
+        for (int attempt = 1; attempt <= properties.attempts(); attempt++) {
+            try {
+                transactions.executeWithoutResult(status -> {
+                    applyTimeouts();
+                    backfill.cutOver().forEach(jdbc::update);
+                    heartbeat("status = 'COMPLETED', finished_at = ?", LocalDateTime.now());
+                });
+                return true;
+            } catch (PessimisticLockingFailureException | QueryTimeoutException e) {
+                log.warn("Cut-over de {} sem lock (tentativa {} de {})",
+                        backfill.name(), attempt, properties.attempts(), e);
+                sleep(properties.lockTimeout().toMillis() * attempt);
+            }
+        }
+        return false;
+    }
+
+    private void heartbeat(String assignments, Object... values) {
+        Object[] args = new Object[values.length + 3];
+        System.arraycopy(values, 0, args, 0, values.length);
+        args[values.length] = LocalDateTime.now();
+        args[values.length + 1] = backfill.name();
+        args[values.length + 2] = owner;
+        int updated = jdbc.update("UPDATE tb_online_migration SET " + assignments
+                + ", heartbeat = ? WHERE name = ? AND owner = ?", args);
+        if (updated == 0) {
+            throw new LeaseLostException(backfill.name());
+        }
+    }
+
+    // SET LOCAL vale só para a transação corrente
+    private void applyTimeouts() {
+        if (postgres) {
+            jdbc.execute("SET LOCAL lock_timeout = '" + properties.lockTimeout().toMillis() + "ms'");
+            jdbc.execute("SET LOCAL statement_timeout = '" + properties.statementTimeout().toMillis() + "ms'");
+        }
+    }
+
+    /**
+     * Respeita a pausa mínima e o teto de linhas por segundo.
+     */
+    private void throttle(int rows, long elapsedNanos) throws InterruptedException {
+        long pause = properties.pauseBetweenChunks().toMillis();
+        if (properties.maxRowsPerSecond() > 0) {
+            long budget = rows * 1000L / properties.maxRowsPerSecond();
+            pause = Math.max(pause, budget - elapsedNanos / 1_000_000);
+        }
+        sleep(pause);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.psbral.projeto.migrations;
+
+import com.psbral.projeto.config.OnlineMigrationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * V2 renomeou {@code data_edicao} para {@code updated_at}, mas a entidade {@code User} grava
+ * {@code last_update}. Expand: cria {@code last_update} anulável e sem default (só metadados no
+ * Postgres). A entidade grava as duas colunas e o backfill copia {@code updated_at} das linhas
+ * antigas; o cut-over pega o que foi gravado sem dual write durante a cópia.
+ * <p>
+ * Contract, numa versão seguinte: remover {@code legacyUpdatedAt} da entidade e
+ * {@code DROP COLUMN updated_at}.
+ */
+@Component
+public class LastUpdateBackfillMigration extends OnlineMigration {
+
+    private static final String COPY = "last_update = updated_at";
+    private static final String PENDING = "last_update IS NULL AND updated_at IS NOT NULL";
+
+    public LastUpdateBackfillMigration(OnlineMigrationProperties properties) {
+        super("7", "add last_update shadow column", properties);
+    }
+
+    @Override
+    protected List<String> expand() {
+        return List.of("ALTER TABLE tb_usuario ADD COLUMN IF NOT EXISTS last_update TIMESTAMP");
+    }
+
+    @Override
+    public Backfill backfill() {
+        return new Backfill("user_last_update", "tb_usuario", "id", COPY, PENDING,
+                List.of("UPDATE tb_usuario SET " + COPY + " WHERE " + PENDING));
+    }
+}
@@ -0,0 +1,129 @@
+package com.psbral.projeto.migrations;
+
+import com.psbral.projeto.config.OnlineMigrationProperties;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migração Java do Flyway no padrão expand/contract, para alterar {@code tb_usuario} sem reescrever
+ * nem travar a tabela durante o deploy.
+ * <p>
+ * O Flyway executa apenas o <b>expand</b>: DDL curtos (coluna sombra anulável, sem default), cada
+ * um fora de transação e com {@code lock_timeout}, repetidos se o lock não sair a tempo; por fim
+ * registra o {@link #backfill()} em {@code tb_online_migration}. A cópia dos dados e o cut-over
+ * ficam com o {@link OnlineMigrationRunner}, em segundo plano, com a aplicação já atendendo.
+ * Enquanto isso a entidade deve gravar as duas colunas (dual write).
+ * <p>
+ * Subclasses são {@code @Component}: o Spring Boot entrega os beans {@link JavaMigration} ao
+ * Flyway, e com sharding a mesma migração roda em cada shard.
+ */
+public abstract class OnlineMigration implements JavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineMigration.class);
+
+    // lock_not_available: estourou o lock_timeout
+    static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private final MigrationVersion version;
+    private final String description;
+    protected final OnlineMigrationProperties properties;
+
+    protected OnlineMigration(String version, String description, OnlineMigrationProperties properties) {
+        this.version = MigrationVersion.fromVersion(version);
+        this.description = description;
+        this.properties = properties;
+    }
+
+    /**
+     * DDL do expand. Cada comando deve ser só de metadados (ex.: {@code ADD COLUMN} anulável).
+     */
+    protected abstract List<String> expand();
+
+    public abstract Backfill backfill();
+
+    @Override
+    public MigrationVersion getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return (String.join("\n", expand()) + "\n" + backfill()).hashCode();
+    }
+
+    // cada DDL confirma sozinho: o lock exclusivo dura só o comando, não a migração inteira
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = isPostgres(connection);
+        for (String ddl : expand()) {
+            executeDdl(connection, ddl, postgres);
+        }
+        register(connection, backfill().name());
+    }
+
+    private void executeDdl(Connection connection, String ddl, boolean postgres) throws SQLException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try (Statement statement = connection.createStatement()) {
+                if (postgres) {
+                    statement.execute("SET lock_timeout = '" + properties.lockTimeout().toMillis() + "ms'");
+                }
+                statement.execute(ddl);
+                if (postgres) {
+                    statement.execute("RESET lock_timeout");
+                }
+                return;
+            } catch (SQLException e) {
+                if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState()) || attempt >= properties.attempts()) {
+                    throw e;
+                }
+                // sem o timeout, o ALTER ficaria na fila atrás de uma transação longa e bloquearia todo o resto
+                log.warn("DDL sem lock em {} (tentativa {} de {}): {}",
+                        properties.lockTimeout(), attempt, properties.attempts(), ddl);
+                Thread.sleep(properties.lockTimeout().toMillis() * attempt);
+            }
+        }
+    }
+
+    private static void register(Connection connection, String name) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT COUNT(*) FROM tb_online_migration WHERE name = ?")) {
+            select.setString(1, name);
+            try (ResultSet result = select.executeQuery()) {
+                result.next();
+                if (result.getInt(1) > 0) {
+                    return;
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO tb_online_migration (name, status, last_key, rows_done) VALUES (?, 'PENDING', '', 0)")) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+        }
+    }
+
+    static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+}
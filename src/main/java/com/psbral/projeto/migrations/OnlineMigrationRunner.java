@@ -0,0 +1,134 @@
+package com.psbral.projeto.migrations;
+
+import com.psbral.projeto.config.OnlineMigrationProperties;
+import com.psbral.projeto.sharding.ShardDataSources;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Roda em segundo plano os backfills das {@link OnlineMigration}s registradas, depois que a
+ * aplicação fica pronta e de novo a cada {@code app.migrations.online.check-interval}, para
+ * retomar backfills parados ou cujo lease venceu em outra réplica. Com sharding, cada shard
+ * tem seu próprio {@code tb_online_migration} e é migrado em sequência.
+ * <p>
+ * Métricas: {@code app.migrations.online.rows} e {@code app.migrations.online.chunk}, por migração.
+ */
+@Component
+public class OnlineMigrationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineMigrationRunner.class);
+
+    private final List<OnlineMigration> migrations;
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardDataSources> shards;
+    private final OnlineMigrationProperties properties;
+    private final MeterRegistry registry;
+    private final String owner = UUID.randomUUID().toString();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "online-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OnlineMigrationRunner(List<OnlineMigration> migrations,
+                                 DataSource dataSource,
+                                 ObjectProvider<ShardDataSources> shards,
+                                 OnlineMigrationProperties properties,
+                                 MeterRegistry registry) {
+        this.migrations = migrations;
+        this.dataSource = dataSource;
+        this.shards = shards;
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        start();
+    }
+
+    @Scheduled(fixedDelayString = "${app.migrations.online.check-interval:PT5M}",
+            initialDelayString = "${app.migrations.online.check-interval:PT5M}")
+    public void check() {
+        start();
+    }
+
+    /**
+     * Dispara os backfills na thread própria, sem ocupar o scheduler; ignora se já estão rodando.
+     */
+    public void start() {
+        if (!properties.enabled() || migrations.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                runAll();
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Executa, de forma síncrona, o backfill de cada migração em cada banco.
+     */
+    List<BackfillJob.Result> runAll() {
+        List<BackfillJob.Result> results = new ArrayList<>();
+        List<DataSource> targets = targets();
+        for (OnlineMigration migration : migrations) {
+            Backfill backfill = migration.backfill();
+            Counter rows = Counter.builder("app.migrations.online.rows")
+                    .description("Linhas copiadas pelos backfills online")
+                    .tag("migration", backfill.name())
+                    .register(registry);
+            Timer chunk = Timer.builder("app.migrations.online.chunk")
+                    .description("Duração de cada lote de backfill")
+                    .tag("migration", backfill.name())
+                    .register(registry);
+
+            for (int i = 0; i < targets.size(); i++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return results;
+                }
+                try {
+                    results.add(new BackfillJob(backfill, targets.get(i), properties, owner, rows, chunk).run());
+                } catch (DataAccessException e) {
+                    log.error("Backfill {} falhou no banco {}; nova tentativa na próxima verificação",
+                            backfill.name(), i, e);
+                }
+            }
+        }
+        return results;
+    }
+
+    // o DataSource roteado só enxerga o shard corrente; com sharding, percorre os pools físicos
+    private List<DataSource> targets() {
+        ShardDataSources physical = shards.getIfAvailable();
+        return physical == null ? List.of(dataSource) : physical.all();
+    }
+}
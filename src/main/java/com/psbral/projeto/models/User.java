@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import com.github.f4b6a3.ulid.UlidCreator;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -14,6 +15,7 @@ import lombok.*;
 
 @EqualsAndHashCode(of = "id")
 @Entity
+@SQLRestriction("deleted_at IS NULL")
 @Table(name = "tb_usuario", uniqueConstraints = {
         @UniqueConstraint(name = "uk_usuario_email", columnNames = "email")
 })
@@ -37,6 +39,13 @@ public class User {
     @Column(name = "last_update")
     private LocalDateTime lastUpdate;
 
+    // dual write da migração online V7 (LastUpdateBackfillMigration); sai no contract
+    @Column(name = "updated_at")
+    private LocalDateTime legacyUpdatedAt;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @PrePersist
     public void onCreate() {
         if (this.id == null) {
@@ -44,11 +53,13 @@ public class User {
         }
         this.createdAt = LocalDateTime.now();
         this.lastUpdate = LocalDateTime.now();
+        this.legacyUpdatedAt = this.lastUpdate;
     }
 
     @PreUpdate
     public void onUpdate() {
         this.lastUpdate = LocalDateTime.now();
+        this.legacyUpdatedAt = this.lastUpdate;
     }
 
 }
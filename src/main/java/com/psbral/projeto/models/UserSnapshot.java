@@ -0,0 +1,26 @@
+package com.psbral.projeto.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cópia imutável dos campos de {@link User}, usada em eventos e em leituras em streaming.
+ */
+public record UserSnapshot(
+        String id,
+        String name,
+        String email,
+        LocalDate birthDate,
+        LocalDateTime createdAt
+) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getBirthDate(),
+                user.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.psbral.projeto.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Descobre uma vez se o banco por trás do DataSource é o Postgres: os fragmentos em SQL nativo
+ * usam {@code RETURNING} e {@code ON CONFLICT} nele, e uma forma equivalente no H2.
+ */
+final class DatabaseDialect {
+
+    private final JdbcTemplate jdbc;
+    private volatile Boolean postgres;
+
+    DatabaseDialect(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            postgres = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,210 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.psbral.projeto.repository.UserUpsertRepositoryImpl.COLUMNS;
+import static com.psbral.projeto.repository.UserUpsertRepositoryImpl.UPSERT;
+
+/**
+ * Acesso não bloqueante a {@code tb_usuario} via R2DBC, com o mesmo SQL e as mesmas regras do
+ * {@link UserRepository} (linhas com {@code deleted_at} ficam de fora, como no
+ * {@code @SQLRestriction} da entidade).
+ * <p>
+ * Roda na conexão da transação reativa corrente, quando houver ({@code TransactionalOperator}).
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final String LIVE = " FROM tb_usuario WHERE deleted_at IS NULL";
+
+    private final DatabaseClient client;
+    private final boolean postgres;
+
+    public ReactiveUserRepository(DatabaseClient client, ConnectionFactory connectionFactory) {
+        this.client = client;
+        this.postgres = "PostgreSQL".equals(connectionFactory.getMetadata().getName());
+    }
+
+    /**
+     * Todos os usuários em ordem de id, lidos do cursor em lotes de {@code fetchSize}: o banco só
+     * envia o próximo lote quando o assinante pede mais linhas. No Postgres o cursor precisa de uma
+     * transação aberta.
+     */
+    public Flux<UserSnapshot> findAll(int fetchSize) {
+        return client.sql("SELECT " + COLUMNS + LIVE + " ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveUserRepository::snapshot)
+                .all();
+    }
+
+    public Mono<UserSnapshot> findById(String id) {
+        return client.sql("SELECT " + COLUMNS + LIVE + " AND id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::snapshot)
+                .one();
+    }
+
+    public Flux<UserSnapshot> findAllByIdIn(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return client.sql("SELECT " + COLUMNS + LIVE + " AND id IN (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveUserRepository::snapshot)
+                .all();
+    }
+
+    public Mono<Boolean> existsByEmail(String email) {
+        return client.sql("SELECT COUNT(*) AS live" + LIVE + " AND email = :email")
+                .bind("email", email)
+                .map(row -> row.get("live", Long.class))
+                .one()
+                .map(live -> live > 0);
+    }
+
+    /** Lê com {@code FOR UPDATE} o usuário vivo com esse id (estado anterior a update e delete). */
+    public Mono<UserSnapshot> lockById(String id) {
+        return client.sql("SELECT " + COLUMNS + LIVE + " AND id = :id FOR UPDATE")
+                .bind("id", id)
+                .map(ReactiveUserRepository::snapshot)
+                .one();
+    }
+
+    /** Como {@link UserUpsertRepository#lockByEmailIn}. */
+    public Flux<UserSnapshot> lockByEmailIn(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Flux.empty();
+        }
+        // ordem fixa de travamento: dois lotes com e-mails em comum não entram em deadlock
+        return client.sql("SELECT " + COLUMNS + LIVE + " AND email IN (:emails) ORDER BY email FOR UPDATE")
+                .bind("emails", emails)
+                .map(ReactiveUserRepository::snapshot)
+                .all();
+    }
+
+    /** Grava um usuário novo, com id e datas já preenchidos ({@link User#onCreate()}). */
+    public Mono<UserSnapshot> insert(User user) {
+        return client.sql("""
+                        INSERT INTO tb_usuario (id, name, email, birth_date, created_at, last_update, updated_at)
+                        VALUES (:id, :name, :email, :birthDate, :createdAt, :lastUpdate, :updatedAt)
+                        """)
+                .bind("id", user.getId())
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("birthDate", user.getBirthDate())
+                .bind("createdAt", user.getCreatedAt())
+                .bind("lastUpdate", user.getLastUpdate())
+                .bind("updatedAt", user.getLegacyUpdatedAt())
+                .then()
+                .thenReturn(UserSnapshot.of(user));
+    }
+
+    public Mono<Long> update(String id, String name, String email, LocalDate birthDate, LocalDateTime now) {
+        return client.sql("""
+                        UPDATE tb_usuario SET name = :name, email = :email, birth_date = :birthDate,
+                               last_update = :now, updated_at = :now
+                         WHERE id = :id AND deleted_at IS NULL
+                        """)
+                .bind("id", id)
+                .bind("name", name)
+                .bind("email", email)
+                .bind("birthDate", birthDate)
+                .bind("now", now)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> softDeleteById(String id, LocalDateTime deletedAt) {
+        return client.sql("UPDATE tb_usuario SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL")
+                .bind("id", id)
+                .bind("deletedAt", deletedAt)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(String id) {
+        return client.sql("DELETE FROM tb_usuario WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /** Como {@link UserUpsertRepository#upsertByEmail}. */
+    public Flux<UserUpsertRepository.Upserted> upsertByEmail(List<User> users) {
+        if (users.isEmpty()) {
+            return Flux.empty();
+        }
+        return postgres ? onConflict(users) : Flux.fromIterable(users).concatMap(this::updateThenInsert);
+    }
+
+    private Flux<UserUpsertRepository.Upserted> onConflict(List<User> users) {
+        List<String> values = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            values.add("(:id%1$d, :name%1$d, :email%1$d, :birthDate%1$d, :createdAt%1$d, :lastUpdate%1$d, :updatedAt%1$d)"
+                    .formatted(i));
+        }
+        DatabaseClient.GenericExecuteSpec spec = client.sql(UPSERT.formatted(String.join(", ", values)));
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            spec = spec.bind("id" + i, user.getId())
+                    .bind("name" + i, user.getName())
+                    .bind("email" + i, user.getEmail())
+                    .bind("birthDate" + i, user.getBirthDate())
+                    .bind("createdAt" + i, user.getCreatedAt())
+                    .bind("lastUpdate" + i, user.getLastUpdate())
+                    .bind("updatedAt" + i, user.getLegacyUpdatedAt());
+        }
+        return spec.map(row -> new UserUpsertRepository.Upserted(snapshot(row), row.get("created", Boolean.class)))
+                .all();
+    }
+
+    // fora do Postgres: update condicional e insert em sequência, sob o lockByEmailIn da transação
+    private Mono<UserUpsertRepository.Upserted> updateThenInsert(User user) {
+        Mono<Long> updated = client.sql("""
+                        UPDATE tb_usuario SET name = :name, birth_date = :birthDate,
+                               last_update = :lastUpdate, updated_at = :updatedAt
+                         WHERE email = :email AND deleted_at IS NULL AND (name <> :name OR birth_date <> :birthDate)
+                        """)
+                .bind("name", user.getName())
+                .bind("birthDate", user.getBirthDate())
+                .bind("lastUpdate", user.getLastUpdate())
+                .bind("updatedAt", user.getLegacyUpdatedAt())
+                .bind("email", user.getEmail())
+                .fetch()
+                .rowsUpdated();
+        Mono<UserSnapshot> current = client.sql("SELECT " + COLUMNS + LIVE + " AND email = :email")
+                .bind("email", user.getEmail())
+                .map(ReactiveUserRepository::snapshot)
+                .one();
+
+        return updated.flatMap(count -> count > 0
+                ? current.map(after -> new UserUpsertRepository.Upserted(after, false))
+                : existsByEmail(user.getEmail()).flatMap(live -> live
+                        ? Mono.empty()
+                        : insert(user).map(created -> new UserUpsertRepository.Upserted(created, true))));
+    }
+
+    private static UserSnapshot snapshot(Readable row) {
+        return new UserSnapshot(
+                row.get("id", String.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("birth_date", LocalDate.class),
+                row.get("created_at", LocalDateTime.class));
+    }
+}
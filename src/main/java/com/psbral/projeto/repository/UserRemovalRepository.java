@@ -0,0 +1,27 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.UserSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Remoção em um único comando, devolvendo o estado anterior da linha para os ouvintes de
+ * {@code UserChangedEvent}, sem carregar a entidade no contexto de persistência.
+ */
+public interface UserRemovalRepository {
+
+    /**
+     * Marca o tombstone de um usuário vivo.
+     *
+     * @return a linha marcada, ou vazio se o id não existe (ou já estava removido)
+     */
+    Optional<UserSnapshot> softDeleteReturning(String id, LocalDateTime deletedAt);
+
+    /**
+     * Apaga fisicamente um usuário vivo.
+     *
+     * @return a linha apagada, ou vazio se o id não existe (ou estava removido)
+     */
+    Optional<UserSnapshot> deleteReturning(String id);
+}
@@ -0,0 +1,58 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.UserSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.psbral.projeto.repository.UserUpsertRepositoryImpl.COLUMNS;
+
+/**
+ * No Postgres, {@code UPDATE/DELETE ... RETURNING}; no H2 (testes e perfil {@code sharding-local}),
+ * a mesma coisa como tabela delta ({@code FINAL TABLE} / {@code OLD TABLE}). Um comando por remoção.
+ * <p>
+ * Roda na conexão da transação JPA corrente (ou do shard corrente, via DataSource roteado).
+ */
+class UserRemovalRepositoryImpl implements UserRemovalRepository {
+
+    private static final String SOFT_DELETE =
+            "UPDATE tb_usuario SET deleted_at = ? WHERE id = ? AND deleted_at IS NULL";
+
+    private static final String DELETE =
+            "DELETE FROM tb_usuario WHERE id = ? AND deleted_at IS NULL";
+
+    private static final RowMapper<UserSnapshot> SNAPSHOT = (rs, n) -> new UserSnapshot(
+            rs.getString("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getObject("birth_date", LocalDate.class),
+            rs.getObject("created_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbc;
+    private final DatabaseDialect dialect;
+
+    UserRemovalRepositoryImpl(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.dialect = new DatabaseDialect(jdbc);
+    }
+
+    @Override
+    public Optional<UserSnapshot> softDeleteReturning(String id, LocalDateTime deletedAt) {
+        String sql = dialect.isPostgres()
+                ? SOFT_DELETE + " RETURNING " + COLUMNS
+                : "SELECT " + COLUMNS + " FROM FINAL TABLE (" + SOFT_DELETE + ")";
+        return jdbc.query(sql, SNAPSHOT, deletedAt, id).stream().findFirst();
+    }
+
+    @Override
+    public Optional<UserSnapshot> deleteReturning(String id) {
+        String sql = dialect.isPostgres()
+                ? DELETE + " RETURNING " + COLUMNS
+                : "SELECT " + COLUMNS + " FROM OLD TABLE (" + DELETE + ")";
+        return jdbc.query(sql, SNAPSHOT, id).stream().findFirst();
+    }
+}
@@ -1,8 +1,55 @@
 package com.psbral.projeto.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
-public interface UserRepository extends JpaRepository<User, String>{
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface UserRepository extends JpaRepository<User, String>, UserUpsertRepository, UserRemovalRepository {
 	boolean existsByEmail(String email);
+
+	@Query("SELECT u FROM User u WHERE u.id IN :ids")
+	List<User> findAllByIdIn(@Param("ids") Collection<String> ids);
+
+	// Trava a linha até o fim da transação corrente (SELECT ... FOR UPDATE)
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT u FROM User u WHERE u.id = :id")
+	Optional<User> lockById(@Param("id") String id);
+
+	// Paginação por keyset (ULID é ordenável), usada no scatter/gather entre shards
+	List<User> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+	// Cursor com fetch size para varrer a tabela sem materializá-la
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT new com.psbral.projeto.models.UserSnapshot(u.id, u.name, u.email, u.birthDate, u.createdAt) FROM User u")
+	Stream<UserSnapshot> streamAllSnapshots();
+
+	// Remove fisicamente um lote de tombstones; cada chamada roda na sua própria transação
+	@Modifying
+	@Transactional
+	@Query(value = """
+			DELETE FROM tb_usuario WHERE id IN (
+			    SELECT id FROM tb_usuario
+			    WHERE deleted_at < :cutoff
+			    ORDER BY deleted_at
+			    LIMIT :limit
+			    FOR UPDATE SKIP LOCKED)
+			""", nativeQuery = true)
+	int purgeDeletedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
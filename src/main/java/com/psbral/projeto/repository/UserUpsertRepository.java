@@ -0,0 +1,29 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Upsert por e-mail em SQL nativo, incorporado ao {@link UserRepository}.
+ */
+public interface UserUpsertRepository {
+
+    /**
+     * @param created {@code true} se a linha foi inserida, {@code false} se foi atualizada
+     */
+    record Upserted(UserSnapshot user, boolean created) { }
+
+    /**
+     * Lê com {@code FOR UPDATE} os usuários vivos com esses e-mails (estado anterior ao upsert).
+     */
+    List<UserSnapshot> lockByEmailIn(Collection<String> emails);
+
+    /**
+     * Insere cada usuário ou, se o e-mail já existe, atualiza nome e data de nascimento.
+     * Linhas sem mudança não são gravadas e não aparecem no retorno.
+     */
+    List<Upserted> upsertByEmail(List<User> users);
+}
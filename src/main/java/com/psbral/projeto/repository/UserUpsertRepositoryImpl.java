@@ -0,0 +1,135 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * No Postgres, um único {@code INSERT ... ON CONFLICT (email) WHERE deleted_at IS NULL DO UPDATE}
+ * sobre o índice {@code uk_usuario_email}: a criação concorrente do mesmo e-mail vira update em
+ * vez de erro, e o {@code WHERE ... IS DISTINCT FROM} deixa de fora as linhas sem mudança.
+ * {@code xmax = 0} no {@code RETURNING} distingue linha inserida de atualizada.
+ * <p>
+ * Em outros bancos (H2 nos testes e no perfil {@code sharding-local}) faz update condicional e
+ * insert em sequência, confiando no {@link #lockByEmailIn} feito antes na mesma transação.
+ * <p>
+ * Roda na conexão da transação JPA corrente (ou do shard corrente, via DataSource roteado).
+ * O {@link ReactiveUserRepository} reaproveita o mesmo SQL.
+ */
+class UserUpsertRepositoryImpl implements UserUpsertRepository {
+
+    static final String COLUMNS = "id, name, email, birth_date, created_at";
+
+    static final String UPSERT = """
+            INSERT INTO tb_usuario AS u (id, name, email, birth_date, created_at, last_update, updated_at)
+            VALUES %s
+            ON CONFLICT (email) WHERE deleted_at IS NULL DO UPDATE
+               SET name = EXCLUDED.name,
+                   birth_date = EXCLUDED.birth_date,
+                   last_update = EXCLUDED.last_update,
+                   updated_at = EXCLUDED.updated_at
+             WHERE (u.name, u.birth_date) IS DISTINCT FROM (EXCLUDED.name, EXCLUDED.birth_date)
+            RETURNING u.id, u.name, u.email, u.birth_date, u.created_at, (u.xmax = 0) AS created
+            """;
+
+    private static final RowMapper<UserSnapshot> SNAPSHOT = (rs, n) -> snapshot(rs);
+
+    private final JdbcTemplate jdbc;
+    private final DatabaseDialect dialect;
+
+    UserUpsertRepositoryImpl(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.dialect = new DatabaseDialect(jdbc);
+    }
+
+    @Override
+    public List<UserSnapshot> lockByEmailIn(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        // ordem fixa de travamento: dois lotes com e-mails em comum não entram em deadlock
+        return jdbc.query("SELECT " + COLUMNS + " FROM tb_usuario"
+                        + " WHERE email IN (" + placeholders(emails.size()) + ") AND deleted_at IS NULL"
+                        + " ORDER BY email FOR UPDATE",
+                SNAPSHOT, emails.toArray());
+    }
+
+    @Override
+    public List<Upserted> upsertByEmail(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        return dialect.isPostgres() ? onConflict(users) : updateThenInsert(users);
+    }
+
+    private List<Upserted> onConflict(List<User> users) {
+        String values = String.join(", ", Collections.nCopies(users.size(), "(?, ?, ?, ?, ?, ?, ?)"));
+        List<Object> args = new ArrayList<>(users.size() * 7);
+        for (User user : users) {
+            args.add(user.getId());
+            args.add(user.getName());
+            args.add(user.getEmail());
+            args.add(user.getBirthDate());
+            args.add(user.getCreatedAt());
+            args.add(user.getLastUpdate());
+            args.add(user.getLegacyUpdatedAt());
+        }
+        return jdbc.query(UPSERT.formatted(values),
+                (rs, n) -> new Upserted(snapshot(rs), rs.getBoolean("created")), args.toArray());
+    }
+
+    private List<Upserted> updateThenInsert(List<User> users) {
+        List<Upserted> written = new ArrayList<>();
+        for (User user : users) {
+            int updated = jdbc.update("""
+                            UPDATE tb_usuario SET name = ?, birth_date = ?, last_update = ?, updated_at = ?
+                             WHERE email = ? AND deleted_at IS NULL AND (name <> ? OR birth_date <> ?)
+                            """,
+                    user.getName(), user.getBirthDate(), user.getLastUpdate(), user.getLegacyUpdatedAt(),
+                    user.getEmail(), user.getName(), user.getBirthDate());
+            if (updated > 0) {
+                written.add(new Upserted(jdbc.queryForObject("SELECT " + COLUMNS + " FROM tb_usuario"
+                        + " WHERE email = ? AND deleted_at IS NULL", SNAPSHOT, user.getEmail()), false));
+                continue;
+            }
+            Integer live = jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM tb_usuario WHERE email = ? AND deleted_at IS NULL",
+                    Integer.class, user.getEmail());
+            if (live == null || live == 0) {
+                jdbc.update("""
+                                INSERT INTO tb_usuario (id, name, email, birth_date, created_at, last_update, updated_at)
+                                VALUES (?, ?, ?, ?, ?, ?, ?)
+                                """,
+                        user.getId(), user.getName(), user.getEmail(), user.getBirthDate(),
+                        user.getCreatedAt(), user.getLastUpdate(), user.getLegacyUpdatedAt());
+                written.add(new Upserted(new UserSnapshot(user.getId(), user.getName(), user.getEmail(),
+                        user.getBirthDate(), user.getCreatedAt()), true));
+            }
+        }
+        return written;
+    }
+
+    private static UserSnapshot snapshot(ResultSet rs) throws SQLException {
+        return new UserSnapshot(
+                rs.getString("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getObject("birth_date", LocalDate.class),
+                rs.getObject("created_at", LocalDateTime.class));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,246 @@
+package com.psbral.projeto.resilience;
+
+import com.psbral.projeto.config.DatabaseCircuitBreakerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker das chamadas ao banco.
+ * <p>
+ * Fechado, avalia as últimas {@code windowSize} chamadas e abre quando a fração de falhas de
+ * banco (conexão, pool esgotado, timeout) ou de chamadas lentas passa do limite. Aberto, recusa
+ * na hora com {@link DatabaseUnavailableException}, sem segurar thread até o timeout do JDBC.
+ * Depois de {@code openDuration} fica meio-aberto: libera {@code halfOpenProbes} chamadas reais
+ * como teste; se todas passam o circuito fecha, se uma falha ele volta a abrir.
+ * <p>
+ * Exceções de negócio (404, e-mail duplicado, validação) contam como sucesso: o banco respondeu.
+ * Chamadas cortadas pelo prazo da requisição ({@link RequestDeadline}) valem só pelo tempo que
+ * levaram, não como falha: um cliente com prazo curto não deve abrir o circuito sozinho.
+ * <p>
+ * Métricas: {@code db.circuit.state} (0 fechado, 1 aberto, 2 meio-aberto),
+ * {@code db.circuit.transitions} por estado de destino e {@code db.circuit.rejected}.
+ */
+@Component
+public class DatabaseCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private enum Outcome { SUCCESS, FAILURE, SLOW }
+
+    private final DatabaseCircuitBreakerProperties properties;
+    private final Clock clock;
+
+    // janela circular das últimas chamadas com o circuito fechado
+    private final Outcome[] window;
+    private int windowPosition;
+    private int windowCalls;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private Instant openUntil = Instant.MIN;
+    private int probesPermitted;
+    private int probesSucceeded;
+
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+    private final Counter rejected;
+
+    @Autowired
+    public DatabaseCircuitBreaker(DatabaseCircuitBreakerProperties properties, MeterRegistry registry) {
+        this(properties, registry, Clock.systemUTC());
+    }
+
+    DatabaseCircuitBreaker(DatabaseCircuitBreakerProperties properties, MeterRegistry registry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.window = new Outcome[properties.windowSize()];
+        Gauge.builder("db.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("Estado do circuit breaker do banco (0 fechado, 1 aberto, 2 meio-aberto)")
+                .register(registry);
+        for (State target : State.values()) {
+            transitions.put(target, Counter.builder("db.circuit.transitions")
+                    .description("Mudanças de estado do circuit breaker do banco")
+                    .tag("to", target.name().toLowerCase())
+                    .register(registry));
+        }
+        this.rejected = Counter.builder("db.circuit.rejected")
+                .description("Chamadas recusadas sem ir ao banco (circuito aberto)")
+                .register(registry);
+    }
+
+    /**
+     * Executa {@code action} se o circuito permitir, registrando o resultado.
+     *
+     * @throws DatabaseUnavailableException se o circuito está aberto
+     */
+    public <T> T call(Supplier<T> action) {
+        if (!properties.enabled()) {
+            return action.get();
+        }
+        acquirePermission();
+
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return action.get();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            record(System.nanoTime() - start, error);
+        }
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && !clock.instant().isBefore(openUntil)) {
+            return State.HALF_OPEN;   // a transição efetiva acontece na próxima chamada
+        }
+        return state;
+    }
+
+    /**
+     * Quanto falta para o circuito testar o banco de novo ({@code Retry-After}).
+     */
+    public synchronized Duration retryAfter() {
+        if (state != State.OPEN) {
+            return properties.openDuration();
+        }
+        Duration remaining = Duration.between(clock.instant(), openUntil);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Falha atribuível ao banco (e não ao pedido): conexão, pool esgotado ou timeout.
+     */
+    public boolean isDatabaseFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseUnavailableException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessResourceException
+                    || cause instanceof QueryTimeoutException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openUntil)) {
+                rejected.increment();
+                throw new DatabaseUnavailableException(
+                        "Banco de dados indisponível (circuito aberto)", retryAfter(), null);
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesPermitted >= properties.halfOpenProbes()) {
+                rejected.increment();
+                throw new DatabaseUnavailableException(
+                        "Banco de dados em teste após indisponibilidade", properties.openDuration(), null);
+            }
+            probesPermitted++;
+        }
+    }
+
+    private synchronized void record(long elapsedNanos, Throwable error) {
+        if (error != null && !(error instanceof RuntimeException)) {
+            // Error (StackOverflowError, OOM...) não diz nada do banco, mas a vaga de teste volta
+            if (state == State.HALF_OPEN && probesPermitted > probesSucceeded) {
+                probesPermitted--;
+            }
+            return;
+        }
+        boolean databaseFailure = error != null && isDatabaseFailure(error) && RequestDeadline.exceededBy(error) == null;
+        Outcome outcome = databaseFailure ? Outcome.FAILURE
+                : elapsedNanos > properties.slowCallDuration().toNanos() ? Outcome.SLOW
+                : Outcome.SUCCESS;
+
+        switch (state) {
+            case CLOSED -> {
+                addToWindow(outcome);
+                if (windowCalls >= properties.minimumCalls()
+                        && ((double) failures / windowCalls >= properties.failureRateThreshold()
+                        || (double) slowCalls / windowCalls >= properties.slowCallRateThreshold())) {
+                    log.warn("Circuito do banco aberto: {} falhas e {} lentas nas últimas {} chamadas",
+                            failures, slowCalls, windowCalls);
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> {
+                if (outcome != Outcome.SUCCESS) {
+                    log.warn("Teste do banco falhou ({}); circuito aberto de novo", outcome);
+                    transitionTo(State.OPEN);
+                } else if (++probesSucceeded >= properties.halfOpenProbes()) {
+                    log.info("Banco respondeu a {} testes; circuito fechado", probesSucceeded);
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // chamada iniciada antes de abrir; não muda nada
+            }
+        }
+    }
+
+    private void addToWindow(Outcome outcome) {
+        Outcome evicted = window[windowPosition];
+        if (evicted == Outcome.FAILURE) {
+            failures--;
+        } else if (evicted == Outcome.SLOW) {
+            slowCalls--;
+        }
+        window[windowPosition] = outcome;
+        windowPosition = (windowPosition + 1) % window.length;
+        windowCalls = Math.min(windowCalls + 1, window.length);
+        if (outcome == Outcome.FAILURE) {
+            failures++;
+        } else if (outcome == Outcome.SLOW) {
+            slowCalls++;
+        }
+    }
+
+    private void transitionTo(State target) {
+        state = target;
+        switch (target) {
+            case OPEN -> openUntil = clock.instant().plus(properties.openDuration());
+            case HALF_OPEN -> {
+                probesPermitted = 0;
+                probesSucceeded = 0;
+            }
+            case CLOSED -> {
+                Arrays.fill(window, null);
+                windowPosition = 0;
+                windowCalls = 0;
+                failures = 0;
+                slowCalls = 0;
+            }
+        }
+        transitions.get(target).increment();
+    }
+}
@@ -0,0 +1,20 @@
+package com.psbral.projeto.resilience;
+
+import java.time.Duration;
+
+/**
+ * Banco fora ou circuito aberto, sem snapshot para servir: vira {@code 503} com {@code Retry-After}.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public DatabaseUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,75 @@
+package com.psbral.projeto.resilience;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+/**
+ * DataSource que limita a espera pelo pool do Hikari ao tempo restante do {@link RequestDeadline}
+ * (e não ao {@code connectionTimeout} inteiro); com o prazo já esgotado a conexão nem é pedida.
+ * <p>
+ * A conexão sai sem proxy: o timeout de cada SQL vem da transação, que o
+ * {@link DeadlineTransactionManager} limita ao tempo restante. O Hibernate e o {@code JdbcTemplate}
+ * aplicam o que sobra dela como {@code setQueryTimeout}, uma vez por comando, e nem enviam o SQL
+ * se ela já expirou. Falhas de pool causadas pelo prazo saem como {@link SQLTimeoutException} com a
+ * {@link DeadlineExceededException} como causa; as de SQL são reconhecidas por
+ * {@link RequestDeadline#exceededBy}.
+ */
+public class DeadlineDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public DeadlineDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return super.getConnection();
+        }
+        if (deadline.expired()) {
+            throw timeout(deadline, null);
+        }
+        try {
+            return acquire(deadline);
+        } catch (SQLException e) {
+            if (deadline.expired()) {
+                throw timeout(deadline, e);
+            }
+            throw e;
+        }
+    }
+
+    // mantém o fechamento do pool no shutdown (o Spring infere close() na instância final do bean)
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    // com sharding, o unwrap passa pelo DataSource roteado e chega ao pool do shard corrente
+    private Connection acquire(RequestDeadline deadline) throws SQLException {
+        DataSource target = obtainTargetDataSource();
+        if (target.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikari = target.unwrap(HikariDataSource.class);
+            if (hikari.getHikariPoolMXBean() instanceof HikariPool pool) {
+                long wait = Math.min(deadline.remaining().toMillis(), hikari.getConnectionTimeout());
+                return pool.getConnection(Math.max(1, wait));
+            }
+        }
+        return target.getConnection();
+    }
+
+    private static SQLTimeoutException timeout(RequestDeadline deadline, SQLException cause) {
+        return new SQLTimeoutException("Prazo da requisição esgotado (pool)",
+                cause != null ? cause.getSQLState() : null,
+                cause != null ? cause.getErrorCode() : 0,
+                deadline.exceeded("pool", cause));
+    }
+}
@@ -0,0 +1,27 @@
+package com.psbral.projeto.resilience;
+
+import java.time.Duration;
+
+/**
+ * O prazo da requisição acabou antes do trabalho terminar: vira {@code 504}.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+    private final Duration budget;
+
+    public DeadlineExceededException(String stage, Duration budget, Throwable cause) {
+        super("Prazo da requisição (" + budget.toMillis() + " ms) esgotado em " + stage, cause);
+        this.stage = stage;
+        this.budget = budget;
+    }
+
+    /** Onde o prazo foi detectado: {@code service}, {@code transaction}, {@code pool} ou {@code sql}. */
+    public String stage() {
+        return stage;
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+}
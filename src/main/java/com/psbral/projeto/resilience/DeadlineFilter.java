@@ -0,0 +1,90 @@
+package com.psbral.projeto.resilience;
+
+import com.psbral.projeto.config.DeadlineProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Abre o {@link RequestDeadline} da requisição: o prazo informado pelo cliente no header
+ * (limitado a {@code app.deadline.max-timeout}) ou o padrão da rota.
+ * <p>
+ * Métrica {@code app.deadline.exceeded}, por etapa em que o prazo estourou e rota.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    private final DeadlineProperties properties;
+    private final MeterRegistry registry;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public DeadlineFilter(DeadlineProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RequestDeadline deadline = RequestDeadline.begin(budget(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+            if (deadline.exceededAt() != null) {
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                Counter.builder("app.deadline.exceeded")
+                        .description("Requisições abandonadas por prazo esgotado")
+                        .tag("stage", deadline.exceededAt())
+                        .tag("uri", route != null ? route.toString() : "UNKNOWN")
+                        .register(registry)
+                        .increment();
+            }
+        }
+    }
+
+    Duration budget(HttpServletRequest request) {
+        Duration requested = parse(request.getHeader(properties.header()));
+        Duration budget = requested != null ? requested : routeDefault(request.getRequestURI());
+        return budget.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout() : budget;
+    }
+
+    private Duration routeDefault(String path) {
+        return properties.routes().entrySet().stream()
+                .filter(route -> matcher.match(route.getKey(), path))
+                .min(Comparator.comparing(Map.Entry::getKey, matcher.getPatternComparator(path)))
+                .map(Map.Entry::getValue)
+                .orElse(properties.defaultTimeout());
+    }
+
+    // header inválido é ignorado: vale o padrão da rota
+    private Duration parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            Duration duration = DurationStyle.detectAndParse(value.trim(), ChronoUnit.MILLIS);
+            return duration.isNegative() || duration.isZero() ? null : duration;
+        } catch (IllegalArgumentException e) {
+            log.debug("Header {} inválido: {}", properties.header(), value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.psbral.projeto.resilience;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * {@link JpaTransactionManager} cujo timeout é o menor entre o configurado na transação e o
+ * tempo restante do {@link RequestDeadline}. O Hibernate e o {@code JdbcTemplate} na mesma
+ * transação usam o que sobra dele como {@code setQueryTimeout} de cada SQL; transação com prazo já
+ * esgotado nem é aberta.
+ */
+public class DeadlineTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int configured = super.determineTimeout(definition);
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return configured;
+        }
+        deadline.check("transaction");
+        int remaining = deadline.remainingSeconds();
+        return configured == TransactionDefinition.TIMEOUT_DEFAULT ? remaining : Math.min(configured, remaining);
+    }
+}
@@ -0,0 +1,136 @@
+package com.psbral.projeto.resilience;
+
+import org.hibernate.TransactionException;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Prazo da requisição corrente, guardado num {@link ThreadLocal} pelo {@link DeadlineFilter}.
+ * <p>
+ * Cada camada consulta o tempo restante em vez de usar um timeout fixo: o
+ * {@link DeadlineTransactionManager} limita o timeout da transação (e com ele o
+ * {@code setQueryTimeout} de cada SQL), o {@link DeadlineDataSource} limita a espera pelo pool, e o
+ * serviço desiste antes de começar quando o prazo já passou. Trabalho em outras threads precisa de {@link #propagate}.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final Duration budget;
+    private final long expiresAtNanos;
+    private volatile String exceededAt;
+
+    private RequestDeadline(Duration budget) {
+        this.budget = budget;
+        this.expiresAtNanos = System.nanoTime() + budget.toNanos();
+    }
+
+    static RequestDeadline begin(Duration budget) {
+        RequestDeadline deadline = new RequestDeadline(budget);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /** Prazo da thread corrente; {@code null} fora de uma requisição com prazo. */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /** Desiste já se o prazo da requisição corrente acabou. */
+    public static void checkCurrent(String stage) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check(stage);
+        }
+    }
+
+    /**
+     * Leva o prazo da thread corrente para a tarefa (ex.: consultas paralelas nos shards).
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            RequestDeadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Se {@code error} aconteceu por causa do prazo (timeout aplicado por ele, ou erro de SQL ou
+     * transação expirada com o prazo já esgotado), devolve a {@link DeadlineExceededException}
+     * correspondente.
+     */
+    public static DeadlineExceededException exceededBy(Throwable error) {
+        boolean sqlFailure = false;
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException exceeded) {
+                return exceeded;
+            }
+            // transação expirada: o JdbcTemplate e o Hibernate recusam o SQL antes de enviá-lo
+            sqlFailure |= cause instanceof SQLException
+                    || cause instanceof TransactionTimedOutException
+                    || cause instanceof TransactionException;
+        }
+        RequestDeadline deadline = CURRENT.get();
+        if (sqlFailure && deadline != null && deadline.expired()) {
+            return deadline.exceeded("sql", error);
+        }
+        return null;
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    public Duration remaining() {
+        long nanos = expiresAtNanos - System.nanoTime();
+        return nanos > 0 ? Duration.ofNanos(nanos) : Duration.ZERO;
+    }
+
+    public boolean expired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /** Segundos restantes arredondados para cima, no formato de {@code Statement.setQueryTimeout}. */
+    public int remainingSeconds() {
+        long millis = remaining().toMillis();
+        return (int) Math.max(1, (millis + 999) / 1000);
+    }
+
+    public void check(String stage) {
+        if (expired()) {
+            throw exceeded(stage, null);
+        }
+    }
+
+    public DeadlineExceededException exceeded(String stage, Throwable cause) {
+        if (exceededAt == null) {
+            exceededAt = stage;
+        }
+        return new DeadlineExceededException(stage, budget, cause);
+    }
+
+    /** Primeira etapa em que o prazo estourou; {@code null} se não estourou. */
+    public String exceededAt() {
+        return exceededAt;
+    }
+}
@@ -0,0 +1,32 @@
+package com.psbral.projeto.resilience;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Marca a resposta HTTP corrente como servida de um snapshot: {@code X-Stale-Since} com o instante
+ * da leitura original e {@code Age} com a idade em segundos. Fora de uma requisição, não faz nada.
+ */
+public final class StaleReads {
+
+    public static final String STALE_SINCE = "X-Stale-Since";
+
+    private StaleReads() {
+    }
+
+    public static <T> T serve(StaleSnapshotStore.Snapshot<T> snapshot) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getResponse() != null) {
+            HttpServletResponse response = attributes.getResponse();
+            long age = Math.max(0, Duration.between(snapshot.takenAt(), Instant.now()).toSeconds());
+            response.setHeader(STALE_SINCE, snapshot.takenAt().toString());
+            response.setHeader(HttpHeaders.AGE, Long.toString(age));
+        }
+        return snapshot.value();
+    }
+}
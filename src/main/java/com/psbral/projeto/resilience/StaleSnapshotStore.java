@@ -0,0 +1,62 @@
+package com.psbral.projeto.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.psbral.projeto.config.DatabaseCircuitBreakerProperties;
+import com.psbral.projeto.dto.UserDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Última leitura boa de cada usuário e da listagem completa, servidas enquanto o banco está fora.
+ * Separado do cache de {@code findById}: guarda mais entradas, por mais tempo, e não é invalidado
+ * por outras réplicas; quem recebe um snapshot recebe também a sua idade.
+ */
+@Component
+public class StaleSnapshotStore {
+
+    public record Snapshot<T>(T value, Instant takenAt) { }
+
+    private final Clock clock;
+    private final Cache<String, Snapshot<UserDTO.Response>> users;
+    private final AtomicReference<Snapshot<List<UserDTO.Response>>> all = new AtomicReference<>();
+
+    @Autowired
+    public StaleSnapshotStore(DatabaseCircuitBreakerProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    StaleSnapshotStore(DatabaseCircuitBreakerProperties properties, Clock clock) {
+        this.clock = clock;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.snapshotMaxSize())
+                .expireAfterWrite(properties.snapshotTtl())
+                .build();
+    }
+
+    public void putUser(String id, UserDTO.Response user) {
+        users.put(id, new Snapshot<>(user, clock.instant()));
+    }
+
+    public Optional<Snapshot<UserDTO.Response>> user(String id) {
+        return Optional.ofNullable(users.getIfPresent(id));
+    }
+
+    public void evictUser(String id) {
+        users.invalidate(id);
+    }
+
+    public void putAll(List<UserDTO.Response> list) {
+        all.set(new Snapshot<>(List.copyOf(list), clock.instant()));
+    }
+
+    public Optional<Snapshot<List<UserDTO.Response>>> all() {
+        return Optional.ofNullable(all.get());
+    }
+}
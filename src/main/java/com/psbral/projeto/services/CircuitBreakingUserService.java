@@ -0,0 +1,219 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.diagnostics.ServiceCallEvent;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.resilience.DatabaseCircuitBreaker;
+import com.psbral.projeto.resilience.DatabaseUnavailableException;
+import com.psbral.projeto.resilience.DeadlineExceededException;
+import com.psbral.projeto.resilience.RequestDeadline;
+import com.psbral.projeto.resilience.StaleReads;
+import com.psbral.projeto.resilience.StaleSnapshotStore;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link ServiceRepository} exposto ao controller: passa cada chamada pelo
+ * {@link DatabaseCircuitBreaker} antes de chegar ao {@link UserService} (ou ao
+ * {@link ShardedUserService}, com sharding).
+ * <p>
+ * Com o banco fora, {@code findById} e {@code findAll} devolvem a última leitura boa do
+ * {@link StaleSnapshotStore}, marcada pelos headers de {@link StaleReads}; sem snapshot, e em
+ * qualquer escrita, a resposta é {@code 503} via {@link DatabaseUnavailableException}.
+ * <p>
+ * Acertos no cache de {@code findById} são servidos antes do breaker: não vão ao banco, então
+ * não entram na janela (nem seriam barrados com o circuito aberto).
+ * <p>
+ * Cada chamada vira um {@link ServiceCallEvent} no JFR, com a operação e o desfecho.
+ * <p>
+ * Com o prazo da requisição ({@link RequestDeadline}) esgotado a chamada nem começa, e falhas
+ * causadas por ele saem como {@link DeadlineExceededException} ({@code 504}), sem leitura stale.
+ */
+@Primary
+@Service
+public class CircuitBreakingUserService implements ServiceRepository, UserScanner {
+
+    private final ServiceRepository delegate;
+    private final UserScanner scanner;
+    private final DatabaseCircuitBreaker breaker;
+    private final StaleSnapshotStore snapshots;
+    private final CacheManager caches;
+
+    public CircuitBreakingUserService(UserService users,
+                                      ObjectProvider<ShardedUserService> sharded,
+                                      DatabaseCircuitBreaker breaker,
+                                      StaleSnapshotStore snapshots,
+                                      CacheManager caches) {
+        ShardedUserService shardedUsers = sharded.getIfAvailable();
+        this.delegate = shardedUsers != null ? shardedUsers : users;
+        this.scanner = shardedUsers != null ? shardedUsers : users;
+        this.breaker = breaker;
+        this.snapshots = snapshots;
+        this.caches = caches;
+    }
+
+    // CREATE
+    @Override
+    public UserDTO.Response insert(UserDTO.Request dto) {
+        return traced("insert", () -> guarded(() -> delegate.insert(dto)));
+    }
+
+    // READ – FIND ALL (stale se o banco estiver fora)
+    @Override
+    public List<UserDTO.Response> findAll() {
+        return traced("findAll", this::findAllOrStale);
+    }
+
+    private List<UserDTO.Response> findAllOrStale() {
+        try {
+            List<UserDTO.Response> users = breaker.call(delegate::findAll);
+            snapshots.putAll(users);
+            return users;
+        } catch (RuntimeException e) {
+            failIfDeadlineExceeded(e);
+            if (!breaker.isDatabaseFailure(e)) {
+                throw e;
+            }
+            return snapshots.all().map(StaleReads::serve).orElseThrow(() -> unavailable(e));
+        }
+    }
+
+    // READ – FIND BY ID (stale se o banco estiver fora)
+    @Override
+    public UserDTO.Response findById(String id) {
+        return traced("findById", () -> findByIdOrStale(id));
+    }
+
+    private UserDTO.Response findByIdOrStale(String id) {
+        Cache cache = caches.getCache(ConfigCache.USERS);
+        UserDTO.Response cached = cache == null ? null : cache.get(id, UserDTO.Response.class);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            UserDTO.Response user = breaker.call(() -> delegate.findById(id));
+            snapshots.putUser(id, user);
+            return user;
+        } catch (EntityNotFoundException e) {
+            snapshots.evictUser(id);
+            throw e;
+        } catch (RuntimeException e) {
+            failIfDeadlineExceeded(e);
+            if (!breaker.isDatabaseFailure(e)) {
+                throw e;
+            }
+            return snapshots.user(id).map(StaleReads::serve).orElseThrow(() -> unavailable(e));
+        }
+    }
+
+    // READ – FIND MANY BY ID (sem snapshot: um lote parcial não diria quais ids não existem)
+    @Override
+    public UserDTO.BatchResponse findAllById(List<String> ids) {
+        return traced("findAllById", () -> {
+            UserDTO.BatchResponse batch = guarded(() -> delegate.findAllById(ids));
+            batch.users().forEach(snapshots::putUser);
+            return batch;
+        });
+    }
+
+    // UPDATE
+    @Override
+    public UserDTO.Response update(String id, UserDTO.Request dto) {
+        return traced("update", () -> {
+            UserDTO.Response updated = guarded(() -> delegate.update(id, dto));
+            snapshots.putUser(id, updated);
+            return updated;
+        });
+    }
+
+    // DELETE
+    @Override
+    public void delete(String id) {
+        traced("delete", () -> {
+            guarded(() -> {
+                delegate.delete(id);
+                return null;
+            });
+            snapshots.evictUser(id);
+            return null;
+        });
+    }
+
+    // UPSERT POR E-MAIL
+    @Override
+    public UserDTO.UpsertResponse upsert(String email, UserDTO.Request dto) {
+        return traced("upsert", () -> {
+            UserDTO.UpsertResponse result = guarded(() -> delegate.upsert(email, dto));
+            snapshots.putUser(result.id(), result.user());
+            return result;
+        });
+    }
+
+    // UPSERT EM LOTE
+    @Override
+    public List<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos) {
+        return traced("upsertAll", () -> {
+            List<UserDTO.UpsertResponse> results = guarded(() -> delegate.upsertAll(dtos));
+            results.forEach(result -> snapshots.putUser(result.id(), result.user()));
+            return results;
+        });
+    }
+
+    // SCAN – reconstruções em segundo plano; longas demais para contar na janela do circuito
+    @Override
+    public void scanAll(Consumer<Predicate<String>> onSnapshot, Consumer<UserSnapshot> consumer) {
+        scanner.scanAll(onSnapshot, consumer);
+    }
+
+    private <T> T traced(String operation, Supplier<T> call) {
+        RequestDeadline.checkCurrent("service");
+        ServiceCallEvent event = ServiceCallEvent.begin(operation);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "ok";
+            return result;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end(outcome);
+        }
+    }
+
+    private <T> T guarded(Supplier<T> action) {
+        try {
+            return breaker.call(action);
+        } catch (RuntimeException e) {
+            failIfDeadlineExceeded(e);
+            if (!breaker.isDatabaseFailure(e)) {
+                throw e;
+            }
+            throw unavailable(e);
+        }
+    }
+
+    private static void failIfDeadlineExceeded(RuntimeException error) {
+        DeadlineExceededException exceeded = RequestDeadline.exceededBy(error);
+        if (exceeded != null) {
+            throw exceeded;
+        }
+    }
+
+    private DatabaseUnavailableException unavailable(RuntimeException cause) {
+        if (cause instanceof DatabaseUnavailableException unavailable) {
+            return unavailable;
+        }
+        return new DatabaseUnavailableException("Banco de dados indisponível", breaker.retryAfter(), cause);
+    }
+}
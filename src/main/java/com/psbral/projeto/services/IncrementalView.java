@@ -0,0 +1,129 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.services.events.UserChangedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Estrutura em memória derivada de todos os usuários, atualizada a cada {@link UserChangedEvent}
+ * confirmado e remontada por uma varredura do {@link UserScanner} sem parar as leituras.
+ * <p>
+ * Durante a varredura os eventos entram num journal, e cada leitura fixada pelo scanner (a tabela
+ * toda, ou um shard) marca a posição dele; só os eventos posteriores à marca dos seus ids são
+ * reaplicados antes da troca.
+ * <p>
+ * A marca é aproximada: ela ordena os eventos pelo momento em que o ouvinte {@code AFTER_COMMIT}
+ * roda, não pelo commit, e só é tomada depois que a consulta da varredura rodou. Um commit anterior
+ * à leitura cujo ouvinte roda depois da marca é contado duas vezes; um commit posterior à leitura
+ * cujo ouvinte roda antes da marca se perde. A janela é curta, mas esse desvio só é corrigido pela
+ * próxima reconstrução periódica.
+ * <p>
+ * Todo acesso passa pelo mesmo {@link ReadWriteLock}, então {@code T} não precisa ser thread-safe.
+ */
+final class IncrementalView<T> {
+
+    private record Mark(int position, Predicate<String> covers) { }
+
+    private final UserScanner scanner;
+    private final Supplier<T> empty;
+    private final BiConsumer<T, UserSnapshot> add;
+    private final BiConsumer<T, UserChangedEvent> apply;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private T current;
+    private List<UserChangedEvent> journal;   // só durante uma reconstrução
+    private List<Mark> marks;
+
+    IncrementalView(UserScanner scanner,
+                    Supplier<T> empty,
+                    BiConsumer<T, UserSnapshot> add,
+                    BiConsumer<T, UserChangedEvent> apply) {
+        this.scanner = scanner;
+        this.empty = empty;
+        this.add = add;
+        this.apply = apply;
+        this.current = empty.get();
+    }
+
+    void apply(UserChangedEvent event) {
+        write(() -> {
+            apply.accept(current, event);
+            if (journal != null) {
+                journal.add(event);
+            }
+        });
+    }
+
+    <R> R read(Function<T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monta uma estrutura nova com uma varredura e a troca pela corrente.
+     *
+     * @param onSwap chamado na troca, ainda com o lock de escrita, com a estrutura anterior e a nova
+     */
+    synchronized void rebuild(BiConsumer<T, T> onSwap) {
+        write(() -> {
+            journal = new ArrayList<>();
+            marks = new ArrayList<>();
+        });
+
+        T fresh = empty.get();
+        try {
+            scanner.scanAll(covers -> write(() -> marks.add(new Mark(journal.size(), covers))),
+                    user -> add.accept(fresh, user));
+        } catch (RuntimeException e) {
+            write(this::closeJournal);
+            throw e;
+        }
+
+        write(() -> {
+            for (int position = 0; position < journal.size(); position++) {
+                UserChangedEvent event = journal.get(position);
+                if (!seenByScan(position, event.id())) {
+                    apply.accept(fresh, event);
+                }
+            }
+            onSwap.accept(current, fresh);
+            current = fresh;
+            closeJournal();
+        });
+    }
+
+    private boolean seenByScan(int position, String id) {
+        for (Mark mark : marks) {
+            if (mark.covers().test(id)) {
+                return position < mark.position();
+            }
+        }
+        return false;
+    }
+
+    private void closeJournal() {
+        journal = null;
+        marks = null;
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
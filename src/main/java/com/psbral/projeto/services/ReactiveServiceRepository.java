@@ -0,0 +1,24 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.dto.UserDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Versão não bloqueante do {@link ServiceRepository}: mesmas operações e regras, com o resultado
+ * entregue como {@link Mono} ou {@link Flux}.
+ */
+public interface ReactiveServiceRepository {
+
+    Mono<UserDTO.Response> insert(UserDTO.Request dto);
+    Flux<UserDTO.Response> findAll();
+    Mono<UserDTO.Response> findById(String id);
+    Mono<UserDTO.BatchResponse> findAllById(List<String> ids);
+    Mono<UserDTO.Response> update(String id, UserDTO.Request dto);
+    Mono<Void> delete(String id);
+    Mono<UserDTO.UpsertResponse> upsert(String email, UserDTO.Request dto);
+    Flux<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos);
+
+}
@@ -0,0 +1,182 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.BatchLookupProperties;
+import com.psbral.projeto.config.ReactiveProperties;
+import com.psbral.projeto.config.SoftDeleteProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.repository.ReactiveUserRepository;
+import com.psbral.projeto.repository.UserUpsertRepository;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionContextManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ReactiveServiceRepository} sobre R2DBC, com as regras do {@link UserService}: e-mail
+ * único, soft delete, limite dos lotes e {@link UserChangedEvent} a cada mutação, entregue aos
+ * {@code @TransactionalEventListener} depois do commit da transação reativa.
+ * <p>
+ * Fica fora do cache de {@code findById}, do circuit breaker e do sharding, que são da pilha servlet.
+ */
+@AllArgsConstructor
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService implements ReactiveServiceRepository {
+
+    private final ReactiveUserRepository repository;
+    private final TransactionalOperator transactions;
+    private final ReactiveProperties reactive;
+    private final SoftDeleteProperties softDelete;
+    private final BatchLookupProperties batchLookup;
+    private final ApplicationEventPublisher events;
+
+    // CREATE
+    @Override
+    public Mono<UserDTO.Response> insert(UserDTO.Request dto) {
+        return repository.existsByEmail(dto.email())
+                .flatMap(exists -> exists
+                        ? Mono.<UserSnapshot>error(new IllegalArgumentException("E-mail já cadastrado: " + dto.email()))
+                        : repository.insert(newRow(dto)))
+                .flatMap(saved -> publish(UserChangedEvent.created(saved)).thenReturn(UserService.toResponse(saved)))
+                .as(transactions::transactional);
+    }
+
+    // READ – FIND ALL (streaming: cada lote do cursor só é lido quando o cliente consome o anterior)
+    @Override
+    public Flux<UserDTO.Response> findAll() {
+        return repository.findAll(reactive.fetchSize())
+                .map(UserService::toResponse)
+                .as(transactions::transactional);
+    }
+
+    // READ – FIND BY ID
+    @Override
+    public Mono<UserDTO.Response> findById(String id) {
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .map(UserService::toResponse);
+    }
+
+    // READ – FIND MANY BY ID (um único SELECT ... IN)
+    @Override
+    public Mono<UserDTO.BatchResponse> findAllById(List<String> ids) {
+        return Mono.fromCallable(() -> UserService.requestedIds(ids, batchLookup.maxSize()))
+                .flatMap(requested -> repository.findAllByIdIn(requested)
+                        .collectMap(UserSnapshot::id)
+                        .map(found -> UserService.toBatchResponse(requested, found, UserService::toResponse)));
+    }
+
+    // UPDATE
+    @Override
+    public Mono<UserDTO.Response> update(String id, UserDTO.Request dto) {
+        return repository.lockById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(before -> emailTakenByOther(before, dto)
+                        .flatMap(taken -> taken
+                                ? Mono.<UserSnapshot>error(new IllegalArgumentException("E-mail já cadastrado: " + dto.email()))
+                                : repository.update(id, dto.name(), dto.email(), dto.birthDate(), LocalDateTime.now())
+                                        .thenReturn(new UserSnapshot(id, dto.name(), dto.email(), dto.birthDate(),
+                                                before.createdAt())))
+                        .flatMap(after -> publish(UserChangedEvent.updated(before, after))
+                                .thenReturn(UserService.toResponse(after))))
+                .as(transactions::transactional);
+    }
+
+    private Mono<Boolean> emailTakenByOther(UserSnapshot before, UserDTO.Request dto) {
+        return before.email().equals(dto.email()) ? Mono.just(false) : repository.existsByEmail(dto.email());
+    }
+
+    // UPSERT POR E-MAIL
+    @Override
+    public Mono<UserDTO.UpsertResponse> upsert(String email, UserDTO.Request dto) {
+        return Mono.fromRunnable(() -> UserService.requireSameEmail(email, dto))
+                .then(upsertAll(List.of(dto)).single());   // next() cancelaria o lote, e a transação voltaria
+    }
+
+    // UPSERT EM LOTE (uma transação; o estado anterior é travado antes, como no UserService)
+    @Override
+    public Flux<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos) {
+        return Mono.fromCallable(() -> UserService.indexByEmail(dtos, batchLookup.maxSize()))
+                .flatMapMany(byEmail -> repository.lockByEmailIn(byEmail.keySet())
+                        .collectMap(UserSnapshot::email)
+                        .flatMapMany(before -> repository.upsertByEmail(byEmail.values().stream()
+                                        .map(ReactiveUserService::newRow)
+                                        .toList())
+                                .collectMap(upserted -> upserted.user().email())
+                                .flatMapMany(written -> Flux.fromIterable(new ArrayList<>(byEmail.keySet()))
+                                        .concatMap(email -> upserted(email, before.get(email), written.get(email))))))
+                .as(transactions::transactional);
+    }
+
+    private Mono<UserDTO.UpsertResponse> upserted(String email, UserSnapshot previous,
+                                                  UserUpsertRepository.Upserted upserted) {
+        if (upserted == null) {
+            // sem mudança; se a linha surgiu em paralelo depois do lock, relê
+            Mono<UserSnapshot> current = previous != null ? Mono.just(previous)
+                    : repository.lockByEmailIn(List.of(email)).next();
+            return current.map(user -> new UserDTO.UpsertResponse(
+                    user.id(), UserDTO.UpsertStatus.UNCHANGED, UserService.toResponse(user)));
+        }
+        if (upserted.created()) {
+            return publish(UserChangedEvent.created(upserted.user()))
+                    .thenReturn(new UserDTO.UpsertResponse(
+                            upserted.user().id(), UserDTO.UpsertStatus.CREATED, UserService.toResponse(upserted.user())));
+        }
+        return publish(UserChangedEvent.updated(previous != null ? previous : upserted.user(), upserted.user()))
+                .thenReturn(new UserDTO.UpsertResponse(
+                        upserted.user().id(), UserDTO.UpsertStatus.UPDATED, UserService.toResponse(upserted.user())));
+    }
+
+    // DELETE
+    @Override
+    public Mono<Void> delete(String id) {
+        return repository.lockById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .flatMap(before -> remove(id).then(publish(UserChangedEvent.deleted(before))))
+                .as(transactions::transactional);
+    }
+
+    private Mono<Void> remove(String id) {
+        if (softDelete.enabled()) {
+            return repository.softDeleteById(id, LocalDateTime.now()).then();
+        }
+        return repository.deleteById(id)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new IllegalArgumentException("Falha de integridade referencial - id: " + id))
+                .then();
+    }
+
+    // o contexto da transação reativa vai como source: o ouvinte transacional espera o commit dela
+    private Mono<Void> publish(UserChangedEvent event) {
+        return TransactionContextManager.currentContext()
+                .doOnNext(context -> events.publishEvent(new PayloadApplicationEvent<>(context, event)))
+                .then();
+    }
+
+    private static User newRow(UserDTO.Request dto) {
+        User row = new User();            // id null → ULID gerado no onCreate
+        row.setName(dto.name());
+        row.setEmail(dto.email());
+        row.setBirthDate(dto.birthDate());
+        row.onCreate();
+        return row;
+    }
+
+    private static EntityNotFoundException notFound(String id) {
+        return new EntityNotFoundException("Usuário não encontrado - id: " + id);
+    }
+}
@@ -9,7 +9,10 @@ public interface ServiceRepository {
     UserDTO.Response insert(UserDTO.Request dto);
     List<UserDTO.Response> findAll();
     UserDTO.Response findById(String id);
+    UserDTO.BatchResponse findAllById(List<String> ids);
     UserDTO.Response update(String id, UserDTO.Request entity);
     void delete(String id);
+    UserDTO.UpsertResponse upsert(String email, UserDTO.Request dto);
+    List<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos);
 
 }
@@ -0,0 +1,350 @@
+package com.psbral.projeto.services;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.config.BatchLookupProperties;
+import com.psbral.projeto.config.ShardingProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.repository.UserRepository;
+import com.psbral.projeto.resilience.RequestDeadline;
+import com.psbral.projeto.sharding.EmailDirectory;
+import com.psbral.projeto.sharding.ShardContext;
+import com.psbral.projeto.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * {@link ServiceRepository} particionado: cada usuário vive no shard dado pelo hash do id,
+ * e o {@link UserService} é executado dentro do {@link ShardContext} correspondente.
+ * A unicidade de e-mail entre shards fica no {@link EmailDirectory}. O controller o recebe
+ * através do {@link CircuitBreakingUserService}.
+ * <p>
+ * Consultas paralelas levam o {@link RequestDeadline} da requisição para as threads do scatter.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardedUserService implements ServiceRepository, UserScanner {
+
+    private final UserService users;
+    private final UserRepository repository;
+    private final ShardRouter router;
+    private final EmailDirectory directory;
+    private final BatchLookupProperties batchLookup;
+    private final int pageSize;
+    private final ExecutorService scatter;
+    private final TransactionTemplate writes;
+
+    public ShardedUserService(UserService users,
+                              UserRepository repository,
+                              ShardRouter router,
+                              EmailDirectory directory,
+                              BatchLookupProperties batchLookup,
+                              ShardingProperties properties,
+                              PlatformTransactionManager transactionManager) {
+        this.users = users;
+        this.repository = repository;
+        this.router = router;
+        this.directory = directory;
+        this.batchLookup = batchLookup;
+        this.pageSize = properties.scanPageSize();
+        this.scatter = Executors.newFixedThreadPool(router.shardCount());
+        this.writes = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatter.shutdown();
+    }
+
+    // CREATE
+    @Override
+    public UserDTO.Response insert(UserDTO.Request dto) {
+        String id = UlidCreator.getUlid().toString();
+        int shard = router.shardFor(id);
+
+        directory.claim(dto.email(), id, shard);
+        try {
+            return ShardContext.callOn(shard, () -> users.insert(id, dto));
+        } catch (RuntimeException e) {
+            directory.release(dto.email(), id);
+            throw e;
+        }
+    }
+
+    // READ – FIND ALL (scatter/gather com merge ordenado por id)
+    @Override
+    public List<UserDTO.Response> findAll() {
+        List<CompletableFuture<ShardCursor>> firstPages = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            ShardCursor cursor = new ShardCursor(shard);
+            firstPages.add(CompletableFuture.supplyAsync(RequestDeadline.propagate(() -> {
+                cursor.fetch();
+                return cursor;
+            }), scatter));
+        }
+
+        PriorityQueue<ShardCursor> heap = new PriorityQueue<>(
+                Comparator.comparing((ShardCursor c) -> c.peek().getId()));
+        for (CompletableFuture<ShardCursor> page : firstPages) {
+            ShardCursor cursor = join(page);
+            if (cursor.hasNext()) {
+                heap.add(cursor);
+            }
+        }
+
+        List<UserDTO.Response> result = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            ShardCursor cursor = heap.poll();
+            result.add(UserService.toResponse(cursor.next()));
+            if (cursor.hasNext()) {
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    // READ – FIND BY ID
+    @Override
+    public UserDTO.Response findById(String id) {
+        return ShardContext.callOn(router.shardFor(id), () -> users.findById(id));
+    }
+
+    // READ – FIND MANY BY ID (um SELECT por shard envolvido, em paralelo)
+    @Override
+    public UserDTO.BatchResponse findAllById(List<String> ids) {
+        LinkedHashSet<String> requested = UserService.requestedIds(ids, batchLookup.maxSize());
+
+        Map<Integer, List<String>> byShard = new HashMap<>();
+        for (String id : requested) {
+            byShard.computeIfAbsent(router.shardFor(id), s -> new ArrayList<>()).add(id);
+        }
+
+        List<CompletableFuture<UserDTO.BatchResponse>> partials = new ArrayList<>();
+        byShard.forEach((shard, shardIds) -> partials.add(CompletableFuture.supplyAsync(RequestDeadline.propagate(
+                () -> ShardContext.callOn(shard, () -> users.findAllById(shardIds))), scatter)));
+
+        Map<String, UserDTO.Response> found = new HashMap<>();
+        for (CompletableFuture<UserDTO.BatchResponse> partial : partials) {
+            found.putAll(join(partial).users());
+        }
+        return UserService.toBatchResponse(requested, found, user -> user);
+    }
+
+    // UPDATE (o e-mail anterior vem da linha travada na transação da escrita, não do cache de findById)
+    @Override
+    public UserDTO.Response update(String id, UserDTO.Request dto) {
+        int shard = router.shardFor(id);
+        EmailChange change = new EmailChange();
+
+        UserDTO.Response updated;
+        try {
+            updated = ShardContext.callOn(shard, () -> writes.execute(tx -> {
+                change.previous = lockedEmail(id);
+                if (!change.previous.equals(dto.email())) {
+                    directory.claim(dto.email(), id, shard);
+                    change.claimed = dto.email();
+                }
+                return users.update(id, dto);
+            }));
+        } catch (RuntimeException e) {
+            if (change.claimed != null) {
+                directory.release(change.claimed, id);
+            }
+            throw e;
+        }
+
+        if (change.claimed != null) {
+            directory.release(change.previous, id);
+        }
+        return updated;
+    }
+
+    // DELETE
+    @Override
+    public void delete(String id) {
+        int shard = router.shardFor(id);
+        String email = ShardContext.callOn(shard, () -> writes.execute(tx -> {
+            String current = lockedEmail(id);
+            users.delete(id);
+            return current;
+        }));
+        directory.release(email, id);
+    }
+
+    // chamado dentro de writes: o lock vale até a escrita ser confirmada
+    private String lockedEmail(String id) {
+        return repository.lockById(id)
+                .map(User::getEmail)
+                .orElseThrow(() -> new EntityNotFoundException("Usuário não encontrado - id: " + id));
+    }
+
+    private static final class EmailChange {
+        private String previous;
+        private String claimed;
+    }
+
+    // UPSERT POR E-MAIL
+    @Override
+    public UserDTO.UpsertResponse upsert(String email, UserDTO.Request dto) {
+        UserService.requireSameEmail(email, dto);
+        return upsertAll(List.of(dto)).get(0);
+    }
+
+    // UPSERT EM LOTE (o diretório decide o shard; e-mails novos são reservados antes da escrita)
+
+    /**
+     * Limite e e-mails repetidos valem para o lote inteiro e são checados antes de qualquer
+     * reserva no diretório.
+     * <p>
+     * Não é atômico entre shards: cada shard confirma a sua parte sozinho. Se um falha, as partes
+     * dos demais continuam gravadas, as reservas de e-mails novos do shard que falhou são desfeitas
+     * e a primeira falha é relançada. Como o upsert é por e-mail, o cliente pode repetir o lote
+     * inteiro: o que já foi gravado volta como {@code UNCHANGED}.
+     */
+    @Override
+    public List<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos) {
+        Map<String, UserDTO.Request> requested = UserService.indexByEmail(dtos, batchLookup.maxSize());
+
+        Map<Integer, List<UserDTO.Request>> byShard = new HashMap<>();
+        Map<Integer, Map<String, String>> claimedByShard = new HashMap<>();
+
+        for (UserDTO.Request dto : requested.values()) {
+            int shard = directory.lookup(dto.email())
+                    .map(EmailDirectory.Entry::shard)
+                    .orElseGet(() -> claimNew(dto.email(), claimedByShard));
+            byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(dto);
+        }
+
+        Map<Integer, CompletableFuture<List<UserDTO.UpsertResponse>>> partials = new HashMap<>();
+        byShard.forEach((shard, shardDtos) -> partials.put(shard, CompletableFuture.supplyAsync(RequestDeadline.propagate(
+                () -> ShardContext.callOn(shard, () -> users.upsertAll(
+                        shardDtos, claimedByShard.getOrDefault(shard, Map.of())))), scatter)));
+
+        // cada shard confirma sozinho; reservas de um shard que falhou são desfeitas
+        Map<String, UserDTO.UpsertResponse> byEmail = new HashMap<>();
+        RuntimeException failure = null;
+        for (Map.Entry<Integer, CompletableFuture<List<UserDTO.UpsertResponse>>> partial : partials.entrySet()) {
+            try {
+                join(partial.getValue()).forEach(response -> byEmail.put(response.user().email(), response));
+            } catch (RuntimeException e) {
+                claimedByShard.getOrDefault(partial.getKey(), Map.of()).forEach(directory::release);
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        List<UserDTO.UpsertResponse> responses = new ArrayList<>();
+        for (UserDTO.Request dto : dtos) {
+            responses.add(byEmail.get(dto.email()));
+        }
+        return responses;
+    }
+
+    private int claimNew(String email, Map<Integer, Map<String, String>> claimedByShard) {
+        String id = UlidCreator.getUlid().toString();
+        int shard = router.shardFor(id);
+        try {
+            directory.claim(email, id, shard);
+        } catch (IllegalArgumentException e) {
+            // criado em paralelo: vira update no shard de quem reservou
+            return directory.lookup(email).map(EmailDirectory.Entry::shard).orElseThrow(() -> e);
+        }
+        claimedByShard.computeIfAbsent(shard, s -> new HashMap<>()).put(email, id);
+        return shard;
+    }
+
+    // a falha original do shard, e não o CompletionException: o circuit breaker e o 503/504 dependem do tipo dela
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // SCAN – um shard de cada vez, para não manter vários cursores abertos
+    @Override
+    public void scanAll(Consumer<Predicate<String>> onSnapshot, Consumer<UserSnapshot> consumer) {
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            int current = shard;
+            // cada shard fixa a sua leitura em um momento diferente
+            ShardContext.runOn(shard, () -> users.scanAll(
+                    all -> onSnapshot.accept(id -> router.shardFor(id) == current), consumer));
+        }
+    }
+
+    /**
+     * Lê um shard em páginas ordenadas por id, buscando a próxima só quando a anterior acaba.
+     */
+    private final class ShardCursor {
+
+        private final int shard;
+        private List<User> page = List.of();
+        private int position;
+        private String lastId = "";
+        private boolean exhausted;
+
+        ShardCursor(int shard) {
+            this.shard = shard;
+        }
+
+        void fetch() {
+            page = ShardContext.callOn(shard,
+                    () -> repository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize)));
+            position = 0;
+            exhausted = page.size() < pageSize;
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        }
+
+        boolean hasNext() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            fetch();
+            return position < page.size();
+        }
+
+        User peek() {
+            return page.get(position);
+        }
+
+        User next() {
+            return page.get(position++);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.SoftDeleteProperties;
+import com.psbral.projeto.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Expurga fisicamente os usuários marcados com {@code deleted_at}, em lotes limitados,
+ * na janela definida por {@code app.users.soft-delete.purge-cron}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.users.soft-delete", name = "enabled", havingValue = "true")
+public class UserPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final UserRepository repository;
+    private final SoftDeleteProperties properties;
+
+    private final Counter purgedRows;
+    private final Counter runs;
+    private final Timer batchTimer;
+
+    public UserPurgeService(UserRepository repository,
+                            SoftDeleteProperties properties,
+                            MeterRegistry registry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.purgedRows = Counter.builder("users.purge.rows")
+                .description("Tombstones removidos fisicamente")
+                .register(registry);
+        this.runs = Counter.builder("users.purge.runs")
+                .description("Execuções do expurgo agendado")
+                .register(registry);
+        this.batchTimer = Timer.builder("users.purge.batch")
+                .description("Duração de cada lote de expurgo")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${app.users.soft-delete.purge-cron:0 */10 1-5 * * *}")
+    public void purgeScheduled() {
+        purge();
+    }
+
+    /**
+     * Executa até {@code maxBatchesPerRun} lotes e retorna o total de linhas removidas.
+     */
+    public long purge() {
+        runs.increment();
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.retention());
+        long total = 0;
+
+        for (int batch = 0; batch < properties.maxBatchesPerRun(); batch++) {
+            int deleted = batchTimer.record(() ->
+                    repository.purgeDeletedBefore(cutoff, properties.batchSize()));
+            purgedRows.increment(deleted);
+            total += deleted;
+
+            if (deleted < properties.batchSize()) {
+                break;
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            log.info("Expurgo de usuários removeu {} registros (cutoff {})", total, cutoff);
+        }
+        return total;
+    }
+
+    private boolean pause() {
+        long millis = properties.pauseBetweenBatches().toMillis();
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.models.UserSnapshot;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Leitura completa de {@code tb_usuario} em streaming, para montar estruturas em memória.
+ */
+public interface UserScanner {
+
+    /**
+     * @param onSnapshot chamado quando a leitura de uma parte dos ids (a tabela toda, ou um shard) é
+     *                   fixada, antes das linhas dela: o que foi confirmado antes da chamada já está nela
+     * @param consumer   recebe cada usuário vivo
+     */
+    void scanAll(Consumer<Predicate<String>> onSnapshot, Consumer<UserSnapshot> consumer);
+
+}
@@ -1,36 +1,66 @@
 package com.psbral.projeto.services;
 
+import com.psbral.projeto.config.BatchLookupProperties;
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.config.SoftDeleteProperties;
+import com.psbral.projeto.diagnostics.RequestTiming;
 import com.psbral.projeto.dto.UserDTO;
 import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
 import com.psbral.projeto.repository.UserRepository;
+import com.psbral.projeto.repository.UserUpsertRepository;
+import com.psbral.projeto.services.events.UserChangedEvent;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @AllArgsConstructor
 @Service
-public class UserService implements ServiceRepository {
+public class UserService implements ServiceRepository, UserScanner {
 
     private final UserRepository repository;
+    private final SoftDeleteProperties softDelete;
+    private final BatchLookupProperties batchLookup;
+    private final ApplicationEventPublisher events;
 
     // CREATE
     @Override
     @Transactional
     public UserDTO.Response insert(UserDTO.Request dto) {
+        return insert(null, dto);
+    }
+
+    // CREATE com id pré-alocado (o roteamento de shards precisa do id antes de abrir a transação)
+    @Transactional
+    public UserDTO.Response insert(String id, UserDTO.Request dto) {
 
         if (repository.existsByEmail(dto.email())) {
             throw new IllegalArgumentException("E-mail já cadastrado: " + dto.email());
         }
 
         User entity = new User();
+        entity.setId(id);                 // null → ULID gerado no @PrePersist
         copyToUser(dto, entity);          // preenche name, email, birthDate
 
         User saved = repository.save(entity);
+        events.publishEvent(UserChangedEvent.created(UserSnapshot.of(saved)));
 
         return toResponse(saved);         // monta o DTO de resposta
     }
@@ -41,12 +71,15 @@ public class UserService implements ServiceRepository {
     public List<UserDTO.Response> findAll() {
         return repository.findAll()
                 .stream()
-                .map(this::toResponse)
+                .map(UserService::toResponse)
                 .collect(Collectors.toList());
     }
 
-    // READ – FIND BY ID
+    // READ – FIND BY ID (cacheado; update/delete invalidam via CacheInvalidationBus)
+    // sync: a leitura roda dentro do compute do cache, então uma invalidação que chega durante ela
+    // espera a entrada ser gravada e a remove, em vez de ser sobrescrita pelo valor anterior ao commit
     @Override
+    @Cacheable(cacheNames = ConfigCache.USERS, key = "#id", sync = true)
     @Transactional(readOnly = true)
     public UserDTO.Response findById(String id) {
         User user = repository.findById(id)
@@ -57,12 +90,53 @@ public class UserService implements ServiceRepository {
         return toResponse(user);
     }
 
+    // READ – FIND MANY BY ID (um único SELECT ... IN)
+    @Override
+    @Transactional(readOnly = true)
+    public UserDTO.BatchResponse findAllById(List<String> ids) {
+
+        LinkedHashSet<String> requested = requestedIds(ids, batchLookup.maxSize());
+
+        Map<String, User> found = repository.findAllByIdIn(requested)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return toBatchResponse(requested, found, UserService::toResponse);
+    }
+
+    // ids distintos, na ordem do pedido; o limite vale para o lote inteiro, antes de qualquer divisão por shard
+    static LinkedHashSet<String> requestedIds(List<String> ids, int maxSize) {
+        LinkedHashSet<String> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxSize) {
+            throw new IllegalArgumentException(
+                    "Máximo de " + maxSize + " ids por requisição: " + requested.size());
+        }
+        return requested;
+    }
+
+    static <T> UserDTO.BatchResponse toBatchResponse(Iterable<String> requested,
+                                                     Map<String, T> found,
+                                                     Function<T, UserDTO.Response> mapper) {
+        Map<String, UserDTO.Response> users = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            T user = found.get(id);
+            if (user == null) {
+                missing.add(id);
+            } else {
+                users.put(id, mapper.apply(user));
+            }
+        }
+        return new UserDTO.BatchResponse(users, missing);
+    }
+
     // UPDATE
     @Override
     @Transactional
     public UserDTO.Response update(String id, UserDTO.Request dto) {
 
         User entity = repository.getReferenceById(id);
+        UserSnapshot before = UserSnapshot.of(entity);
 
         if (!entity.getEmail().equals(dto.email())
                 && repository.existsByEmail(dto.email())) {
@@ -72,10 +146,98 @@ public class UserService implements ServiceRepository {
         copyToUser(dto, entity);
 
         User saved = repository.save(entity);
+        events.publishEvent(UserChangedEvent.updated(before, UserSnapshot.of(saved)));
 
         return toResponse(saved);
     }
 
+    // UPSERT POR E-MAIL (INSERT ... ON CONFLICT; nada é gravado se os dados não mudaram)
+    @Override
+    @Transactional
+    public UserDTO.UpsertResponse upsert(String email, UserDTO.Request dto) {
+        requireSameEmail(email, dto);
+        return upsertAll(List.of(dto)).get(0);
+    }
+
+    // UPSERT EM LOTE (uma transação, um único INSERT ... ON CONFLICT)
+    @Override
+    @Transactional
+    public List<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos) {
+        return upsertAll(dtos, Map.of());
+    }
+
+    // UPSERT com ids pré-alocados para os e-mails novos (o roteamento de shards precisa do id antes)
+    @Transactional
+    public List<UserDTO.UpsertResponse> upsertAll(List<UserDTO.Request> dtos, Map<String, String> newIds) {
+
+        Map<String, UserDTO.Request> byEmail = indexByEmail(dtos, batchLookup.maxSize());
+
+        // estado anterior travado, para os eventos de UPDATED e para as respostas UNCHANGED
+        Map<String, UserSnapshot> before = repository.lockByEmailIn(byEmail.keySet())
+                .stream()
+                .collect(Collectors.toMap(UserSnapshot::email, Function.identity()));
+
+        List<User> rows = new ArrayList<>();
+        for (UserDTO.Request dto : byEmail.values()) {
+            User row = new User();
+            row.setId(newIds.get(dto.email()));   // null → ULID gerado no onCreate
+            copyToUser(dto, row);
+            row.onCreate();                       // created_at só vale se a linha for inserida
+            rows.add(row);
+        }
+
+        Map<String, UserUpsertRepository.Upserted> written = repository.upsertByEmail(rows)
+                .stream()
+                .collect(Collectors.toMap(upserted -> upserted.user().email(), Function.identity()));
+
+        List<UserDTO.UpsertResponse> responses = new ArrayList<>();
+        for (String email : byEmail.keySet()) {
+            UserUpsertRepository.Upserted upserted = written.get(email);
+            UserSnapshot previous = before.get(email);
+
+            if (upserted == null) {
+                // sem mudança; se a linha surgiu em paralelo depois do lock, relê
+                UserSnapshot current = previous != null ? previous
+                        : repository.lockByEmailIn(List.of(email)).get(0);
+                responses.add(new UserDTO.UpsertResponse(
+                        current.id(), UserDTO.UpsertStatus.UNCHANGED, toResponse(current)));
+            } else if (upserted.created()) {
+                events.publishEvent(UserChangedEvent.created(upserted.user()));
+                responses.add(new UserDTO.UpsertResponse(
+                        upserted.user().id(), UserDTO.UpsertStatus.CREATED, toResponse(upserted.user())));
+            } else {
+                // previous só falta se outra transação criou o e-mail depois do lock; a reconciliação corrige
+                events.publishEvent(UserChangedEvent.updated(
+                        previous != null ? previous : upserted.user(), upserted.user()));
+                responses.add(new UserDTO.UpsertResponse(
+                        upserted.user().id(), UserDTO.UpsertStatus.UPDATED, toResponse(upserted.user())));
+            }
+        }
+        return responses;
+    }
+
+    // lote do upsert por e-mail, na ordem do pedido
+    static Map<String, UserDTO.Request> indexByEmail(List<UserDTO.Request> dtos, int maxSize) {
+        if (dtos.size() > maxSize) {
+            throw new IllegalArgumentException(
+                    "Máximo de " + maxSize + " usuários por requisição: " + dtos.size());
+        }
+
+        Map<String, UserDTO.Request> byEmail = new LinkedHashMap<>();
+        for (UserDTO.Request dto : dtos) {
+            if (byEmail.putIfAbsent(dto.email(), dto) != null) {
+                throw new IllegalArgumentException("E-mail repetido no lote: " + dto.email());
+            }
+        }
+        return byEmail;
+    }
+
+    static void requireSameEmail(String email, UserDTO.Request dto) {
+        if (!email.equals(dto.email())) {
+            throw new IllegalArgumentException("E-mail do corpo difere do e-mail da URL: " + dto.email());
+        }
+    }
+
     private void copyToUser(UserDTO.Request source, User target) {
         target.setName(source.name());
         target.setEmail(source.email());
@@ -83,12 +245,19 @@ public class UserService implements ServiceRepository {
         // createdAt e lastUpdate continuam sendo controlados pelo @PrePersist / @PreUpdate
     }
 
-    private UserDTO.Response toResponse(User u) {
-        return new UserDTO.Response(
+    static UserDTO.Response toResponse(User u) {
+        long start = RequestTiming.start();
+        UserDTO.Response response = new UserDTO.Response(
                 u.getName(),
                 u.getEmail(),
                 u.getBirthDate()
         );
+        RequestTiming.stop(RequestTiming.Phase.MAPPING, start);
+        return response;
+    }
+
+    static UserDTO.Response toResponse(UserSnapshot u) {
+        return new UserDTO.Response(u.name(), u.email(), u.birthDate());
     }
 
     // DELETE
@@ -96,15 +265,33 @@ public class UserService implements ServiceRepository {
     @Transactional
     public void delete(String id) {
 
-        if (!repository.existsById(id)) {
-            throw new EntityNotFoundException("Usuário não encontrado - id: " + id);
+        // um único comando, que devolve o estado anterior para os ouvintes de UserChangedEvent
+        Optional<UserSnapshot> removed;
+        if (softDelete.enabled()) {
+            // o UPDATE marca o tombstone; o expurgo físico fica com o UserPurgeService
+            removed = repository.softDeleteReturning(id, LocalDateTime.now());
+        } else {
+            try {
+                removed = repository.deleteReturning(id);
+
+            } catch (DataIntegrityViolationException e) {
+                throw new IllegalArgumentException("Falha de integridade referencial - id: " + id);
+            }
         }
 
-        try {
-            repository.deleteById(id);
+        UserSnapshot before = removed.orElseThrow(() -> new EntityNotFoundException(
+                "Usuário não encontrado - id: " + id
+        ));
+        events.publishEvent(UserChangedEvent.deleted(before));
+    }
 
-        } catch (DataIntegrityViolationException e) {
-            throw new IllegalArgumentException("Falha de integridade referencial - id: " + id);
+    // SCAN – leitura completa em streaming, sem carregar entidades no contexto de persistência
+    @Override
+    @Transactional(readOnly = true)
+    public void scanAll(Consumer<Predicate<String>> onSnapshot, Consumer<UserSnapshot> consumer) {
+        try (Stream<UserSnapshot> rows = repository.streamAllSnapshots()) {
+            onSnapshot.accept(id -> true);   // a consulta já rodou; a marca é aproximada (ver IncrementalView)
+            rows.forEach(consumer);
         }
     }
 }
@@ -0,0 +1,75 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.services.events.UserChangedEvent;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contadores mantidos incrementalmente: total, cadastros por dia e uma árvore de Fenwick
+ * por data de nascimento, que responde "quantos nasceram até X" em O(log n) sem varrer usuários.
+ * Não é thread-safe; o {@link IncrementalView} do {@link UserStatsService} serializa o acesso.
+ */
+final class UserStatsAggregates {
+
+    static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1900, 1, 1);
+    static final LocalDate LAST_BIRTH_DATE = LocalDate.of(2100, 12, 31);
+
+    private static final long FIRST_EPOCH_DAY = FIRST_BIRTH_DATE.toEpochDay();
+
+    private final long[] births = new long[(int) (LAST_BIRTH_DATE.toEpochDay() - FIRST_EPOCH_DAY) + 2];
+    private final Map<LocalDate, Long> signups = new HashMap<>();
+    private long total;
+
+    void add(UserSnapshot user) {
+        change(user, 1);
+    }
+
+    void apply(UserChangedEvent event) {
+        if (event.before() != null) {
+            change(event.before(), -1);
+        }
+        if (event.after() != null) {
+            change(event.after(), 1);
+        }
+    }
+
+    long total() {
+        return total;
+    }
+
+    long signupsOn(LocalDate day) {
+        return signups.getOrDefault(day, 0L);
+    }
+
+    long bornOnOrBefore(LocalDate day) {
+        if (day.isBefore(FIRST_BIRTH_DATE)) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = index(day); i > 0; i -= i & -i) {
+            sum += births[i];
+        }
+        return sum;
+    }
+
+    private void change(UserSnapshot user, int delta) {
+        total += delta;
+        if (user.createdAt() != null) {
+            signups.merge(user.createdAt().toLocalDate(), (long) delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+        if (user.birthDate() != null) {
+            for (int i = index(user.birthDate()); i < births.length; i += i & -i) {
+                births[i] += delta;
+            }
+        }
+    }
+
+    // datas fora da faixa são presas às extremidades
+    private int index(LocalDate day) {
+        long offset = day.toEpochDay() - FIRST_EPOCH_DAY;
+        return (int) Math.max(0, Math.min(offset, births.length - 2)) + 1;
+    }
+}
@@ -0,0 +1,108 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.UserStatsProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estatísticas de usuários sem consultar o banco a cada pedido: os agregados são montados
+ * com uma varredura em streaming na subida, atualizados a cada {@link UserChangedEvent}
+ * confirmado e reconciliados periodicamente com uma nova varredura ({@link IncrementalView}).
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserStatsProperties properties;
+    private final IncrementalView<UserStatsAggregates> view;
+    private Instant reconciledAt;   // escrito na troca e lido sob o lock da view
+
+    public UserStatsService(UserScanner scanner, UserStatsProperties properties) {
+        this.properties = properties;
+        this.view = new IncrementalView<>(scanner, UserStatsAggregates::new,
+                UserStatsAggregates::add, UserStatsAggregates::apply);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Falha ao montar as estatísticas de usuários na subida; nova tentativa na reconciliação", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.stats.reconcile-interval:PT15M}",
+            initialDelayString = "${app.users.stats.reconcile-interval:PT15M}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    /**
+     * Recalcula tudo com uma varredura e troca os agregados, reaplicando as mudanças posteriores
+     * à marca da varredura. Mudanças confirmadas bem no momento da leitura podem ficar de fora ou
+     * contar duas vezes até a próxima reconciliação.
+     */
+    public void rebuild() {
+        view.rebuild((previous, fresh) -> {
+            long drift = fresh.total() - previous.total();
+            if (reconciledAt != null && drift != 0) {
+                log.warn("Reconciliação das estatísticas corrigiu o total em {} usuários", drift);
+            }
+            reconciledAt = Instant.now();
+        });
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        view.apply(event);
+    }
+
+    public UserDTO.Stats stats(int days) {
+        if (days < 1 || days > properties.maxSignupDays()) {
+            throw new IllegalArgumentException(
+                    "days deve estar entre 1 e " + properties.maxSignupDays() + ": " + days);
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Integer> limits = properties.ageBuckets();
+
+        return view.read(aggregates -> {
+            Map<LocalDate, Long> signupsPerDay = new LinkedHashMap<>();
+            for (LocalDate day = today.minusDays(days - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+                signupsPerDay.put(day, aggregates.signupsOn(day));
+            }
+
+            // idade >= n  <=>  nascido até hoje - n anos
+            List<UserDTO.AgeBucket> ageDistribution = new ArrayList<>();
+            for (int i = 0; i < limits.size(); i++) {
+                int from = limits.get(i);
+                long atLeastFrom = aggregates.bornOnOrBefore(today.minusYears(from));
+                if (i + 1 < limits.size()) {
+                    int to = limits.get(i + 1);
+                    long atLeastTo = aggregates.bornOnOrBefore(today.minusYears(to));
+                    ageDistribution.add(new UserDTO.AgeBucket(from + "-" + (to - 1), atLeastFrom - atLeastTo));
+                } else {
+                    ageDistribution.add(new UserDTO.AgeBucket(from + "+", atLeastFrom));
+                }
+            }
+
+            return new UserDTO.Stats(aggregates.total(), signupsPerDay, ageDistribution, reconciledAt);
+        });
+    }
+}
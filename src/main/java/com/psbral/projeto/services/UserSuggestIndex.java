@@ -0,0 +1,389 @@
+package com.psbral.projeto.services;
+
+import com.github.f4b6a3.ulid.Ulid;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.services.events.UserChangedEvent;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de trigramas sobre nome e e-mail para autocomplete.
+ * <p>
+ * Cada usuário vira um ordinal; ids ULID ficam em dois {@code long[]} e as listas de postings
+ * são {@code int[]} de ordinais, sem coleções de objetos boxed. Ids anteriores ao ULID (a V3
+ * manteve os numéricos existentes) são poucos e ficam em mapas à parte, pela string. Os trigramas de cada palavra
+ * começam com dois marcadores de início, então "j", "jo" e "joa" casam prefixos; consultas com
+ * erros de digitação casam por similaridade (fração dos trigramas da consulta presentes).
+ * <p>
+ * Alterações não reaproveitam ordinais: a versão anterior vira tombstone até a próxima
+ * reconstrução. Não é thread-safe; o {@link IncrementalView} do {@link UserSuggestService} serializa o acesso.
+ */
+final class UserSuggestIndex {
+
+    private static final char BOUNDARY = '\u0001';
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // documentos
+    private long[] idHi = new long[16];
+    private long[] idLo = new long[16];
+    private String[] names = new String[16];
+    private String[] emails = new String[16];
+    private final BitSet deleted = new BitSet();
+    private int size;
+    private int live;
+    private long textBytes;
+
+    // id -> ordinal (endereçamento aberto; guarda ordinal + 1, 0 = vazio)
+    private int[] idTable = new int[32];
+
+    // ids que não são ULID: id -> ordinal e ordinal -> id
+    private final Map<String, Integer> legacyDocs = new HashMap<>();
+    private final Map<Integer, String> legacyIds = new HashMap<>();
+
+    // trigrama -> postings (endereçamento aberto; chave 0 = vazio)
+    private long[] gramKeys = new long[1024];
+    private int[] gramSlots = new int[1024];
+    private int gramCount;
+    private int[][] postings = new int[512][];
+    private int[] postingSizes = new int[512];
+
+    void add(UserSnapshot user) {
+        int existing = find(user.id());
+        if (existing >= 0) {
+            remove(existing);
+        }
+
+        int doc = size++;
+        ensureDocCapacity(size);
+        names[doc] = user.name();
+        emails[doc] = user.email();
+        textBytes += stringBytes(user.name()) + stringBytes(user.email());
+        live++;
+        if (Ulid.isValid(user.id())) {
+            Ulid ulid = Ulid.from(user.id());
+            idHi[doc] = ulid.getMostSignificantBits();
+            idLo[doc] = ulid.getLeastSignificantBits();
+            putId(doc);
+        } else {
+            legacyDocs.put(user.id(), doc);
+            legacyIds.put(doc, user.id());
+            textBytes += stringBytes(user.id());
+        }
+
+        for (long gram : grams(user.name() + " " + user.email())) {
+            appendPosting(gram, doc);
+        }
+    }
+
+    void apply(UserChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.after());
+            case UPDATED -> {
+                if (!event.before().name().equals(event.after().name())
+                        || !event.before().email().equals(event.after().email())) {
+                    add(event.after());
+                }
+            }
+            case DELETED -> remove(event.before().id());
+        }
+    }
+
+    void remove(String id) {
+        int doc = find(id);
+        if (doc >= 0) {
+            remove(doc);
+        }
+    }
+
+    /**
+     * Até {@code limit} usuários com similaridade mínima {@code minSimilarity}, do mais similar
+     * para o menos; empates favorecem o nome mais curto.
+     */
+    List<UserDTO.Suggestion> search(String query, int limit, double minSimilarity) {
+        long[] queryGrams = grams(query);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        int[][] lists = new int[queryGrams.length][];
+        int[] ends = new int[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            int slot = gramSlot(queryGrams[i]);
+            lists[i] = slot < 0 ? new int[0] : postings[slot];
+            ends[i] = slot < 0 ? 0 : postingSizes[slot];
+        }
+        int minHits = Math.max(1, (int) Math.ceil(queryGrams.length * minSimilarity));
+
+        int[] topDocs = new int[limit];
+        float[] topScores = new float[limit];
+        int found = 0;
+
+        // merge das listas ordenadas, contando em quantas cada ordinal aparece
+        int[] positions = new int[lists.length];
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < ends[i] && lists[i][positions[i]] < doc) {
+                    doc = lists[i][positions[i]];
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            int hits = 0;
+            for (int i = 0; i < lists.length; i++) {
+                if (positions[i] < ends[i] && lists[i][positions[i]] == doc) {
+                    positions[i]++;
+                    hits++;
+                }
+            }
+            if (hits < minHits || deleted.get(doc)) {
+                continue;
+            }
+
+            float score = (float) hits / queryGrams.length;
+            int at = found;
+            while (at > 0 && ranksBefore(score, doc, topScores[at - 1], topDocs[at - 1])) {
+                at--;
+            }
+            if (at < limit) {
+                int move = Math.min(found, limit - 1) - at;
+                System.arraycopy(topDocs, at, topDocs, at + 1, move);
+                System.arraycopy(topScores, at, topScores, at + 1, move);
+                topDocs[at] = doc;
+                topScores[at] = score;
+                found = Math.min(found + 1, limit);
+            }
+        }
+
+        List<UserDTO.Suggestion> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int doc = topDocs[i];
+            result.add(new UserDTO.Suggestion(idOf(doc), names[doc], emails[doc], topScores[i]));
+        }
+        return result;
+    }
+
+    int size() {
+        return live;
+    }
+
+    /**
+     * Estimativa do heap ocupado pelo índice (arrays, strings e tabelas), em bytes.
+     */
+    long memoryBytes() {
+        long bytes = arrayBytes(idHi.length, 8) * 2
+                + arrayBytes(names.length, 4) * 2
+                + textBytes
+                + deleted.size() / 8
+                + arrayBytes(idTable.length, 4)
+                + arrayBytes(gramKeys.length, 8)
+                + arrayBytes(gramSlots.length, 4)
+                + arrayBytes(postings.length, 4)
+                + arrayBytes(postingSizes.length, 4)
+                + legacyIds.size() * 96L;
+        for (int i = 0; i < gramCount; i++) {
+            bytes += arrayBytes(postings[i].length, 4);
+        }
+        return bytes;
+    }
+
+    // NORMALIZAÇÃO
+
+    private static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase();
+    }
+
+    /**
+     * Trigramas distintos e ordenados das palavras do texto. Não há marcador de fim: a última
+     * palavra da consulta costuma estar incompleta e deve casar como prefixo.
+     */
+    private static long[] grams(String text) {
+        long[] result = new long[16];
+        int count = 0;
+        for (String word : SEPARATORS.split(normalize(text))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "" + BOUNDARY + BOUNDARY + word;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = encode(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+            }
+        }
+        long[] distinct = Arrays.copyOf(result, count);
+        Arrays.sort(distinct);
+        int unique = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[unique++] = distinct[i];
+            }
+        }
+        return Arrays.copyOf(distinct, unique);
+    }
+
+    private static long encode(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // ESTRUTURA
+
+    private boolean ranksBefore(float score, int doc, float otherScore, int otherDoc) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        return names[doc].length() < names[otherDoc].length();
+    }
+
+    private void remove(int doc) {
+        if (!deleted.get(doc)) {
+            deleted.set(doc);
+            live--;
+        }
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity <= idHi.length) {
+            return;
+        }
+        int grown = idHi.length * 2;
+        idHi = Arrays.copyOf(idHi, grown);
+        idLo = Arrays.copyOf(idLo, grown);
+        names = Arrays.copyOf(names, grown);
+        emails = Arrays.copyOf(emails, grown);
+
+        if (grown * 2 > idTable.length) {
+            int[] old = idTable;
+            idTable = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    putId(entry - 1);
+                }
+            }
+        }
+    }
+
+    private int find(String id) {
+        if (Ulid.isValid(id)) {
+            Ulid ulid = Ulid.from(id);
+            return find(ulid.getMostSignificantBits(), ulid.getLeastSignificantBits());
+        }
+        Integer doc = legacyDocs.get(id);
+        return doc == null || deleted.get(doc) ? -1 : doc;
+    }
+
+    private String idOf(int doc) {
+        String legacy = legacyIds.get(doc);
+        return legacy != null ? legacy : new Ulid(idHi[doc], idLo[doc]).toString();
+    }
+
+    private int find(long hi, long lo) {
+        int mask = idTable.length - 1;
+        for (int i = mix(hi ^ lo) & mask; idTable[i] != 0; i = (i + 1) & mask) {
+            int doc = idTable[i] - 1;
+            if (idHi[doc] == hi && idLo[doc] == lo) {
+                return deleted.get(doc) ? -1 : doc;
+            }
+        }
+        return -1;
+    }
+
+    private void putId(int doc) {
+        int mask = idTable.length - 1;
+        int i = mix(idHi[doc] ^ idLo[doc]) & mask;
+        while (idTable[i] != 0) {
+            int other = idTable[i] - 1;
+            if (idHi[other] == idHi[doc] && idLo[other] == idLo[doc]) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        idTable[i] = doc + 1;
+    }
+
+    private int gramSlot(long gram) {
+        int mask = gramKeys.length - 1;
+        for (int i = mix(gram) & mask; gramKeys[i] != 0; i = (i + 1) & mask) {
+            if (gramKeys[i] == gram) {
+                return gramSlots[i];
+            }
+        }
+        return -1;
+    }
+
+    private void appendPosting(long gram, int doc) {
+        int slot = gramSlot(gram);
+        if (slot < 0) {
+            slot = newGram(gram);
+        }
+        int[] list = postings[slot];
+        int length = postingSizes[slot];
+        if (length == list.length) {
+            list = Arrays.copyOf(list, list.length + (list.length >> 1) + 1);
+            postings[slot] = list;
+        }
+        list[length] = doc;
+        postingSizes[slot] = length + 1;
+    }
+
+    private int newGram(long gram) {
+        if ((gramCount + 1) * 2 > gramKeys.length) {
+            long[] oldKeys = gramKeys;
+            int[] oldSlots = gramSlots;
+            gramKeys = new long[oldKeys.length * 2];
+            gramSlots = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    insertGram(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+        if (gramCount == postings.length) {
+            postings = Arrays.copyOf(postings, gramCount * 2);
+            postingSizes = Arrays.copyOf(postingSizes, gramCount * 2);
+        }
+        int slot = gramCount++;
+        postings[slot] = new int[2];
+        insertGram(gram, slot);
+        return slot;
+    }
+
+    private void insertGram(long gram, int slot) {
+        int mask = gramKeys.length - 1;
+        int i = mix(gram) & mask;
+        while (gramKeys[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        gramKeys[i] = gram;
+        gramSlots[i] = slot;
+    }
+
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return 16 + (long) length * elementBytes;
+    }
+
+    private static long stringBytes(String value) {
+        // cabeçalho do String + byte[] (Latin-1 compacto na maioria dos nomes)
+        return 40 + (value == null ? 0 : value.length());
+    }
+}
@@ -0,0 +1,99 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.UserSuggestProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Autocomplete de nome/e-mail servido por um {@link UserSuggestIndex} em memória: montado com
+ * uma varredura em streaming na subida, atualizado a cada {@link UserChangedEvent} confirmado e
+ * reconstruído periodicamente ({@link IncrementalView}), o que também descarta as versões
+ * antigas (tombstones).
+ */
+@Service
+public class UserSuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSuggestService.class);
+
+    private final UserSuggestProperties properties;
+    private final IncrementalView<UserSuggestIndex> view;
+
+    public UserSuggestService(UserScanner scanner,
+                              UserSuggestProperties properties,
+                              MeterRegistry registry) {
+        this.properties = properties;
+        this.view = new IncrementalView<>(scanner, UserSuggestIndex::new,
+                UserSuggestIndex::add, UserSuggestIndex::apply);
+        Gauge.builder("users.suggest.index.bytes", this, UserSuggestService::memoryBytes)
+                .description("Heap estimado do índice de autocomplete")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("users.suggest.index.documents", this, UserSuggestService::size)
+                .description("Usuários indexados para autocomplete")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void rebuildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Falha ao montar o índice de autocomplete na subida; nova tentativa na reconstrução", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.suggest.rebuild-interval:PT1H}",
+            initialDelayString = "${app.users.suggest.rebuild-interval:PT1H}")
+    public void rebuildScheduled() {
+        rebuild();
+    }
+
+    /**
+     * Monta um índice novo com uma varredura e o troca pelo atual, reaplicando as mudanças
+     * posteriores à marca da varredura ({@link IncrementalView} explica o limite dessa marca).
+     */
+    public void rebuild() {
+        view.rebuild((previous, fresh) -> log.info("Índice de autocomplete montado: {} usuários, ~{} KB",
+                fresh.size(), fresh.memoryBytes() / 1024));
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        view.apply(event);
+    }
+
+    public List<UserDTO.Suggestion> suggest(String query, Integer limit) {
+        int top = limit == null ? properties.defaultLimit() : limit;
+        if (top < 1 || top > properties.maxLimit()) {
+            throw new IllegalArgumentException(
+                    "limit deve estar entre 1 e " + properties.maxLimit() + ": " + top);
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String q = query.length() > properties.maxQueryLength()
+                ? query.substring(0, properties.maxQueryLength())
+                : query;
+
+        return view.read(index -> index.search(q, top, properties.minSimilarity()));
+    }
+
+    public long memoryBytes() {
+        return view.read(UserSuggestIndex::memoryBytes);
+    }
+
+    public int size() {
+        return view.read(UserSuggestIndex::size);
+    }
+}
@@ -0,0 +1,35 @@
+package com.psbral.projeto.services.events;
+
+import com.psbral.projeto.models.UserSnapshot;
+
+/**
+ * Publicado pelo {@code UserService} a cada mutação. Ouvintes devem usar
+ * {@code @TransactionalEventListener} para reagir só depois do commit.
+ *
+ * @param before estado anterior ({@code null} em {@link Type#CREATED})
+ * @param after  estado novo ({@code null} em {@link Type#DELETED})
+ */
+public record UserChangedEvent(
+        Type type,
+        UserSnapshot before,
+        UserSnapshot after
+) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static UserChangedEvent created(UserSnapshot after) {
+        return new UserChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static UserChangedEvent updated(UserSnapshot before, UserSnapshot after) {
+        return new UserChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static UserChangedEvent deleted(UserSnapshot before) {
+        return new UserChangedEvent(Type.DELETED, before, null);
+    }
+
+    public String id() {
+        return after != null ? after.id() : before.id();
+    }
+}
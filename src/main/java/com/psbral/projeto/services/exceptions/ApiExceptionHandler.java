@@ -1,19 +1,25 @@
 package com.psbral.projeto.services.exceptions;
 
+import com.psbral.projeto.resilience.DatabaseUnavailableException;
+import com.psbral.projeto.resilience.DeadlineExceededException;
 import com.psbral.projeto.services.exceptions.models.ApiError;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ApiExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
@@ -63,6 +69,34 @@ public class ApiExceptionHandler {
         return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), "Bad Request", request);
     }
 
+    // status já decidido por quem lançou (ex.: parâmetro inválido num endpoint do actuator)
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ApiError> handleResponseStatus(ResponseStatusException ex,
+                                                         HttpServletRequest request) {
+        HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
+        return buildError(status, ex.getReason(), status.getReasonPhrase(), request);
+    }
+
+    // 503 (banco fora ou circuito aberto, sem snapshot)
+    @ExceptionHandler(DatabaseUnavailableException.class)
+    public ResponseEntity<ApiError> handleDatabaseUnavailable(DatabaseUnavailableException ex,
+                                                              HttpServletRequest request) {
+        long retryAfter = Math.max(1, (ex.retryAfter().toMillis() + 999) / 1000);
+        ResponseEntity<ApiError> error = buildError(HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage() + "; tente novamente em " + retryAfter + " s",
+                "Service Unavailable", request);
+        return ResponseEntity.status(error.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter))
+                .body(error.getBody());
+    }
+
+    // 504 (prazo da requisição esgotado; o trabalho foi abandonado)
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ApiError> handleDeadlineExceeded(DeadlineExceededException ex,
+                                                           HttpServletRequest request) {
+        return buildError(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage(), "Gateway Timeout", request);
+    }
+
     // 500
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleUnexpected(Exception ex,
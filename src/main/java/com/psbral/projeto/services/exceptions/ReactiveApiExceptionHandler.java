@@ -0,0 +1,69 @@
+package com.psbral.projeto.services.exceptions;
+
+import com.psbral.projeto.services.exceptions.models.ApiError;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * O {@link ApiExceptionHandler} das rotas WebFlux: mesmo {@link ApiError} e mesmos status.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveApiExceptionHandler.class);
+
+    public Mono<ServerResponse> handle(Throwable ex, ServerRequest request) {
+        // 404
+        if (ex instanceof EntityNotFoundException) {
+            return buildError(HttpStatus.NOT_FOUND, ex.getMessage(), "Not Found", request);
+        }
+        // 400 (Bean Validation)
+        if (ex instanceof ConstraintViolationException violations) {
+            String message = violations.getConstraintViolations()
+                    .stream()
+                    .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .orElse("Validation error");
+            return buildError(HttpStatus.BAD_REQUEST, message, "Validation error", request);
+        }
+        // 400 (corpo ilegível, parâmetro inválido)
+        if (ex instanceof ServerWebInputException input) {
+            return buildError(HttpStatus.BAD_REQUEST, input.getReason(), "Bad Request", request);
+        }
+        // 400
+        if (ex instanceof IllegalArgumentException) {
+            return buildError(HttpStatus.BAD_REQUEST, ex.getMessage(), "Bad Request", request);
+        }
+        // 500
+        log.error("Erro inesperado em {}: {}", request.path(), ex.getMessage(), ex);
+        return buildError(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error", "Internal Server Error", request);
+    }
+
+    private static Mono<ServerResponse> buildError(HttpStatus status,
+                                                   String message,
+                                                   String error,
+                                                   ServerRequest request) {
+        ApiError body = new ApiError(
+                Instant.now(),
+                status.value(),
+                message,
+                error,
+                request.path()
+        );
+
+        return ServerResponse.status(status).bodyValue(body);
+    }
+}
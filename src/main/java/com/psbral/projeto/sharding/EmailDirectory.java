@@ -0,0 +1,48 @@
+package com.psbral.projeto.sharding;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Diretório global e-mail → shard ({@code tb_email_shard} no shard 0).
+ * A chave primária em {@code email} garante unicidade entre todos os shards.
+ */
+public class EmailDirectory {
+
+    public record Entry(String email, String userId, int shard) { }
+
+    private final JdbcTemplate jdbc;
+
+    public EmailDirectory(DataSource directoryDataSource) {
+        this.jdbc = new JdbcTemplate(directoryDataSource);
+    }
+
+    public void claim(String email, String userId, int shard) {
+        try {
+            jdbc.update("INSERT INTO tb_email_shard (email, user_id, shard) VALUES (?, ?, ?)",
+                    email, userId, shard);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("E-mail já cadastrado: " + email);
+        }
+    }
+
+    public void release(String email, String userId) {
+        jdbc.update("DELETE FROM tb_email_shard WHERE email = ? AND user_id = ?", email, userId);
+    }
+
+    public void move(String userId, int shard) {
+        jdbc.update("UPDATE tb_email_shard SET shard = ? WHERE user_id = ?", shard, userId);
+    }
+
+    public Optional<Entry> lookup(String email) {
+        List<Entry> found = jdbc.query(
+                "SELECT email, user_id, shard FROM tb_email_shard WHERE email = ?",
+                (rs, n) -> new Entry(rs.getString("email"), rs.getString("user_id"), rs.getInt("shard")),
+                email);
+        return found.stream().findFirst();
+    }
+}
@@ -0,0 +1,52 @@
+package com.psbral.projeto.sharding;
+
+import com.psbral.projeto.config.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pools físicos de cada shard, na ordem configurada em {@code app.sharding.shards}.
+ */
+public class ShardDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools;
+
+    public ShardDataSources(ShardingProperties properties) {
+        if (properties.shards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.enabled=true exige ao menos um app.sharding.shards[n].url");
+        }
+        List<HikariDataSource> created = new ArrayList<>();
+        for (int i = 0; i < properties.shards().size(); i++) {
+            ShardingProperties.Shard shard = properties.shards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + i);
+            pool.setJdbcUrl(shard.url());
+            pool.setUsername(shard.username());
+            pool.setPassword(shard.password());
+            pool.setMaximumPoolSize(shard.maximumPoolSize());
+            created.add(pool);
+        }
+        this.pools = Collections.unmodifiableList(created);
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    public DataSource get(int shard) {
+        return pools.get(shard);
+    }
+
+    public List<DataSource> all() {
+        return List.copyOf(pools);
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
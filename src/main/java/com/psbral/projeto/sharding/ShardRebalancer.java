@@ -0,0 +1,109 @@
+package com.psbral.projeto.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Move para o shard correto os usuários cuja posição mudou após adicionar um shard.
+ * <p>
+ * Cada linha é relida com {@code FOR UPDATE} numa transação da origem que cobre a cópia, a
+ * atualização do diretório e a remoção: uma escrita concorrente na origem espera a transação
+ * terminar, e nunca é copiada pela metade ou apagada sem ter sido copiada. Uma execução
+ * interrompida pode ser repetida sem duplicar registros.
+ * Durante a execução, leituras de um usuário ainda não movido podem retornar 404.
+ */
+public class ShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    public record Result(long scanned, long moved, Map<Integer, Long> movedTo) { }
+
+    private final ShardDataSources shards;
+    private final ShardRouter router;
+    private final EmailDirectory directory;
+    private final int pageSize;
+
+    public ShardRebalancer(ShardDataSources shards, ShardRouter router,
+                           EmailDirectory directory, int pageSize) {
+        this.shards = shards;
+        this.router = router;
+        this.directory = directory;
+        this.pageSize = pageSize;
+    }
+
+    public Result rebalance() {
+        long scanned = 0;
+        long moved = 0;
+        Map<Integer, Long> movedTo = new TreeMap<>();
+
+        for (int source = 0; source < shards.size(); source++) {
+            JdbcTemplate from = new JdbcTemplate(shards.get(source));
+            TransactionTemplate sourceTx = new TransactionTemplate(new DataSourceTransactionManager(shards.get(source)));
+            String lastId = "";
+
+            while (true) {
+                List<String> page = from.queryForList(
+                        "SELECT id FROM tb_usuario WHERE id > ? ORDER BY id LIMIT ?", String.class, lastId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (String id : page) {
+                    lastId = id;
+                    scanned++;
+
+                    int target = router.shardFor(id);
+                    if (target != source && Boolean.TRUE.equals(sourceTx.execute(tx -> moveRow(id, from, target)))) {
+                        moved++;
+                        movedTo.merge(target, 1L, Long::sum);
+                    }
+                }
+            }
+        }
+
+        log.info("Rebalanceamento concluído: {} usuários lidos, {} movidos {}", scanned, moved, movedTo);
+        return new Result(scanned, moved, movedTo);
+    }
+
+    // roda na transação da origem: o lock da linha vale até a remoção ser confirmada
+    private boolean moveRow(String id, JdbcTemplate from, int target) {
+        List<Map<String, Object>> locked = from.queryForList("SELECT * FROM tb_usuario WHERE id = ? FOR UPDATE", id);
+        if (locked.isEmpty()) {
+            return false; // apagado depois de a página ser lida
+        }
+        Map<String, Object> row = locked.get(0);
+        String email = (String) column(row, "email");
+
+        // diretório já no destino: uma execução anterior parou antes de apagar a origem,
+        // e o destino já pode ter recebido escritas
+        boolean alreadyMoved = directory.lookup(email)
+                .filter(entry -> entry.userId().equals(id) && entry.shard() == target)
+                .isPresent();
+        if (!alreadyMoved) {
+            JdbcTemplate to = new JdbcTemplate(shards.get(target));
+            // uma cópia deixada por uma execução interrompida pode estar desatualizada
+            to.update("DELETE FROM tb_usuario WHERE id = ?", id);
+            String columns = String.join(", ", row.keySet());
+            String placeholders = row.keySet().stream().map(c -> "?").collect(Collectors.joining(", "));
+            to.update("INSERT INTO tb_usuario (" + columns + ") VALUES (" + placeholders + ")",
+                    row.values().toArray());
+            directory.move(id, target);
+        }
+
+        from.update("DELETE FROM tb_usuario WHERE id = ?", id);
+        return true;
+    }
+
+    private static Object column(Map<String, Object> row, String name) {
+        // queryForList devolve um mapa case-insensitive, mas nem todo driver preserva a caixa
+        Object value = row.get(name);
+        return value != null ? value : row.get(name.toUpperCase());
+    }
+}
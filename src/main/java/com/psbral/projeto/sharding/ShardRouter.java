@@ -0,0 +1,54 @@
+package com.psbral.projeto.sharding;
+
+/**
+ * Decide o shard de cada usuário a partir do hash do ULID.
+ * <p>
+ * Usa jump consistent hash (Lamping &amp; Veach): ao passar de N para N+1 shards,
+ * só ~1/(N+1) das chaves mudam de lugar, e todas elas vão para o shard novo.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("É necessário pelo menos um shard");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(String id) {
+        return jumpHash(hash(id), shardCount);
+    }
+
+    static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    // FNV-1a 64 seguido do finalizador do MurmurHash3, para espalhar bem os ULIDs
+    // (os 10 primeiros caracteres são timestamp e variam pouco entre si)
+    static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,21 @@
+package com.psbral.projeto.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "warmup")
+public class WarmupEndpoint {
+
+    private final WarmupRunner runner;
+
+    public WarmupEndpoint(WarmupRunner runner) {
+        this.runner = runner;
+    }
+
+    @ReadOperation
+    public WarmupReport report() {
+        return runner.report();
+    }
+}
@@ -0,0 +1,33 @@
+package com.psbral.projeto.warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Resultado do aquecimento, exposto em {@code GET /actuator/warmup}.
+ *
+ * @param status    {@code COMPLETED}, {@code TIMED_OUT}, {@code SKIPPED} ou {@code FAILED}
+ * @param latencies por chamada: latência da primeira execução (fria) e percentis após o aquecimento
+ */
+public record WarmupReport(
+        String status,
+        Instant startedAt,
+        Duration duration,
+        int calls,
+        int failures,
+        int connectionsPrimed,
+        Map<String, Latency> latencies
+) {
+
+    public record Latency(
+            double coldMillis,
+            double p50Millis,
+            double p99Millis,
+            double maxMillis
+    ) { }
+
+    static WarmupReport skipped(String reason) {
+        return new WarmupReport("SKIPPED: " + reason, Instant.now(), Duration.ZERO, 0, 0, 0, Map.of());
+    }
+}
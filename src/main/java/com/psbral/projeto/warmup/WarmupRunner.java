@@ -0,0 +1,284 @@
+package com.psbral.projeto.warmup;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.config.WarmupProperties;
+import com.psbral.projeto.models.User;
+import com.psbral.projeto.repository.UserRepository;
+import com.psbral.projeto.sharding.ShardContext;
+import com.psbral.projeto.sharding.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Aquece a JVM antes de a aplicação aceitar tráfego. Como os {@link ApplicationRunner}s rodam
+ * antes do {@code ApplicationReadyEvent}, a readiness só passa a {@code ACCEPTING_TRAFFIC}
+ * quando este termina.
+ * <p>
+ * Com o servidor já escutando, faz chamadas de leitura via HTTP para a própria porta, passando
+ * por filtros, Jackson, {@code UserController} e {@code UserService}; antes disso abre todas as
+ * conexões do pool. Ao final mede a latência de cada chamada e publica um {@link WarmupReport}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final WarmupProperties properties;
+    private final ApplicationContext context;
+    private final UserRepository repository;
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardRouter> shardRouter;
+    private final Timer durationTimer;
+
+    private volatile WarmupReport report = WarmupReport.skipped("ainda não executado");
+
+    public WarmupRunner(WarmupProperties properties,
+                        ApplicationContext context,
+                        UserRepository repository,
+                        DataSource dataSource,
+                        ObjectProvider<ShardRouter> shardRouter,
+                        MeterRegistry registry) {
+        this.properties = properties;
+        this.context = context;
+        this.repository = repository;
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.durationTimer = Timer.builder("app.warmup.duration")
+                .description("Duração do aquecimento antes da readiness")
+                .register(registry);
+    }
+
+    public WarmupReport report() {
+        return report;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            report = WarmupReport.skipped("desligado (app.warmup.enabled=false)");
+            return;
+        }
+        if (!(context instanceof WebServerApplicationContext web) || web.getWebServer() == null) {
+            report = WarmupReport.skipped("sem servidor web");
+            return;
+        }
+
+        try {
+            report = warmup(web.getWebServer().getPort());
+        } catch (RuntimeException e) {
+            log.warn("Aquecimento interrompido; a aplicação segue para a readiness", e);
+            report = new WarmupReport("FAILED: " + e.getMessage(), Instant.now(), Duration.ZERO, 0, 0, 0, Map.of());
+            return;
+        }
+
+        durationTimer.record(report.duration());
+        log.info("Aquecimento {} em {} ms ({} chamadas, {} falhas, {} conexões). Latência após aquecimento: {}",
+                report.status(), report.duration().toMillis(), report.calls(), report.failures(),
+                report.connectionsPrimed(), summary(report.latencies()));
+    }
+
+    WarmupReport warmup(int port) {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long deadline = start + properties.timeout().toNanos();
+
+        int connections = primePool();
+        Map<String, Runnable> calls = syntheticCalls(RestClient.create("http://localhost:" + port));
+
+        // 1ª execução de cada chamada, ainda fria
+        Map<String, Double> cold = new LinkedHashMap<>();
+        AtomicInteger failures = new AtomicInteger();
+        calls.forEach((name, call) -> cold.put(name, timeMillis(call, failures)));
+
+        int executed = calls.size() + hammer(calls, deadline, failures);
+        boolean timedOut = System.nanoTime() > deadline;
+
+        Map<String, WarmupReport.Latency> latencies = new LinkedHashMap<>();
+        if (!timedOut && properties.measurements() > 0) {
+            calls.forEach((name, call) -> {
+                double[] samples = new double[properties.measurements()];
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = timeMillis(call, failures);
+                }
+                Arrays.sort(samples);
+                latencies.put(name, new WarmupReport.Latency(
+                        cold.get(name), percentile(samples, 0.50), percentile(samples, 0.99), samples[samples.length - 1]));
+            });
+            executed += calls.size() * properties.measurements();
+        }
+
+        return new WarmupReport(timedOut ? "TIMED_OUT" : "COMPLETED", startedAt,
+                Duration.ofNanos(System.nanoTime() - start), executed, failures.get(), connections, latencies);
+    }
+
+    /**
+     * Abre ao mesmo tempo tantas conexões quanto o pool comporta, para o Hikari criá-las agora
+     * e não durante as primeiras requisições.
+     */
+    private int primePool() {
+        int size = poolSize();
+        List<Connection> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < size; i++) {
+                opened.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("Pool aquecido parcialmente ({} de {} conexões)", opened.size(), size, e);
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // devolvida ao pool ou descartada pelo Hikari
+                }
+            }
+        }
+        return opened.size();
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ignored) {
+            // não é Hikari
+        }
+        return properties.concurrency();
+    }
+
+    /**
+     * Leituras sobre uma amostra de usuários reais. O id inexistente cobre o caminho 404, que não
+     * é cacheado e portanto sempre exercita a consulta do {@code findById}.
+     */
+    private Map<String, Runnable> syntheticCalls(RestClient client) {
+        List<User> sample = sample();
+        List<String> ids = sample.stream().map(User::getId).toList();
+        List<String> emails = sample.stream().map(User::getEmail).toList();
+        List<String> prefixes = sample.stream()
+                .map(user -> user.getName().substring(0, Math.min(3, user.getName().length())))
+                .toList();
+        AtomicInteger cursor = new AtomicInteger();
+
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        if (!ids.isEmpty()) {
+            calls.put("GET /users/{id}", () -> get(client, "/users/{id}", pick(ids, cursor)));
+            calls.put("GET /users?ids=", () -> get(client, "/users?ids={ids}", String.join(",", ids)));
+        }
+        calls.put("GET /users/{id} (404)", () -> get(client, "/users/{id}", UlidCreator.getUlid().toString()));
+        calls.put("GET /users/suggest", () -> get(client, "/users/suggest?q={q}",
+                prefixes.isEmpty() ? "a" : pick(prefixes, cursor)));
+        calls.put("GET /users/stats", () -> get(client, "/users/stats"));
+        calls.put("existsByEmail", () -> repository.existsByEmail(
+                emails.isEmpty() ? "warmup@example.com" : pick(emails, cursor)));
+        return calls;
+    }
+
+    // com sharding, a amostra é dividida entre os shards
+    private List<User> sample() {
+        ShardRouter router = shardRouter.getIfAvailable();
+        if (router == null) {
+            return repository.findByIdGreaterThanOrderByIdAsc("", Limit.of(properties.sampleSize()));
+        }
+        int perShard = Math.max(1, properties.sampleSize() / router.shardCount());
+        List<User> sample = new ArrayList<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            sample.addAll(ShardContext.callOn(shard,
+                    () -> repository.findByIdGreaterThanOrderByIdAsc("", Limit.of(perShard))));
+        }
+        return sample;
+    }
+
+    private int hammer(Map<String, Runnable> calls, long deadline, AtomicInteger failures) {
+        ExecutorService pool = Executors.newFixedThreadPool(properties.concurrency());
+        AtomicInteger executed = new AtomicInteger();
+        try {
+            for (int i = 0; i < properties.iterations(); i++) {
+                pool.execute(() -> {
+                    if (System.nanoTime() > deadline) {
+                        return;
+                    }
+                    calls.values().forEach(call -> {
+                        timeMillis(call, failures);
+                        executed.incrementAndGet();
+                    });
+                });
+            }
+            pool.shutdown();
+            long remaining = deadline - System.nanoTime();
+            if (!pool.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        }
+        return executed.get();
+    }
+
+    private static void get(RestClient client, String uri, Object... variables) {
+        int status = client.get().uri(uri, variables).exchange((request, response) -> {
+            response.getBody().readAllBytes();
+            return response.getStatusCode().value();
+        });
+        if (status >= 500) {
+            throw new IllegalStateException(uri + " respondeu " + status);
+        }
+    }
+
+    private static double timeMillis(Runnable call, AtomicInteger failures) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private static <T> T pick(List<T> values, AtomicInteger cursor) {
+        return values.get(Math.floorMod(cursor.getAndIncrement(), values.size()));
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String summary(Map<String, WarmupReport.Latency> latencies) {
+        return latencies.entrySet().stream()
+                .map(e -> String.format("%s p50=%.2fms p99=%.2fms (fria %.2fms)",
+                        e.getKey(), e.getValue().p50Millis(), e.getValue().p99Millis(), e.getValue().coldMillis()))
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,43 @@
+package com.psbral.projeto.web;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Id de correlação por requisição: reaproveita o {@code X-Correlation-Id} recebido (se for
+ * seguro para log) ou gera um ULID. Fica no MDC durante a requisição, saindo em toda linha de
+ * log, e é devolvido no mesmo header.
+ */
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Correlation-Id";
+    public static final String MDC_KEY = "correlationId";
+
+    private static final Pattern SAFE = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String received = request.getHeader(HEADER);
+        String correlationId = received != null && SAFE.matcher(received).matches()
+                ? received
+                : UlidCreator.getUlid().toString();
+
+        MDC.put(MDC_KEY, correlationId);
+        response.setHeader(HEADER, correlationId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
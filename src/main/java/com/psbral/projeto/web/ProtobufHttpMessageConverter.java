@@ -0,0 +1,84 @@
+package com.psbral.projeto.web;
+
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.exceptions.models.ApiError;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Escreve {@code UserDTO.Response}, listas dele e {@code ApiError} em {@code application/x-protobuf}.
+ * Somente escrita: os endpoints continuam recebendo JSON.
+ */
+public class ProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf("application/x-protobuf");
+
+    public ProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UserDTO.Response.class.isAssignableFrom(clazz)
+                || ApiError.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (supports(clazz)) {
+            return true;
+        }
+        ResolvableType resolved = ResolvableType.forType(type != null ? type : clazz);
+        return List.class.isAssignableFrom(resolved.toClass())
+                && UserDTO.Response.class.isAssignableFrom(resolved.getGeneric(0).toClass());
+    }
+
+    // a checagem por classe não enxerga o tipo dos elementos da lista; canWrite(Type, ...) decide
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage output) throws IOException {
+        if (body instanceof UserDTO.Response user) {
+            UserProtobufCodec.writeUser(user, output.getBody());
+        } else if (body instanceof ApiError error) {
+            UserProtobufCodec.writeApiError(error, output.getBody());
+        } else {
+            UserProtobufCodec.writeUserList((List<UserDTO.Response>) body, output.getBody());
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage input) {
+        throw new HttpMessageNotReadableException("application/x-protobuf só é suportado nas respostas", input);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage input) {
+        throw new HttpMessageNotReadableException("application/x-protobuf só é suportado nas respostas", input);
+    }
+}
@@ -0,0 +1,110 @@
+package com.psbral.projeto.web;
+
+import com.github.luben.zstd.Zstd;
+import com.psbral.projeto.config.CompressionProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime as respostas com zstd ou gzip conforme o {@code Accept-Encoding} do cliente,
+ * a partir de {@code app.compression.min-response-size}.
+ * <p>
+ * A resposta é mantida em memória até o fim do processamento para decidir pelo tamanho.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private final CompressionProperties properties;
+    private final List<MediaType> mimeTypes;
+
+    public ResponseCompressionFilter(CompressionProperties properties) {
+        this.properties = properties;
+        this.mimeTypes = properties.mimeTypes().stream().map(MediaType::parseMediaType).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+
+        String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        boolean compressible = isCompressible(wrapper.getContentType());
+        if (compressible) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        if (!compressible
+                || body.length < properties.minResponseSize().toBytes()
+                || response.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] compressed = compress(encoding, body);
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        response.setContentLength(compressed.length);
+        response.getOutputStream().write(compressed);
+    }
+
+    String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Set<String> accepted = new HashSet<>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = tokens.length > 1 && tokens[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            if (!refused) {
+                accepted.add(coding);
+            }
+        }
+        for (String algorithm : properties.algorithms()) {
+            if (accepted.contains(algorithm) || accepted.contains("*")) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType type = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(candidate -> candidate.includes(type));
+    }
+
+    private byte[] compress(String encoding, byte[] body) throws IOException {
+        if ("zstd".equals(encoding)) {
+            return Zstd.compress(body, properties.zstdLevel());
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        }
+        return buffer.toByteArray();
+    }
+}
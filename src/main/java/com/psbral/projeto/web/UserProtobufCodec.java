@@ -0,0 +1,127 @@
+package com.psbral.projeto.web;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.exceptions.models.ApiError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificação protobuf das respostas de {@code /users}, seguindo {@code static/proto/users.proto}.
+ * Escreve direto no {@link CodedOutputStream}, sem classes geradas nem cópias intermediárias.
+ */
+public final class UserProtobufCodec {
+
+    private static final int USER_NAME = 1;
+    private static final int USER_EMAIL = 2;
+    private static final int USER_BIRTH_DATE = 3;
+
+    private static final int LIST_USERS = 1;
+
+    private static final int ERROR_TIMESTAMP = 1;
+    private static final int ERROR_VALUE = 2;
+    private static final int ERROR_MESSAGE = 3;
+    private static final int ERROR_ERROR = 4;
+    private static final int ERROR_PATH = 5;
+
+    private UserProtobufCodec() {
+    }
+
+    public static void writeUser(UserDTO.Response user, OutputStream target) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(target);
+        writeUserFields(user, out);
+        out.flush();
+    }
+
+    public static void writeUserList(List<UserDTO.Response> users, OutputStream target) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(target);
+        for (UserDTO.Response user : users) {
+            out.writeTag(LIST_USERS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(userSize(user));
+            writeUserFields(user, out);
+        }
+        out.flush();
+    }
+
+    public static void writeApiError(ApiError error, OutputStream target) throws IOException {
+        CodedOutputStream out = CodedOutputStream.newInstance(target);
+        if (error.timestamp() != null) {
+            out.writeInt64(ERROR_TIMESTAMP, error.timestamp().toEpochMilli());
+        }
+        if (error.value() != 0) {
+            out.writeInt32(ERROR_VALUE, error.value());
+        }
+        writeString(out, ERROR_MESSAGE, error.message());
+        writeString(out, ERROR_ERROR, error.error());
+        writeString(out, ERROR_PATH, error.path());
+        out.flush();
+    }
+
+    public static List<UserDTO.Response> readUserList(InputStream source) throws IOException {
+        CodedInputStream in = CodedInputStream.newInstance(source);
+        List<UserDTO.Response> users = new ArrayList<>();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == LIST_USERS) {
+                int limit = in.pushLimit(in.readRawVarint32());
+                users.add(readUserFields(in));
+                in.popLimit(limit);
+            } else {
+                in.skipField(tag);
+            }
+        }
+        return users;
+    }
+
+    private static void writeUserFields(UserDTO.Response user, CodedOutputStream out) throws IOException {
+        writeString(out, USER_NAME, user.name());
+        writeString(out, USER_EMAIL, user.email());
+        if (user.birthDate() != null) {
+            out.writeSInt32(USER_BIRTH_DATE, (int) user.birthDate().toEpochDay());
+        }
+    }
+
+    private static int userSize(UserDTO.Response user) {
+        int size = 0;
+        if (user.name() != null && !user.name().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(USER_NAME, user.name());
+        }
+        if (user.email() != null && !user.email().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(USER_EMAIL, user.email());
+        }
+        if (user.birthDate() != null) {
+            size += CodedOutputStream.computeSInt32Size(USER_BIRTH_DATE, (int) user.birthDate().toEpochDay());
+        }
+        return size;
+    }
+
+    private static UserDTO.Response readUserFields(CodedInputStream in) throws IOException {
+        String name = null;
+        String email = null;
+        LocalDate birthDate = null;
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case USER_NAME -> name = in.readStringRequireUtf8();
+                case USER_EMAIL -> email = in.readStringRequireUtf8();
+                case USER_BIRTH_DATE -> birthDate = LocalDate.ofEpochDay(in.readSInt32());
+                default -> in.skipField(tag);
+            }
+        }
+        return new UserDTO.Response(name, email, birthDate);
+    }
+
+    // proto3 não distingue string vazia de ausente
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            out.writeString(field, value);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+ALTER TABLE tb_usuario ADD COLUMN deleted_at TIMESTAMP;
+
+ALTER TABLE tb_usuario DROP CONSTRAINT IF EXISTS tb_usuario_email_key;
+CREATE UNIQUE INDEX uk_usuario_email ON tb_usuario (email) WHERE deleted_at IS NULL;
+
+CREATE INDEX ix_usuario_deleted_at ON tb_usuario (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS tb_email_shard (
+    email VARCHAR(254) PRIMARY KEY,
+    user_id VARCHAR(26) NOT NULL,
+    shard INTEGER NOT NULL
+);
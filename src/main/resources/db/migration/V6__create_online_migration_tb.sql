@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS tb_online_migration (
+    name VARCHAR(100) PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    last_key VARCHAR(64) NOT NULL DEFAULT '',
+    rows_done BIGINT NOT NULL DEFAULT 0,
+    owner VARCHAR(64),
+    heartbeat TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
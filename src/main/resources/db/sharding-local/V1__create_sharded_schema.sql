@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS tb_usuario (
+    id VARCHAR(26) PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    email VARCHAR(254) NOT NULL,
+    birth_date DATE NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_update TIMESTAMP,
+    deleted_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS ix_usuario_email ON tb_usuario (email);
+CREATE INDEX IF NOT EXISTS ix_usuario_deleted_at ON tb_usuario (deleted_at);
+
+CREATE TABLE IF NOT EXISTS tb_email_shard (
+    email VARCHAR(254) PRIMARY KEY,
+    user_id VARCHAR(26) NOT NULL,
+    shard INTEGER NOT NULL
+);
@@ -0,0 +1,126 @@
+package com.psbral.projeto.cache;
+
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duas "réplicas" (cache + barramento) ligadas pelo mesmo transporte local.
+ */
+class CacheInvalidationBusTest {
+
+    private static final String ID = "01H00000000000000000000001";
+
+    private final LocalInvalidationTransport transport = new LocalInvalidationTransport();
+
+    private final ConcurrentMapCacheManager cachesA = new ConcurrentMapCacheManager(ConfigCache.USERS);
+    private final ConcurrentMapCacheManager cachesB = new ConcurrentMapCacheManager(ConfigCache.USERS);
+    private final SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+
+    private CacheInvalidationBus busA;
+
+    @BeforeEach
+    void setUp() {
+        Instant now = Instant.parse("2025-01-01T12:00:00Z");
+        busA = new CacheInvalidationBus(cachesA, transport, new SimpleMeterRegistry(),
+                Clock.fixed(now, ZoneOffset.UTC));
+        new CacheInvalidationBus(cachesB, transport, registryB,
+                Clock.fixed(now.plusMillis(40), ZoneOffset.UTC));
+
+        users(cachesA).put(ID, "cache A");
+        users(cachesB).put(ID, "cache B");
+        users(cachesB).put("outro", "cache B");
+    }
+
+    private static Cache users(ConcurrentMapCacheManager manager) {
+        return manager.getCache(ConfigCache.USERS);
+    }
+
+    private static UserSnapshot snapshot(String name) {
+        return new UserSnapshot(ID, name, "fulano@email.com", LocalDate.of(1990, 1, 1), LocalDateTime.now());
+    }
+
+    @Test
+    void update_shouldEvictEntryOnEveryInstance() {
+        busA.onUserChanged(UserChangedEvent.updated(snapshot("Antes"), snapshot("Depois")));
+
+        assertNull(users(cachesA).get(ID));
+        assertNull(users(cachesB).get(ID));
+        assertNotNull(users(cachesB).get("outro"));
+    }
+
+    @Test
+    void delete_shouldEvictEntryOnEveryInstance() {
+        busA.onUserChanged(UserChangedEvent.deleted(snapshot("Fulano")));
+
+        assertNull(users(cachesA).get(ID));
+        assertNull(users(cachesB).get(ID));
+    }
+
+    @Test
+    void create_shouldNotPublish() {
+        busA.onUserChanged(UserChangedEvent.created(snapshot("Fulano")));
+
+        assertNotNull(users(cachesB).get(ID));
+        assertEquals(0, registryB.get("users.cache.invalidation.received").counter().count());
+    }
+
+    @Test
+    void remoteEviction_shouldRecordLag() {
+        busA.onUserChanged(UserChangedEvent.deleted(snapshot("Fulano")));
+
+        var lag = registryB.get("users.cache.invalidation.lag").timer();
+        assertEquals(1, lag.count());
+        assertEquals(40, lag.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void reset_shouldClearWholeCache() {
+        transport.reset();
+
+        assertNull(users(cachesB).get(ID));
+        assertNull(users(cachesB).get("outro"));
+        assertEquals(1, registryB.get("users.cache.invalidation.resets").counter().count());
+    }
+
+    @Test
+    void publishFailure_shouldStillEvictLocally() {
+        InvalidationTransport broken = new InvalidationTransport() {
+            @Override
+            public void publish(String message) {
+                throw new IllegalStateException("banco fora");
+            }
+
+            @Override
+            public void subscribe(Listener listener) {
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheInvalidationBus bus = new CacheInvalidationBus(cachesA, broken, registry);
+
+        bus.onUserChanged(UserChangedEvent.deleted(snapshot("Fulano")));
+
+        assertNull(users(cachesA).get(ID));
+        assertEquals(1, registry.get("users.cache.invalidation.publish.failures").counter().count());
+    }
+
+    @Test
+    void malformedMessage_shouldBeIgnored() {
+        assertDoesNotThrow(() -> transport.publish("lixo"));
+        assertNotNull(users(cachesB).get(ID));
+    }
+}
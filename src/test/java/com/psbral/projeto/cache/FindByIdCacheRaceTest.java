@@ -0,0 +1,102 @@
+package com.psbral.projeto.cache;
+
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.repository.UserRepository;
+import com.psbral.projeto.services.ServiceRepository;
+import com.psbral.projeto.sharding.EmailDirectory;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+/**
+ * Cache de {@code findById}: ligado só com um transporte de invalidação, e sem a corrida entre uma
+ * leitura que busca o usuário antes do commit de um update e a invalidação que vem depois dele.
+ */
+@SpringBootTest(properties = "app.cache.invalidation.transport=local")
+@ActiveProfiles("sharding-local")
+class FindByIdCacheRaceTest {
+
+    @Autowired
+    private ServiceRepository service;
+
+    @Autowired
+    private EmailDirectory directory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoSpyBean
+    private UserRepository repository;
+
+    private UserDTO.Request buildRequest(String name, String email) {
+        return new UserDTO.Request(null, name, email, LocalDate.of(2000, 1, 1), null, null);
+    }
+
+    @Test
+    void findById_shouldNotCacheAValueReadBeforeAnUpdateThatCommitsDuringTheLoad() throws Exception {
+        service.insert(buildRequest("Antes", "corrida@email.com"));
+        String id = directory.lookup("corrida@email.com").orElseThrow().userId();
+
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        // o spy de um repositório (proxy de interface) delega pela resposta padrão, não por callRealMethod
+        Answer<?> real = mockingDetails(repository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object found = real.answer(invocation);
+            loaded.countDown();
+            proceed.await(10, TimeUnit.SECONDS);
+            return found;
+        }).when(repository).findById(id);
+
+        CompletableFuture<UserDTO.Response> reader = CompletableFuture.supplyAsync(() -> service.findById(id));
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+
+        // o update confirma e invalida enquanto a leitura ainda segura o valor antigo
+        CompletableFuture<UserDTO.Response> writer = CompletableFuture.supplyAsync(
+                () -> service.update(id, buildRequest("Depois", "corrida@email.com")));
+        try {
+            writer.get(500, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a invalidação espera a leitura em andamento terminar
+        }
+        proceed.countDown();
+
+        assertEquals("Antes", reader.get(10, TimeUnit.SECONDS).name());
+        writer.get(10, TimeUnit.SECONDS);
+        assertEquals("Depois", service.findById(id).name());
+    }
+
+    @Test
+    void cache_shouldBeOffWithoutAnInvalidationTransport() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(ConfigCache.class)
+                .run(context -> {
+                    assertInstanceOf(NoOpCacheManager.class, context.getBean(CacheManager.class));
+                    assertNotNull(context.getBean(InvalidationTransport.class));
+                });
+        new ApplicationContextRunner()
+                .withUserConfiguration(ConfigCache.class)
+                .withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class))
+                .withPropertyValues("app.cache.invalidation.transport=local")
+                .run(context -> assertTrue(context.getBeansOfType(NoOpCacheManager.class).isEmpty()));
+    }
+}
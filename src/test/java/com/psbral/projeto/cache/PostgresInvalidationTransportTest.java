@@ -0,0 +1,60 @@
+package com.psbral.projeto.cache;
+
+import com.psbral.projeto.config.CacheInvalidationProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dois transportes (como duas instâncias da aplicação) contra um Postgres local, ex.:
+ * {@code docker compose up -d postgres} e
+ * {@code INVALIDATION_PG_URL=jdbc:postgresql://localhost:5432/usuarios mvn test -Dtest=PostgresInvalidationTransportTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "INVALIDATION_PG_URL", matches = ".+")
+class PostgresInvalidationTransportTest {
+
+    private static final CacheInvalidationProperties PROPERTIES = new CacheInvalidationProperties(
+            CacheInvalidationProperties.Transport.POSTGRES, "user_cache_invalidation_test",
+            Duration.ofMillis(200), Duration.ofMillis(200));
+
+    private static PostgresInvalidationTransport transport() {
+        return new PostgresInvalidationTransport(
+                System.getenv("INVALIDATION_PG_URL"),
+                System.getenv().getOrDefault("INVALIDATION_PG_USER", "setis"),
+                System.getenv().getOrDefault("INVALIDATION_PG_PASSWORD", "setis123"),
+                PROPERTIES);
+    }
+
+    @Test
+    void notice_shouldReachOtherInstance() throws Exception {
+        try (PostgresInvalidationTransport sender = transport();
+             PostgresInvalidationTransport receiver = transport()) {
+
+            BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+            CountDownLatch listening = new CountDownLatch(1);
+            receiver.subscribe(new InvalidationTransport.Listener() {
+                @Override
+                public void onMessage(String message) {
+                    messages.add(message);
+                }
+
+                @Override
+                public void onReset() {
+                    listening.countDown();
+                }
+            });
+            assertTrue(listening.await(10, TimeUnit.SECONDS));
+
+            sender.publish("origem;0;01H00000000000000000000001");
+
+            assertEquals("origem;0;01H00000000000000000000001", messages.poll(10, TimeUnit.SECONDS));
+        }
+    }
+}
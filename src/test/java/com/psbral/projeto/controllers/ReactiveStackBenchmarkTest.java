@@ -0,0 +1,236 @@
+package com.psbral.projeto.controllers;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.SetisAvaliacaoTecnicaApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pilha servlet (Tomcat + JPA) contra a reativa (Netty + R2DBC, perfil {@code reactive}) sobre o
+ * mesmo H2 e os mesmos pools (10 conexões):
+ * <ul>
+ *     <li>memória e threads por conexão concorrente, com {@code GET /users} aberto em clientes que
+ *     param de ler a resposta;</li>
+ *     <li>latência de cauda de {@code GET /users/{id}} com N clientes em laço fechado (cache desligado).</li>
+ * </ul>
+ * Cliente e servidor dividem a JVM: os números servem para comparar as pilhas entre si.
+ * Rodar com {@code mvn test -Pbenchmark -Dtest=ReactiveStackBenchmarkTest}.
+ */
+@Tag("benchmark")
+class ReactiveStackBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveStackBenchmarkTest.class);
+
+    private static final int ROWS = 5_000;
+    private static final int[] CONNECTIONS = {50, 200};
+    private static final int[] CLIENTS = {16, 128};
+    private static final Duration STALL = Duration.ofSeconds(5);
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASURE = Duration.ofSeconds(10);
+
+    // como argumentos: SpringApplicationBuilder.properties() só define padrões, e o application.properties venceria
+    private static final String[] ARGS = {
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.hikari.maximum-pool-size=10",
+            "--spring.flyway.locations=classpath:db/sharding-local",
+            "--spring.r2dbc.url=r2dbc:h2:mem:///benchmark?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+            "--spring.r2dbc.username=sa",
+            "--spring.r2dbc.password=",
+            "--spring.r2dbc.pool.initial-size=10",
+            "--spring.r2dbc.pool.max-size=10",
+            "--spring.r2dbc.pool.max-acquire-time=60s",
+            "--spring.cache.type=none",
+            "--app.warmup.enabled=false",
+            "--app.jfr.enabled=false",
+            "--app.timing.enabled=false",
+            "--app.deadline.enabled=false",
+            "--app.resilience.database.enabled=false"
+    };
+
+    private record Footprint(int started, long heapBytes, long directBytes, int threads) { }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+
+    private final ExecutorService readers = Executors.newCachedThreadPool();
+
+    @Test
+    void compareMemoryPerConnectionAndTailLatency() throws Exception {
+        List<String> ids = null;
+        for (String stack : List.of("servlet", "reactive")) {
+            SpringApplicationBuilder builder = new SpringApplicationBuilder(SetisAvaliacaoTecnicaApplication.class);
+            if ("reactive".equals(stack)) {
+                builder.profiles("reactive");
+            }
+            try (ConfigurableApplicationContext app = builder.run(ARGS)) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                if (ids == null) {
+                    ids = seed(new JdbcTemplate(app.getBean(DataSource.class)));
+                }
+
+                log.info("--- {} ---", stack);
+                log.info(String.format("%-8s %9s %12s %12s %14s %8s", "conexões", "iniciadas",
+                        "heap/conexão", "direta/con.", "threads/con.", "dreno (s)"));
+                for (int connections : CONNECTIONS) {
+                    memory(port, connections);
+                }
+
+                log.info(String.format("%-8s %10s %9s %9s %10s %9s", "clientes", "req/s",
+                        "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "máx (ms)"));
+                for (int clients : CLIENTS) {
+                    latency(port, ids, clients);
+                }
+            }
+        }
+        readers.shutdownNow();
+    }
+
+    private static List<String> seed(JdbcTemplate jdbc) {
+        List<String> ids = new ArrayList<>(ROWS);
+        List<Object[]> batch = new ArrayList<>(ROWS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            String id = UlidCreator.getMonotonicUlid().toString();
+            ids.add(id);
+            batch.add(new Object[]{id, "Usuario Numero " + i, "usuario" + i + "@example.com",
+                    LocalDate.of(1960 + i % 50, 1 + i % 12, 1 + i % 28), now, now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO tb_usuario (id, name, email, birth_date, created_at, last_update, updated_at)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+        return ids;
+    }
+
+    // abre N listagens e não lê o corpo: o servidor fica parado na escrita de cada uma
+    private void memory(int port, int connections) throws Exception {
+        Footprint before = footprint(0);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users")).build();
+        List<CompletableFuture<HttpResponse<InputStream>>> responses = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            responses.add(http.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+        }
+        Thread.sleep(STALL.toMillis());
+        int started = (int) responses.stream().filter(CompletableFuture::isDone).count();
+        Footprint stalled = footprint(started);
+
+        long drainStart = System.nanoTime();
+        List<CompletableFuture<Integer>> drained = responses.stream()
+                .map(response -> response.thenApplyAsync(ReactiveStackBenchmarkTest::drain, readers))
+                .toList();
+        CompletableFuture.allOf(drained.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        double drainSeconds = (System.nanoTime() - drainStart) / 1e9;
+
+        log.info(String.format("%-8d %9d %9.1f KB %9.1f KB %14.2f %8.1f", connections, stalled.started(),
+                (stalled.heapBytes() - before.heapBytes()) / 1024.0 / connections,
+                (stalled.directBytes() - before.directBytes()) / 1024.0 / connections,
+                (double) (stalled.threads() - before.threads()) / connections,
+                drainSeconds));
+        for (CompletableFuture<Integer> status : drained) {
+            assertEquals(200, status.join());
+        }
+    }
+
+    private static int drain(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response.statusCode();
+    }
+
+    private static Footprint footprint(int started) {
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+        return new Footprint(started, heap, direct, ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    // N clientes em laço fechado: cada um só manda a próxima requisição depois da resposta da anterior
+    private void latency(int port, List<String> ids, int clients) throws Exception {
+        run(port, ids, clients, WARMUP, new ConcurrentLinkedQueue<>());
+
+        ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+        int failures = run(port, ids, clients, MEASURE, samples);
+
+        long[] nanos = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+        log.info(String.format("%-8d %10.0f %9.2f %9.2f %10.2f %9.2f", clients,
+                nanos.length / (double) MEASURE.toSeconds(),
+                percentile(nanos, 0.50), percentile(nanos, 0.99), percentile(nanos, 0.999),
+                nanos[nanos.length - 1] / 1e6));
+        assertEquals(0, failures);
+    }
+
+    private int run(int port, List<String> ids, int clients, Duration duration,
+                    ConcurrentLinkedQueue<Long> samples) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger failures = new AtomicInteger();
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            loops[i] = loop(port, ids, deadline, samples, failures);
+        }
+        CompletableFuture.allOf(loops).get(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        return failures.get();
+    }
+
+    private CompletableFuture<Void> loop(int port, List<String> ids, long deadline,
+                                         ConcurrentLinkedQueue<Long> samples, AtomicInteger failures) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/" + id)).build();
+        long start = System.nanoTime();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenCompose(response -> {
+                    samples.add(System.nanoTime() - start);
+                    if (response.statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    return loop(port, ids, deadline, samples, failures);
+                });
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -1,8 +1,15 @@
 package com.psbral.projeto.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.resilience.DatabaseUnavailableException;
+import com.psbral.projeto.resilience.DeadlineExceededException;
 import com.psbral.projeto.services.ServiceRepository;
+import com.psbral.projeto.services.UserStatsService;
+import com.psbral.projeto.services.UserSuggestService;
+import com.psbral.projeto.web.UserProtobufCodec;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +18,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -32,6 +45,12 @@ class UserControllerTest {
     @MockitoBean
     private ServiceRepository service;
 
+    @MockitoBean
+    private UserStatsService statsService;
+
+    @MockitoBean
+    private UserSuggestService suggestService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -155,6 +174,141 @@ class UserControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    // GET /users - negociação de formatos binários
+    @Test
+    void findAll_shouldReturnCbor_whenAcceptIsCbor() throws Exception {
+        List<UserDTO.Response> list = List.of(
+                buildResponse("Fulano", "f1@email.com"),
+                buildResponse("Ciclano", "f2@email.com")
+        );
+        when(service.findAll()).thenReturn(list);
+
+        byte[] body = mockMvc.perform(get("/users").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // sem módulos no leitor: a data tem de vir como texto ISO, igual ao JSON
+        JsonNode decoded = new CBORMapper().readTree(body);
+        assertEquals(2, decoded.size());
+        assertEquals("Fulano", decoded.get(0).get("name").asText());
+        assertTrue(decoded.get(0).get("birthDate").isTextual());
+        assertEquals("2000-01-01", decoded.get(0).get("birthDate").asText());
+    }
+
+    @Test
+    void findAll_shouldReturnProtobuf_whenAcceptIsProtobuf() throws Exception {
+        List<UserDTO.Response> list = List.of(
+                buildResponse("Fulano", "f1@email.com"),
+                new UserDTO.Response("Antigo", "f3@email.com", LocalDate.of(1950, 6, 15))
+        );
+        when(service.findAll()).thenReturn(list);
+
+        byte[] body = mockMvc.perform(get("/users").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(list, UserProtobufCodec.readUserList(new ByteArrayInputStream(body)));
+    }
+
+    @Test
+    void findById_shouldReturnSmileApiError_whenNotFoundAndAcceptIsSmile() throws Exception {
+        String id = "01H00000000000000000000001";
+        when(service.findById(id)).thenThrow(new EntityNotFoundException("Usuário não encontrado - id: " + id));
+
+        mockMvc.perform(get("/users/{id}", id).accept("application/x-jackson-smile"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+    }
+
+    // GET /users?ids= e POST /users/lookup - FIND MANY BY ID
+    @Test
+    void findAllById_shouldReturnFoundAndMissing_whenIdsQueryParam() throws Exception {
+        Map<String, UserDTO.Response> found = new LinkedHashMap<>();
+        found.put("01H00000000000000000000002", buildResponse("Ciclano", "f2@email.com"));
+        found.put("01H00000000000000000000001", buildResponse("Fulano", "f1@email.com"));
+
+        when(service.findAllById(List.of("01H00000000000000000000002", "01H00000000000000000000009",
+                "01H00000000000000000000001")))
+                .thenReturn(new UserDTO.BatchResponse(found, List.of("01H00000000000000000000009")));
+
+        mockMvc.perform(get("/users")
+                        .param("ids", "01H00000000000000000000002,01H00000000000000000000009,01H00000000000000000000001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users['01H00000000000000000000002'].name").value("Ciclano"))
+                .andExpect(jsonPath("$.users['01H00000000000000000000001'].name").value("Fulano"))
+                .andExpect(jsonPath("$.missing[0]").value("01H00000000000000000000009"));
+    }
+
+    @Test
+    void lookup_shouldReturnBatch_whenIdsInBody() throws Exception {
+        when(service.findAllById(List.of("01H00000000000000000000001")))
+                .thenReturn(new UserDTO.BatchResponse(Map.of(), List.of("01H00000000000000000000001")));
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"01H00000000000000000000001\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing[0]").value("01H00000000000000000000001"));
+    }
+
+    @Test
+    void lookup_shouldReturnBadRequest_whenBatchTooLarge() throws Exception {
+        when(service.findAllById(any()))
+                .thenThrow(new IllegalArgumentException("Máximo de 500 ids por requisição: 501"));
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"a\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Bad Request"));
+    }
+
+    @Test
+    void lookup_shouldReturnBadRequest_whenIdsEmpty() throws Exception {
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation error"));
+    }
+
+    // GET /users/stats
+    @Test
+    void stats_shouldReturnAggregates() throws Exception {
+        Map<LocalDate, Long> signups = new LinkedHashMap<>();
+        signups.put(LocalDate.of(2025, 1, 1), 3L);
+        when(statsService.stats(7)).thenReturn(new UserDTO.Stats(
+                42, signups, List.of(new UserDTO.AgeBucket("18-24", 10)), null));
+
+        mockMvc.perform(get("/users/stats").param("days", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(42))
+                .andExpect(jsonPath("$.signupsPerDay['2025-01-01']").value(3))
+                .andExpect(jsonPath("$.ageDistribution[0].range").value("18-24"));
+    }
+
+    @Test
+    void stats_shouldReturnBadRequest_whenWindowInvalid() throws Exception {
+        when(statsService.stats(0)).thenThrow(new IllegalArgumentException("days deve estar entre 1 e 366: 0"));
+
+        mockMvc.perform(get("/users/stats").param("days", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // GET /users/suggest
+    @Test
+    void suggest_shouldReturnMatches() throws Exception {
+        when(suggestService.suggest("ful", null)).thenReturn(List.of(
+                new UserDTO.Suggestion("01H00000000000000000000001", "Fulano", "fulano@email.com", 1.0)));
+
+        mockMvc.perform(get("/users/suggest").param("q", "ful"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("01H00000000000000000000001"))
+                .andExpect(jsonPath("$[0].name").value("Fulano"));
+    }
+
     // GET /users/{id} - FIND BY ID
     @Test
     void findById_shouldReturnOk_whenUserExists() throws Exception {
@@ -284,6 +438,67 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.path").value("/users/" + id));
     }
 
+    // PUT /users/by-email/{email} - UPSERT
+    @Test
+    void upsert_shouldReturnCreated_whenRowWasInserted() throws Exception {
+        UserDTO.UpsertResponse created = new UserDTO.UpsertResponse("01H00000000000000000000001",
+                UserDTO.UpsertStatus.CREATED, buildResponse("Fulano", "fulano@email.com"));
+        when(service.upsert(eq("fulano@email.com"), any(UserDTO.Request.class))).thenReturn(created);
+
+        mockMvc.perform(put("/users/by-email/{email}", "fulano@email.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRequest(null, "Fulano", "fulano@email.com"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("01H00000000000000000000001"))
+                .andExpect(jsonPath("$.status").value("CREATED"))
+                .andExpect(jsonPath("$.user.email").value("fulano@email.com"));
+    }
+
+    @Test
+    void upsert_shouldReturnOk_whenNothingChanged() throws Exception {
+        UserDTO.UpsertResponse unchanged = new UserDTO.UpsertResponse("01H00000000000000000000001",
+                UserDTO.UpsertStatus.UNCHANGED, buildResponse("Fulano", "fulano@email.com"));
+        when(service.upsert(eq("fulano@email.com"), any(UserDTO.Request.class))).thenReturn(unchanged);
+
+        mockMvc.perform(put("/users/by-email/{email}", "fulano@email.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(buildRequest(null, "Fulano", "fulano@email.com"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UNCHANGED"));
+    }
+
+    @Test
+    void upsertAll_shouldReturnStatusPerUser() throws Exception {
+        when(service.upsertAll(any())).thenReturn(List.of(
+                new UserDTO.UpsertResponse("01H00000000000000000000001",
+                        UserDTO.UpsertStatus.UPDATED, buildResponse("Fulano", "f1@email.com")),
+                new UserDTO.UpsertResponse("01H00000000000000000000002",
+                        UserDTO.UpsertStatus.CREATED, buildResponse("Ciclano", "f2@email.com"))));
+
+        String body = objectMapper.writeValueAsString(new UserDTO.UpsertBatchRequest(List.of(
+                buildRequest(null, "Fulano", "f1@email.com"),
+                buildRequest(null, "Ciclano", "f2@email.com"))));
+
+        mockMvc.perform(put("/users/by-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"));
+    }
+
+    @Test
+    void upsertAll_shouldReturnBadRequest_whenAnyUserIsInvalid() throws Exception {
+        String body = """
+                {"users": [{"name": "Fulano", "email": "invalido", "birthDate": "2000-01-01"}]}
+                """;
+
+        mockMvc.perform(put("/users/by-email")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
     // DELETE /users/{id} - DELETE
     @Test
     void delete_shouldReturnOk_whenUserExists() throws Exception {
@@ -325,4 +540,35 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.error").value("Internal Server Error"))
                 .andExpect(jsonPath("$.path").value("/users/" + id));
     }
+
+    @Test
+    void delete_shouldReturnServiceUnavailable_whenDatabaseIsUnavailable() throws Exception {
+        String id = "01H00000000000000000000001";
+
+        doThrow(new DatabaseUnavailableException("Banco de dados indisponível (circuito aberto)",
+                Duration.ofMillis(7_200), null))
+                .when(service).delete(id);
+
+        mockMvc.perform(delete("/users/{id}", id))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "8"))
+                .andExpect(jsonPath("$.value").value(503))
+                .andExpect(jsonPath("$.message").value("Banco de dados indisponível (circuito aberto); tente novamente em 8 s"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
+    @Test
+    void findById_shouldReturnGatewayTimeout_whenDeadlineIsExceeded() throws Exception {
+        String id = "01H00000000000000000000001";
+
+        when(service.findById(id)).thenThrow(
+                new DeadlineExceededException("sql", Duration.ofMillis(2_000), null));
+
+        mockMvc.perform(get("/users/{id}", id))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.value").value(504))
+                .andExpect(jsonPath("$.message").value("Prazo da requisição (2000 ms) esgotado em sql"))
+                .andExpect(jsonPath("$.error").value("Gateway Timeout"))
+                .andExpect(jsonPath("$.path").value("/users/" + id));
+    }
 }
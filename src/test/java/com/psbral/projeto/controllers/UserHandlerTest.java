@@ -0,0 +1,198 @@
+package com.psbral.projeto.controllers;
+
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.UserStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pilha reativa de ponta a ponta: WebFlux + R2DBC num H2 em memória, que o JPA e o Flyway
+ * enxergam pelo JDBC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.locations=classpath:db/sharding-local",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "app.warmup.enabled=false"
+})
+@ActiveProfiles("reactive")
+class UserHandlerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient database;
+
+    @Autowired
+    private UserStatsService stats;
+
+    @BeforeEach
+    void cleanTable() {
+        database.sql("DELETE FROM tb_usuario").then().block();
+    }
+
+    private static UserDTO.Request request(String name, String email) {
+        return new UserDTO.Request(null, name, email, LocalDate.of(1990, 5, 20), null, null);
+    }
+
+    private UserDTO.UpsertResponse upsert(UserDTO.Request dto, int status) {
+        return client.put().uri("/users/by-email/{email}", dto.email())
+                .bodyValue(dto)
+                .exchange()
+                .expectStatus().isEqualTo(status)
+                .expectBody(UserDTO.UpsertResponse.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void insert_shouldCreateUser_andRejectDuplicateEmail() {
+        long before = stats.stats(30).total();
+
+        client.post().uri("/users")
+                .bodyValue(request("Maria Silva", "maria@example.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Maria Silva")
+                .jsonPath("$.birthDate").isEqualTo("1990-05-20");
+
+        client.post().uri("/users")
+                .bodyValue(request("Maria Souza", "maria@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.value").isEqualTo(400)
+                .jsonPath("$.message").isEqualTo("E-mail já cadastrado: maria@example.com")
+                .jsonPath("$.path").isEqualTo("/users");
+
+        // evento entregue depois do commit da transação reativa
+        assertEquals(before + 1, stats.stats(30).total());
+    }
+
+    @Test
+    void insert_shouldReturnValidationError() {
+        client.post().uri("/users")
+                .bodyValue(request("Ana", "ana@example.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation error")
+                .jsonPath("$.message").isEqualTo("name: O nome deve ter entre 4 e 50 caracteres");
+    }
+
+    @Test
+    void findAll_shouldStreamUsers_asJsonArrayOrNdjson() {
+        for (int i = 0; i < 5; i++) {
+            upsert(request("Usuario " + i, "usuario" + i + "@example.com"), 201);
+        }
+
+        client.get().uri("/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDTO.Response.class).hasSize(5);
+
+        List<UserDTO.Response> streamed = client.get().uri("/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UserDTO.Response.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(5, streamed.size());
+    }
+
+    @Test
+    void findById_shouldReturnNotFound_andBatchShouldReportMissing() {
+        String id = upsert(request("Joao Pereira", "joao@example.com"), 201).id();
+
+        client.get().uri("/users/{id}", "01H00000000000000000000000")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Usuário não encontrado - id: 01H00000000000000000000000")
+                .jsonPath("$.error").isEqualTo("Not Found");
+
+        UserDTO.BatchResponse batch = client.get().uri("/users?ids={a},{b}", "01H00000000000000000000000", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserDTO.BatchResponse.class)
+                .returnResult().getResponseBody();
+        assertEquals(List.of(id), List.copyOf(batch.users().keySet()));
+        assertEquals(List.of("01H00000000000000000000000"), batch.missing());
+    }
+
+    @Test
+    void updateAndDelete_shouldChangeThenRemoveUser() {
+        String id = upsert(request("Joao Pereira", "joao@example.com"), 201).id();
+
+        client.put().uri("/users/{id}", id)
+                .bodyValue(request("Joao P. Santos", "joao.santos@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("joao.santos@example.com");
+
+        client.delete().uri("/users/{id}", id).exchange().expectStatus().isOk();
+
+        client.get().uri("/users/{id}", id).exchange().expectStatus().isNotFound();
+        client.delete().uri("/users/{id}", id).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void upsert_shouldCreateThenSkipUnchangedThenUpdate() {
+        UserDTO.UpsertResponse created = upsert(request("Carla Dias", "carla@example.com"), 201);
+        assertEquals(UserDTO.UpsertStatus.CREATED, created.status());
+
+        UserDTO.UpsertResponse unchanged = upsert(request("Carla Dias", "carla@example.com"), 200);
+        assertEquals(UserDTO.UpsertStatus.UNCHANGED, unchanged.status());
+        assertEquals(created.id(), unchanged.id());
+
+        UserDTO.UpsertResponse updated = upsert(request("Carla Dias Lima", "carla@example.com"), 200);
+        assertEquals(UserDTO.UpsertStatus.UPDATED, updated.status());
+        assertEquals("Carla Dias Lima", updated.user().name());
+    }
+
+    @Test
+    void upsertAll_shouldKeepOrder_andRejectRepeatedEmail() {
+        upsert(request("Carla Dias", "carla@example.com"), 201);
+
+        List<UserDTO.UpsertResponse> results = client.put().uri("/users/by-email")
+                .bodyValue(new UserDTO.UpsertBatchRequest(List.of(
+                        request("Bruno Alves", "bruno@example.com"),
+                        request("Carla Dias", "carla@example.com"))))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDTO.UpsertResponse.class)
+                .returnResult().getResponseBody();
+        assertEquals(List.of(UserDTO.UpsertStatus.CREATED, UserDTO.UpsertStatus.UNCHANGED),
+                results.stream().map(UserDTO.UpsertResponse::status).toList());
+
+        client.put().uri("/users/by-email")
+                .bodyValue(Map.of("users", List.of(
+                        request("Bruno Alves", "bruno@example.com"),
+                        request("Bruno Costa", "bruno@example.com"))))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("E-mail repetido no lote: bruno@example.com");
+    }
+}
@@ -0,0 +1,96 @@
+package com.psbral.projeto.diagnostics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.psbral.projeto.config.SqlLoggingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedDataSourceTest {
+
+    private final DriverManagerDataSource h2 =
+            new DriverManagerDataSource("jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final ListAppender<ILoggingEvent> sampledLog = new ListAppender<>();
+
+    @BeforeEach
+    void attachAppender() {
+        sampledLog.start();
+        ((Logger) LoggerFactory.getLogger("sql.sampled")).addAppender(sampledLog);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        ((Logger) LoggerFactory.getLogger("sql.sampled")).detachAppender(sampledLog);
+        RequestTiming.clear();
+    }
+
+    private static Map<String, Object> keyValues(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream().collect(Collectors.toMap(kv -> kv.key, kv -> kv.value));
+    }
+
+    private void query(InstrumentedDataSource dataSource) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT CAST(? AS INT) + CAST(? AS INT)")) {
+            statement.setInt(1, 2);
+            statement.setInt(2, 3);
+            statement.setFetchSize(10);
+            try (ResultSet result = statement.executeQuery()) {
+                assertTrue(result.next());
+                assertEquals(5, result.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void sampledConnection_shouldLogStatementBindsAndDuration() throws Exception {
+        query(new InstrumentedDataSource(h2,
+                new SqlStatementLog(new SqlLoggingProperties(Duration.ofMillis(200), 1.0))));
+
+        assertEquals(1, sampledLog.list.size());
+        Map<String, Object> fields = keyValues(sampledLog.list.get(0));
+        assertEquals(2, fields.get("binds"));
+        assertEquals("SELECT CAST(? AS INT) + CAST(? AS INT)", fields.get("statement"));
+        assertTrue((Double) fields.get("durationMs") > 0);
+    }
+
+    @Test
+    void connection_shouldNotBeProxied_whenNotSampledNorTimed() throws Exception {
+        // padrões de produção: o limite de consulta lenta fica com o Hibernate e não exige proxy
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(h2,
+                new SqlStatementLog(new SqlLoggingProperties(Duration.ofMillis(200), 0)));
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(Proxy.isProxyClass(connection.getClass()));
+        }
+        query(dataSource);
+        assertTrue(sampledLog.list.isEmpty());
+    }
+
+    @Test
+    void timedRequest_shouldRecordSqlPhase_withoutLoggingStatements() throws Exception {
+        RequestTiming timing = RequestTiming.begin(false, 0);
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(h2,
+                new SqlStatementLog(new SqlLoggingProperties(Duration.ofMillis(200), 0)));
+
+        query(dataSource);
+
+        assertEquals(1, timing.count(RequestTiming.Phase.SQL));
+        assertTrue(sampledLog.list.isEmpty());
+    }
+}
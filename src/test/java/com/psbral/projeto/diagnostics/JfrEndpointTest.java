@@ -0,0 +1,165 @@
+package com.psbral.projeto.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.jfr.top=5",
+        "management.endpoints.web.exposure.include=jfr"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("sharding-local")
+class JfrEndpointTest {
+
+    private static final Object LOCK = new Object();
+
+    // mantém as alocações vivas até o fim do método, para o JIT não eliminá-las
+    private static volatile List<byte[]> retained;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ContinuousRecording recording;
+
+    @Test
+    void summary_shouldReportAllocationsGcContentionAndSlowCalls() throws Exception {
+        Instant testStart = Instant.now();
+        allocate();
+        contend();
+        System.gc();
+        slowServiceCall();
+
+        // janela só com o teste: as pausas de GC da subida do contexto ficam de fora
+        Duration window = Duration.between(testStart, Instant.now()).plusMillis(50);
+        mockMvc.perform(get("/actuator/jfr").param("window", window.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events", greaterThan(0)))
+                .andExpect(jsonPath("$.allocationSites", not(empty())))
+                .andExpect(jsonPath("$.allocationSites.length()", lessThanOrEqualTo(5)))
+                .andExpect(jsonPath("$.allocationSites[*].site",
+                        hasItem(startsWith(JfrEndpointTest.class.getName() + ".allocate:"))))
+                .andExpect(jsonPath("$.gcPauses.collections", greaterThan(0)))
+                // as coletas jovens do allocate() também caem na janela e podem durar mais que o System.gc()
+                .andExpect(jsonPath("$.gcPauses.longest[*].cause", hasItem("System.gc()")))
+                .andExpect(jsonPath("$.lockContention[*].lock", hasItem(Object.class.getName())))
+                .andExpect(jsonPath("$.slowestCalls[0].operation").value("jfr-test"))
+                .andExpect(jsonPath("$.slowestCalls[0].outcome").value("ok"))
+                .andExpect(jsonPath("$.slowestCalls[0].millis", greaterThanOrEqualTo(20.0)));
+    }
+
+    @Test
+    void summary_shouldOnlyIncludeTheRequestedWindow() throws Exception {
+        slowServiceCall();
+        Thread.sleep(1_200);
+
+        mockMvc.perform(get("/actuator/jfr").param("window", "PT1S"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slowestCalls[*].operation", not(hasItem("jfr-test"))));
+    }
+
+    @Test
+    void summary_shouldClampWindowToMaxAge_andRejectNonPositive() throws Exception {
+        mockMvc.perform(get("/actuator/jfr").param("window", "PT10H"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/jfr").param("window", "-PT1M"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"window\": \"PT0S\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void dump_shouldReturnARecordingFile() throws Exception {
+        slowServiceCall();
+
+        MvcResult result = mockMvc.perform(post("/actuator/jfr")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"window\": \"PT1M\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn();
+
+        Path file = Files.createTempFile("jfr-test-", ".jfr");
+        try {
+            Files.write(file, result.getResponse().getContentAsByteArray());
+            JfrSummary summary = JfrSummarizer.summarize(file, Instant.EPOCH, 5);
+            assertTrue(summary.slowestCalls().stream().anyMatch(call -> call.operation().equals("jfr-test")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void status_shouldReportARunningRecording() {
+        ContinuousRecording.Status status = recording.status();
+
+        assertEquals("RUNNING", status.state());
+        assertEquals(Duration.ofMinutes(30), status.maxAge());
+    }
+
+    private static void allocate() {
+        List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            chunks.add(new byte[16 * 1024]);
+            if (chunks.size() > 100) {
+                chunks.clear();
+            }
+        }
+        retained = chunks;
+    }
+
+    /**
+     * Duas threads disputando o mesmo monitor por mais que o threshold de 20 ms do {@code default}.
+     */
+    private static void contend() throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        Thread owner = new Thread(() -> {
+            synchronized (LOCK) {
+                held.countDown();
+                sleep(100);
+            }
+        });
+        owner.start();
+        held.await();
+        synchronized (LOCK) {
+            assertNotNull(LOCK);
+        }
+        owner.join();
+    }
+
+    private static void slowServiceCall() {
+        ServiceCallEvent event = ServiceCallEvent.begin("jfr-test");
+        sleep(25);
+        event.end("ok");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.psbral.projeto.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.timing.server-timing=on-request",
+        "app.timing.sample-rate=1.0",
+        "app.timing.capacity=5"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("sharding-local")
+class RequestTimingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TraceStore traces;
+
+    private static final String BODY = """
+            {"name": "Cronometrado", "email": "%s", "birthDate": "1990-01-01"}
+            """;
+
+    @Test
+    void insert_shouldReportEveryPhaseInServerTiming() throws Exception {
+        mockMvc.perform(post("/users")
+                        .header(RequestTimingFilter.OPT_IN_HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY.formatted("timing1@email.com")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.email").value("timing1@email.com"))
+                .andExpect(header().string("Server-Timing", allOf(
+                        containsString("validation;dur="),
+                        containsString("pool;dur="),
+                        containsString("sql;dur="),
+                        containsString("commit;dur="),
+                        containsString("mapping;dur="),
+                        containsString("serialization;dur="),
+                        containsString("total;dur="))));
+    }
+
+    @Test
+    void serverTiming_shouldBeOptIn() throws Exception {
+        mockMvc.perform(get("/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Server-Timing"))
+                .andExpect(header().exists(RequestTimingFilter.TRACE_ID_HEADER));
+    }
+
+    @Test
+    void sampledRequest_shouldBeAvailableFromEndpoint() throws Exception {
+        MvcResult result = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY.formatted("timing2@email.com")))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String traceId = result.getResponse().getHeader(RequestTimingFilter.TRACE_ID_HEADER);
+
+        RequestTrace trace = traces.find(traceId).orElseThrow();
+        assertEquals("POST", trace.method());
+        assertEquals(201, trace.status());
+        assertTrue(trace.phases().containsKey("sql"));
+        assertTrue(trace.spans().stream()
+                .anyMatch(span -> span.phase().equals("sql") && span.detail().toLowerCase().contains("insert")));
+
+        mockMvc.perform(get("/actuator/timings/{id}", traceId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.path").value("/users"))
+                .andExpect(jsonPath("$.spans").isNotEmpty());
+    }
+
+    @Test
+    void traceStore_shouldKeepOnlyMostRecent() {
+        TraceStore store = new TraceStore(2);
+        for (String id : List.of("a", "b", "c")) {
+            store.add(new RequestTrace(id, Instant.now(), "GET", "/users", 200, 1.0, Map.of(), List.of(), 0));
+        }
+
+        assertEquals(List.of("c", "b"), store.recent().stream().map(RequestTrace::id).toList());
+        assertTrue(store.find("a").isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package com.psbral.projeto.migrations;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.config.OnlineMigrationProperties;
+import com.psbral.projeto.sharding.ShardDataSources;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vazão de escritas em {@code tb_usuario} com e sem o backfill da V7 rodando ao lado, e vazão do
+ * próprio backfill. Rodar com {@code mvn test -Pbenchmark -Dtest=OnlineMigrationBenchmarkTest}.
+ */
+@Tag("benchmark")
+class OnlineMigrationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OnlineMigrationBenchmarkTest.class);
+
+    private static final int ROWS = 200_000;
+    private static final int WRITERS = 4;
+    private static final Duration BASELINE = Duration.ofSeconds(5);
+
+    private final HikariDataSource dataSource = new HikariDataSource();
+    private final ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+
+    @AfterEach
+    void close() {
+        pool.shutdownNow();
+        dataSource.close();
+    }
+
+    private List<String> seed(JdbcTemplate jdbc) {
+        List<String> ids = new ArrayList<>(ROWS);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            String id = UlidCreator.getMonotonicUlid().toString();
+            ids.add(id);
+            batch.add(new Object[]{id, "Usuario " + i, "usuario" + i + "@example.com",
+                    LocalDate.of(1990, 1, 1), LocalDateTime.now(), LocalDateTime.now()});
+            if (batch.size() == 5_000) {
+                jdbc.batchUpdate("INSERT INTO tb_usuario (id, name, email, birth_date, created_at, updated_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Atualizações por id, como o {@code PUT /users/{id}} com dual write, até {@code stop} virar true.
+     */
+    private long writes(JdbcTemplate jdbc, List<String> ids, AtomicBoolean stop) {
+        AtomicLong done = new AtomicLong();
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(CompletableFuture.runAsync(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!stop.get()) {
+                    LocalDateTime now = LocalDateTime.now();
+                    jdbc.update("UPDATE tb_usuario SET name = ?, last_update = ?, updated_at = ? WHERE id = ?",
+                            "Renomeado " + random.nextInt(), now, now, ids.get(random.nextInt(ids.size())));
+                    done.incrementAndGet();
+                }
+            }, pool));
+        }
+        writers.forEach(CompletableFuture::join);
+        return done.get();
+    }
+
+    @Test
+    void writeThroughputWhileBackfillRuns() throws Exception {
+        dataSource.setJdbcUrl("jdbc:h2:mem:online-bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(WRITERS + 2);
+
+        OnlineMigrationProperties properties = new OnlineMigrationProperties(
+                true, 1_000, Duration.ofMillis(5), 0, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(2), 5);
+        LastUpdateBackfillMigration migration = new LastUpdateBackfillMigration(properties);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/sharding-local")
+                .javaMigrations(migration).load().migrate();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        List<String> ids = seed(jdbc);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture.delayedExecutor(BASELINE.toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> stop.set(true));
+        long baseline = writes(jdbc, ids, stop);
+        double baselineRate = baseline / (double) BASELINE.toSeconds();
+
+        OnlineMigrationRunner runner = new OnlineMigrationRunner(List.of(migration), dataSource,
+                new StaticListableBeanFactory().getBeanProvider(ShardDataSources.class), properties,
+                new SimpleMeterRegistry());
+        stop.set(false);
+        long start = System.nanoTime();
+        CompletableFuture<List<BackfillJob.Result>> backfill = CompletableFuture.supplyAsync(() -> {
+            try {
+                return runner.runAll();
+            } finally {
+                stop.set(true);
+            }
+        });
+        long during = writes(jdbc, ids, stop);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        BackfillJob.Result result = backfill.get().get(0);
+
+        log.info(String.format("escritas/s sem backfill: %.0f | com backfill: %.0f (%.1f%%) | backfill: %d linhas em %.1fs (%.0f linhas/s, %d lotes)",
+                baselineRate, during / seconds, 100.0 * (during / seconds) / baselineRate,
+                result.rows(), seconds, result.rows() / seconds, result.chunks()));
+
+        assertEquals(BackfillJob.Outcome.COMPLETED, result.outcome());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM tb_usuario WHERE last_update IS NULL", Integer.class));
+    }
+}
@@ -0,0 +1,118 @@
+package com.psbral.projeto.migrations;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.config.OnlineMigrationProperties;
+import com.psbral.projeto.sharding.ShardDataSources;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OnlineMigrationRunnerTest {
+
+    private static final OnlineMigrationProperties PROPERTIES = new OnlineMigrationProperties(
+            true, 10, Duration.ZERO, 0, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(2), 3);
+
+    private final LastUpdateBackfillMigration migration = new LastUpdateBackfillMigration(PROPERTIES);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private List<String> ids;
+
+    @BeforeEach
+    void migrateAndSeedLegacyRows() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:online-" + UlidCreator.getUlid() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/sharding-local")
+                .javaMigrations(migration)
+                .load()
+                .migrate();
+
+        // linhas gravadas antes do dual write: só updated_at preenchido
+        jdbc = new JdbcTemplate(dataSource);
+        ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            String id = UlidCreator.getMonotonicUlid().toString();
+            jdbc.update("INSERT INTO tb_usuario (id, name, email, birth_date, created_at, updated_at)"
+                            + " VALUES (?, ?, ?, ?, ?, ?)",
+                    id, "Usuario " + i, "usuario" + i + "@example.com", LocalDate.of(1990, 1, 1),
+                    LocalDateTime.now(), LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i));
+            ids.add(id);
+        }
+    }
+
+    private OnlineMigrationRunner runner() {
+        return new OnlineMigrationRunner(List.of(migration), dataSource,
+                new StaticListableBeanFactory().getBeanProvider(ShardDataSources.class), PROPERTIES, registry);
+    }
+
+    private Map<String, Object> progress() {
+        return jdbc.queryForMap("SELECT * FROM tb_online_migration WHERE name = 'user_last_update'");
+    }
+
+    private int pendingRows() {
+        return jdbc.queryForObject(
+                "SELECT COUNT(*) FROM tb_usuario WHERE last_update IS NULL OR last_update <> updated_at", Integer.class);
+    }
+
+    @Test
+    void flyway_shouldRegisterBackfillAsPending() {
+        assertEquals("PENDING", progress().get("status"));
+        assertEquals(25, pendingRows());
+    }
+
+    @Test
+    void runAll_shouldCopyInChunksAndCutOver() {
+        List<BackfillJob.Result> results = runner().runAll();
+
+        assertEquals(List.of(new BackfillJob.Result("user_last_update", BackfillJob.Outcome.COMPLETED, 25, 3)), results);
+        assertEquals(0, pendingRows());
+        assertEquals("COMPLETED", progress().get("status"));
+        assertEquals(25L, ((Number) progress().get("rows_done")).longValue());
+        assertEquals(ids.get(24), progress().get("last_key"));
+        assertEquals(25.0, registry.counter("app.migrations.online.rows", "migration", "user_last_update").count());
+        assertEquals(3, registry.timer("app.migrations.online.chunk", "migration", "user_last_update").count());
+
+        assertEquals(BackfillJob.Outcome.SKIPPED, runner().runAll().get(0).outcome());
+    }
+
+    @Test
+    void runAll_shouldResumeFromLastCommittedChunkWhenLeaseExpired() {
+        jdbc.update("UPDATE tb_online_migration SET status = 'RUNNING', owner = 'crashed', heartbeat = ?, last_key = ?",
+                LocalDateTime.now().minusHours(1), ids.get(9));
+
+        BackfillJob.Result result = runner().runAll().get(0);
+
+        // os lotes só cobrem o que vem depois de last_key; o cut-over pega o resto
+        assertEquals(new BackfillJob.Result("user_last_update", BackfillJob.Outcome.COMPLETED, 15, 2), result);
+        assertEquals(15L, ((Number) progress().get("rows_done")).longValue());
+        assertEquals(0, pendingRows());
+    }
+
+    @Test
+    void runAll_shouldSkipWhileAnotherInstanceHoldsTheLease() {
+        jdbc.update("UPDATE tb_online_migration SET status = 'RUNNING', owner = 'other', heartbeat = ?",
+                LocalDateTime.now());
+
+        BackfillJob.Result result = runner().runAll().get(0);
+
+        assertEquals(BackfillJob.Outcome.SKIPPED, result.outcome());
+        assertEquals(25, pendingRows());
+        assertEquals("other", progress().get("owner"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.UserSnapshot;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Forma H2 ({@code FINAL TABLE} / {@code OLD TABLE}) do remover-e-devolver; o Postgres usa {@code RETURNING}.
+ */
+class UserRemovalRepositoryTest {
+
+    private static final String ID = "01H0000000000000000000RM01";
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:removal;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    private final UserRemovalRepositoryImpl repository = new UserRemovalRepositoryImpl(dataSource);
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/sharding-local").load().migrate();
+        jdbc.update("DELETE FROM tb_usuario");
+        jdbc.update("INSERT INTO tb_usuario (id, name, email, birth_date, created_at) VALUES (?, ?, ?, ?, ?)",
+                ID, "Fulano", "fulano@email.com", LocalDate.of(2000, 1, 1), LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    @Test
+    void softDeleteReturning_shouldMarkTombstoneAndReturnPreviousRow_once() {
+        Optional<UserSnapshot> removed = repository.softDeleteReturning(ID, LocalDateTime.now());
+
+        assertEquals("fulano@email.com", removed.orElseThrow().email());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), removed.get().createdAt());
+        assertNotNull(jdbc.queryForObject("SELECT deleted_at FROM tb_usuario WHERE id = ?", LocalDateTime.class, ID));
+        assertTrue(repository.softDeleteReturning(ID, LocalDateTime.now()).isEmpty());
+    }
+
+    @Test
+    void deleteReturning_shouldRemoveRowAndReturnIt_butSkipTombstones() {
+        assertEquals("Fulano", repository.deleteReturning(ID).orElseThrow().name());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM tb_usuario", Integer.class));
+        assertTrue(repository.deleteReturning(ID).isEmpty());
+    }
+
+    @Test
+    void deleteReturning_shouldIgnoreTombstonedRow() {
+        repository.softDeleteReturning(ID, LocalDateTime.now());
+
+        assertTrue(repository.deleteReturning(ID).isEmpty());
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM tb_usuario", Integer.class));
+    }
+}
@@ -0,0 +1,61 @@
+package com.psbral.projeto.repository;
+
+import com.psbral.projeto.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@code INSERT ... ON CONFLICT} contra um Postgres já migrado, ex.:
+ * {@code docker compose up -d} e
+ * {@code UPSERT_PG_URL=jdbc:postgresql://localhost:5432/usuarios mvn test -Dtest=UserUpsertRepositoryPostgresTest}.
+ */
+@EnabledIfEnvironmentVariable(named = "UPSERT_PG_URL", matches = ".+")
+class UserUpsertRepositoryPostgresTest {
+
+    private static final String EMAIL = "upsert-pg-test@email.com";
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            System.getenv("UPSERT_PG_URL"),
+            System.getenv().getOrDefault("UPSERT_PG_USER", "setis"),
+            System.getenv().getOrDefault("UPSERT_PG_PASSWORD", "setis123"));
+
+    private final UserUpsertRepositoryImpl repository = new UserUpsertRepositoryImpl(dataSource);
+
+    @AfterEach
+    void cleanUp() {
+        new JdbcTemplate(dataSource).update("DELETE FROM tb_usuario WHERE email = ?", EMAIL);
+    }
+
+    private static User row(String id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(EMAIL);
+        user.setBirthDate(LocalDate.of(2000, 1, 1));
+        user.onCreate();
+        return user;
+    }
+
+    @Test
+    void upsertByEmail_shouldInsertThenSkipThenUpdate() {
+        List<UserUpsertRepository.Upserted> created = repository.upsertByEmail(List.of(row("01H0000000000000000000PG01", "Postgres")));
+        List<UserUpsertRepository.Upserted> unchanged = repository.upsertByEmail(List.of(row("01H0000000000000000000PG02", "Postgres")));
+        List<UserUpsertRepository.Upserted> updated = repository.upsertByEmail(List.of(row("01H0000000000000000000PG03", "Renomeado")));
+
+        assertTrue(created.get(0).created());
+        assertTrue(unchanged.isEmpty());
+        assertFalse(updated.get(0).created());
+        assertEquals("01H0000000000000000000PG01", updated.get(0).user().id());
+        assertEquals("Renomeado", updated.get(0).user().name());
+        assertEquals(created.get(0).user().createdAt(), updated.get(0).user().createdAt());
+        assertEquals(1, repository.lockByEmailIn(List.of(EMAIL)).size());
+    }
+}
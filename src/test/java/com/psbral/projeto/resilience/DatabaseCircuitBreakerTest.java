@@ -0,0 +1,195 @@
+package com.psbral.projeto.resilience;
+
+import com.psbral.projeto.config.DatabaseCircuitBreakerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseCircuitBreakerTest {
+
+    /**
+     * Relógio que o teste avança manualmente.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker(
+            new DatabaseCircuitBreakerProperties(true, 10, 4, 0.5, Duration.ofSeconds(2), 0.8,
+                    Duration.ofSeconds(10), 2, 100, Duration.ofHours(1)),
+            registry, clock);
+
+    private static RuntimeException poolTimeout() {
+        return new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("Connection is not available, request timed out"));
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(CannotCreateTransactionException.class, () -> breaker.call(() -> {
+                throw poolTimeout();
+            }));
+        }
+    }
+
+    private void succeed(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.call(() -> "ok");
+        }
+    }
+
+    private double state() {
+        return registry.get("db.circuit.state").gauge().value();
+    }
+
+    @Test
+    void shouldOpenWhenFailureRateCrossesThresholdAndFailFast() {
+        succeed(2);
+        fail(1);
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+
+        fail(1);   // 2 de 4
+
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(1.0, state());
+
+        AtomicInteger calls = new AtomicInteger();
+        DatabaseUnavailableException rejected = assertThrows(DatabaseUnavailableException.class,
+                () -> breaker.call(calls::incrementAndGet));
+        assertEquals(0, calls.get());
+        assertEquals(Duration.ofSeconds(10), rejected.retryAfter());
+        assertEquals(1.0, registry.counter("db.circuit.rejected").count());
+    }
+
+    @Test
+    void businessErrorsShouldNotCountAsFailures() {
+        for (int i = 0; i < 10; i++) {
+            assertThrows(EntityNotFoundException.class, () -> breaker.call(() -> {
+                throw new EntityNotFoundException("Usuário não encontrado");
+            }));
+        }
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void timeoutsCausedByRequestDeadlineShouldNotCountAsFailures() {
+        for (int i = 0; i < 10; i++) {
+            assertThrows(CannotCreateTransactionException.class, () -> breaker.call(() -> {
+                throw new CannotCreateTransactionException("Could not open JPA EntityManager",
+                        new SQLTimeoutException("Prazo da requisição esgotado (pool)", null, 0,
+                                new DeadlineExceededException("pool", Duration.ofMillis(100), null)));
+            }));
+        }
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldCloseAfterHalfOpenProbesSucceed() {
+        fail(4);
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(2.0, state());
+
+        succeed(1);
+        assertEquals(DatabaseCircuitBreaker.State.HALF_OPEN, breaker.state());
+        succeed(1);
+
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1.0, registry.counter("db.circuit.transitions", "to", "closed").count());
+        // janela zerada: uma falha isolada não reabre
+        fail(1);
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldReopenWhenProbeFailsAndLimitProbes() {
+        fail(4);
+        clock.advance(Duration.ofSeconds(10));
+
+        fail(1);
+
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(2.0, registry.counter("db.circuit.transitions", "to", "open").count());
+        assertEquals(Duration.ofSeconds(10), breaker.retryAfter());
+    }
+
+    @Test
+    void halfOpenShouldRejectBeyondPermittedProbes() {
+        fail(4);
+        clock.advance(Duration.ofSeconds(10));
+
+        // duas chamadas de teste em andamento ocupam as permissões
+        assertThrows(DatabaseUnavailableException.class, () -> breaker.call(() ->
+                breaker.call(() -> breaker.call(() -> "terceira"))));
+    }
+
+    @Test
+    void probeEndingInErrorShouldGiveBackItsPermission() {
+        fail(4);
+        clock.advance(Duration.ofSeconds(10));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(StackOverflowError.class, () -> breaker.call(() -> {
+                throw new StackOverflowError();
+            }));
+        }
+        assertEquals(DatabaseCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        succeed(2);
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void slowCallsShouldOpenTheCircuit() {
+        DatabaseCircuitBreaker slow = new DatabaseCircuitBreaker(
+                new DatabaseCircuitBreakerProperties(true, 4, 4, 0.5, Duration.ZERO, 0.75,
+                        Duration.ofSeconds(10), 1, 100, Duration.ofHours(1)),
+                new SimpleMeterRegistry(), clock);
+
+        for (int i = 0; i < 4; i++) {
+            slow.call(DatabaseCircuitBreakerTest::busyWait);
+        }
+
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, slow.state());
+    }
+
+    private static long busyWait() {
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < 100_000) {
+            Thread.onSpinWait();
+        }
+        return start;
+    }
+}
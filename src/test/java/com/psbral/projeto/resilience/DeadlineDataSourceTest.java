@@ -0,0 +1,79 @@
+package com.psbral.projeto.resilience;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineDataSourceTest {
+
+    private HikariDataSource pool;
+    private DeadlineDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:deadline;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(10_000);
+        pool = new HikariDataSource(config);
+        dataSource = new DeadlineDataSource(pool);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        RequestDeadline.clear();
+        dataSource.close();
+    }
+
+    @Test
+    void getConnection_shouldWaitForPoolOnlyUntilDeadline() throws Exception {
+        try (Connection held = pool.getConnection()) {
+            RequestDeadline deadline = RequestDeadline.begin(Duration.ofMillis(300));
+
+            long start = System.nanoTime();
+            SQLTimeoutException error = assertThrows(SQLTimeoutException.class, dataSource::getConnection);
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertTrue(elapsedMillis < 2_000, "esperou " + elapsedMillis + " ms, e não o connectionTimeout");
+            assertEquals("pool", RequestDeadline.exceededBy(error).stage());
+            assertEquals("pool", deadline.exceededAt());
+        }
+    }
+
+    @Test
+    void getConnection_shouldFailFast_whenDeadlineAlreadyExpired() throws Exception {
+        RequestDeadline.begin(Duration.ofMillis(1));
+        Thread.sleep(5);
+
+        SQLTimeoutException error = assertThrows(SQLTimeoutException.class, dataSource::getConnection);
+
+        assertEquals("pool", RequestDeadline.exceededBy(error).stage());
+        assertEquals(1, pool.getHikariPoolMXBean().getIdleConnections() + pool.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    @Test
+    void getConnection_shouldBypassProxy_withoutDeadline() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isWrapperFor(Connection.class));
+            assertFalse(java.lang.reflect.Proxy.isProxyClass(connection.getClass()));
+        }
+    }
+
+    @Test
+    void getConnection_shouldBypassProxy_withDeadline() throws Exception {
+        // o timeout de cada SQL vem da transação (DeadlineTransactionManagerTest)
+        RequestDeadline.begin(Duration.ofSeconds(5));
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertFalse(java.lang.reflect.Proxy.isProxyClass(connection.getClass()));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.psbral.projeto.resilience;
+
+import com.psbral.projeto.config.DeadlineProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DeadlineFilter filter = new DeadlineFilter(
+            new DeadlineProperties(true, "X-Request-Timeout", Duration.ofSeconds(10), Duration.ofSeconds(30),
+                    Map.of("/users/*", Duration.ofSeconds(5), "/users/lookup", Duration.ofSeconds(15))),
+            registry);
+
+    private static MockHttpServletRequest request(String uri, String timeout) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (timeout != null) {
+            request.addHeader("X-Request-Timeout", timeout);
+        }
+        return request;
+    }
+
+    @Test
+    void budget_shouldUseHeader_inMillisOrWithUnit() {
+        assertEquals(Duration.ofMillis(2_000), filter.budget(request("/users", "2000")));
+        assertEquals(Duration.ofSeconds(2), filter.budget(request("/users", "2s")));
+        assertEquals(Duration.ofMillis(1_500), filter.budget(request("/users", "PT1.5S")));
+    }
+
+    @Test
+    void budget_shouldCapHeaderAtMaxTimeout() {
+        assertEquals(Duration.ofSeconds(30), filter.budget(request("/users", "5m")));
+    }
+
+    @Test
+    void budget_shouldUseMostSpecificRoute_whenHeaderIsMissingOrInvalid() {
+        assertEquals(Duration.ofSeconds(15), filter.budget(request("/users/lookup", null)));
+        assertEquals(Duration.ofSeconds(5), filter.budget(request("/users/01H00000000000000000000001", "abc")));
+        assertEquals(Duration.ofSeconds(5), filter.budget(request("/users/x", "-100")));
+        assertEquals(Duration.ofSeconds(10), filter.budget(request("/users", null)));
+    }
+
+    @Test
+    void doFilter_shouldExposeDeadlineOnlyDuringRequest() throws Exception {
+        MockHttpServletRequest request = request("/users", "2s");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            RequestDeadline deadline = RequestDeadline.current();
+            assertNotNull(deadline);
+            assertEquals(Duration.ofSeconds(2), deadline.budget());
+            assertEquals(2, deadline.remainingSeconds());
+        });
+
+        assertNull(RequestDeadline.current());
+        assertTrue(registry.find("app.deadline.exceeded").counters().isEmpty());
+    }
+
+    @Test
+    void doFilter_shouldCountExceededDeadline_byStageAndRoute() throws Exception {
+        MockHttpServletRequest request = request("/users/01H00000000000000000000001", "1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{id}");
+            while (!RequestDeadline.current().expired()) {
+                Thread.onSpinWait();
+            }
+            DeadlineExceededException error = assertThrows(DeadlineExceededException.class,
+                    () -> RequestDeadline.checkCurrent("service"));
+            assertEquals("service", error.stage());
+        });
+
+        assertEquals(1.0, registry.get("app.deadline.exceeded")
+                .tag("stage", "service")
+                .tag("uri", "/users/{id}")
+                .counter().count());
+    }
+}
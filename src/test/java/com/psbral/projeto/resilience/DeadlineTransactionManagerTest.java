@@ -0,0 +1,143 @@
+package com.psbral.projeto.resilience;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineTransactionManagerTest {
+
+    private static final String SLOW_QUERY =
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b WHERE a.X + b.X = 7";
+
+    private HikariDataSource pool;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private TransactionTemplate transaction;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:deadline-tx;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(2);
+        pool = new HikariDataSource(config);
+        DeadlineDataSource dataSource = new DeadlineDataSource(pool);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan("com.psbral.projeto.models");
+        entityManagerFactory.afterPropertiesSet();
+
+        DeadlineTransactionManager transactionManager = new DeadlineTransactionManager();
+        transactionManager.setEntityManagerFactory(entityManagerFactory.getObject());
+        transactionManager.afterPropertiesSet();
+        transaction = new TransactionTemplate(transactionManager);
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+        entityManagerFactory.destroy();
+        pool.close();
+    }
+
+    private EntityManager entityManager() {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory.getObject());
+    }
+
+    @Test
+    void jdbcTemplate_shouldUseRemainingTimeAsQueryTimeout() {
+        RequestDeadline.begin(Duration.ofMillis(2_500));
+
+        int timeout = transaction.execute(status -> jdbc.execute((StatementCallback<Integer>) statement -> {
+            statement.execute("SELECT 1");
+            return statement.getQueryTimeout();
+        }));
+
+        assertEquals(3, timeout);
+    }
+
+    @Test
+    void shouldKeepSmallerTransactionTimeout() {
+        RequestDeadline.begin(Duration.ofSeconds(20));
+        transaction.setTimeout(5);
+
+        int timeout = transaction.execute(status -> jdbc.execute((StatementCallback<Integer>) statement -> {
+            statement.execute("SELECT 1");
+            return statement.getQueryTimeout();
+        }));
+
+        assertEquals(5, timeout);
+    }
+
+    @Test
+    void hibernateQuery_shouldBeCancelledByDeadline() {
+        RequestDeadline deadline = RequestDeadline.begin(Duration.ofMillis(500));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> transaction.execute(status ->
+                entityManager().createNativeQuery(SLOW_QUERY).getSingleResult()));
+
+        assertNotNull(RequestDeadline.exceededBy(error));
+        assertEquals("sql", deadline.exceededAt());
+    }
+
+    @Test
+    void jdbcTemplate_shouldBeCancelledByDeadline() {
+        RequestDeadline deadline = RequestDeadline.begin(Duration.ofMillis(500));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> transaction.execute(status ->
+                jdbc.queryForObject(SLOW_QUERY, Long.class)));
+
+        assertNotNull(RequestDeadline.exceededBy(error));
+        assertEquals("sql", deadline.exceededAt());
+    }
+
+    @Test
+    void jdbcTemplate_shouldNotSendStatement_whenTransactionAlreadyExpired() {
+        RequestDeadline deadline = RequestDeadline.begin(Duration.ofMillis(200));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> transaction.execute(status -> {
+            sleep(Duration.ofMillis(1_100));   // timeout da transação: 1 s, arredondado para cima
+            return jdbc.queryForObject("SELECT 1", Integer.class);
+        }));
+
+        assertNotNull(RequestDeadline.exceededBy(error));
+        assertEquals("sql", deadline.exceededAt());
+    }
+
+    @Test
+    void hibernateQuery_shouldNotBeSent_whenTransactionAlreadyExpired() {
+        RequestDeadline deadline = RequestDeadline.begin(Duration.ofMillis(200));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> transaction.execute(status -> {
+            sleep(Duration.ofMillis(1_100));
+            return entityManager().createNativeQuery("SELECT 1").getSingleResult();
+        }));
+
+        assertNotNull(RequestDeadline.exceededBy(error));
+        assertEquals("sql", deadline.exceededAt());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
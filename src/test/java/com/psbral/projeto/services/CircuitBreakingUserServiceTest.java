@@ -0,0 +1,163 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.config.DatabaseCircuitBreakerProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.resilience.DatabaseCircuitBreaker;
+import com.psbral.projeto.resilience.DatabaseUnavailableException;
+import com.psbral.projeto.resilience.StaleReads;
+import com.psbral.projeto.resilience.StaleSnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakingUserServiceTest {
+
+    private static final String ID = "01H00000000000000000000001";
+    private static final UserDTO.Response ANA = new UserDTO.Response("Ana Souza", "ana@example.com", LocalDate.of(1990, 5, 1));
+
+    @Mock
+    private UserService users;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final ConcurrentMapCacheManager caches = new ConcurrentMapCacheManager(ConfigCache.USERS);
+    private DatabaseCircuitBreaker breaker;
+    private CircuitBreakingUserService service;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseCircuitBreakerProperties properties = new DatabaseCircuitBreakerProperties(
+                true, 10, 2, 0.5, Duration.ofSeconds(2), 0.8, Duration.ofMinutes(1), 1, 100, Duration.ofHours(1));
+        breaker = new DatabaseCircuitBreaker(properties, new SimpleMeterRegistry());
+        service = new CircuitBreakingUserService(users,
+                new StaticListableBeanFactory().getBeanProvider(ShardedUserService.class),
+                breaker, new StaleSnapshotStore(properties), caches);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static RuntimeException databaseDown() {
+        return new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new SQLTransientConnectionException("Connection is not available, request timed out"));
+    }
+
+    private void openCircuit() {
+        when(users.findAll()).thenThrow(databaseDown());
+        for (int i = 0; i < 10 && breaker.state() == DatabaseCircuitBreaker.State.CLOSED; i++) {
+            assertThrows(RuntimeException.class, () -> service.findAll());
+        }
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.state());
+        reset(users);
+    }
+
+    @Test
+    void findById_shouldServeLastKnownGoodWhileCircuitIsOpen() {
+        when(users.findById(ID)).thenReturn(ANA);
+        service.findById(ID);
+        assertNull(response.getHeader(StaleReads.STALE_SINCE));
+
+        openCircuit();
+        UserDTO.Response stale = service.findById(ID);
+
+        assertEquals(ANA, stale);
+        assertNotNull(response.getHeader(StaleReads.STALE_SINCE));
+        assertEquals("0", response.getHeader("Age"));
+        verifyNoInteractions(users);
+    }
+
+    @Test
+    void findById_cacheHitsShouldStayOutOfTheBreakerWindow() {
+        caches.getCache(ConfigCache.USERS).put(ID, ANA);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(ANA, service.findById(ID));
+        }
+
+        // só as chamadas que foram ao banco contam: duas falhas em duas abrem o circuito
+        when(users.findAll()).thenThrow(databaseDown());
+        assertThrows(RuntimeException.class, () -> service.findAll());
+        assertThrows(RuntimeException.class, () -> service.findAll());
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.state());
+
+        assertEquals(ANA, service.findById(ID));
+        assertNull(response.getHeader(StaleReads.STALE_SINCE));
+        verify(users, never()).findById(any());
+    }
+
+    @Test
+    void findById_withoutSnapshotShouldFailWith503() {
+        openCircuit();
+
+        DatabaseUnavailableException e = assertThrows(DatabaseUnavailableException.class,
+                () -> service.findById(ID));
+
+        assertTrue(e.retryAfter().compareTo(Duration.ofSeconds(50)) > 0);
+    }
+
+    @Test
+    void findAll_shouldFallBackToSnapshotWhenDatabaseFails() {
+        when(users.findAll()).thenReturn(List.of(ANA)).thenThrow(databaseDown());
+        service.findAll();
+
+        assertEquals(List.of(ANA), service.findAll());
+        assertNotNull(response.getHeader(StaleReads.STALE_SINCE));
+    }
+
+    @Test
+    void writes_shouldBeRejectedWithoutTouchingTheDatabaseWhileOpen() {
+        openCircuit();
+
+        assertThrows(DatabaseUnavailableException.class, () -> service.insert(
+                new UserDTO.Request(null, "Ana Souza", "ana@example.com", LocalDate.of(1990, 5, 1), null, null)));
+        assertThrows(DatabaseUnavailableException.class, () -> service.delete(ID));
+        verifyNoInteractions(users);
+    }
+
+    @Test
+    void writeFailure_shouldBecome503() {
+        doThrow(databaseDown()).when(users).delete(ID);
+
+        assertThrows(DatabaseUnavailableException.class, () -> service.delete(ID));
+    }
+
+    @Test
+    void businessErrors_shouldPassThroughAndDropSnapshot() {
+        when(users.findById(ID)).thenReturn(ANA).thenThrow(new EntityNotFoundException("Usuário não encontrado"));
+        service.findById(ID);
+
+        assertThrows(EntityNotFoundException.class, () -> service.findById(ID));
+        when(users.update(any(), any())).thenThrow(new IllegalArgumentException("E-mail já cadastrado"));
+        assertThrows(IllegalArgumentException.class, () -> service.update(ID,
+                new UserDTO.Request(null, "Ana Souza", "bia@example.com", LocalDate.of(1990, 5, 1), null, null)));
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.state());
+
+        // removido no banco: não volta como stale
+        openCircuit();
+        assertThrows(DatabaseUnavailableException.class, () -> service.findById(ID));
+    }
+}
@@ -0,0 +1,431 @@
+package com.psbral.projeto.services;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import com.psbral.projeto.config.BatchLookupProperties;
+import com.psbral.projeto.config.ConfigCache;
+import com.psbral.projeto.config.ShardingProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.repository.UserRepository;
+import com.psbral.projeto.sharding.EmailDirectory;
+import com.psbral.projeto.sharding.ShardContext;
+import com.psbral.projeto.sharding.ShardDataSources;
+import com.psbral.projeto.sharding.ShardRebalancer;
+import com.psbral.projeto.sharding.ShardRouter;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "app.cache.invalidation.transport=local")
+@ActiveProfiles("sharding-local")
+class ShardedUserServiceTest {
+
+    @Autowired
+    private ServiceRepository service;
+
+    @Autowired
+    private ShardDataSources shards;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private EmailDirectory directory;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void cleanShards() {
+        for (int i = 0; i < shards.size(); i++) {
+            JdbcTemplate jdbc = new JdbcTemplate(shards.get(i));
+            jdbc.update("DELETE FROM tb_usuario");
+            jdbc.update("DELETE FROM tb_email_shard");
+        }
+    }
+
+    private UserDTO.Request buildRequest(String name, String email) {
+        return new UserDTO.Request(null, name, email, LocalDate.of(2000, 1, 1), null, null);
+    }
+
+    private int countOn(int shard) {
+        return new JdbcTemplate(shards.get(shard))
+                .queryForObject("SELECT COUNT(*) FROM tb_usuario", Integer.class);
+    }
+
+    @Test
+    void insert_shouldSpreadUsersAcrossShards() {
+        for (int i = 0; i < 30; i++) {
+            service.insert(buildRequest("Usuario " + i, "user" + i + "@email.com"));
+        }
+
+        int total = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            assertTrue(countOn(shard) > 0, "shard " + shard + " ficou vazio");
+            total += countOn(shard);
+        }
+        assertEquals(30, total);
+    }
+
+    @Test
+    void insert_shouldRejectDuplicateEmailAcrossShards() {
+        service.insert(buildRequest("Fulano", "fulano@email.com"));
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.insert(buildRequest("Outro Fulano", "fulano@email.com")));
+        }
+    }
+
+    @Test
+    void findAll_shouldGatherEveryShard() {
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            String email = "user" + i + "@email.com";
+            emails.add(email);
+            service.insert(buildRequest("Usuario " + i, email));
+        }
+
+        List<UserDTO.Response> all = service.findAll();
+
+        assertEquals(25, all.size());
+        assertEquals(emails, new HashSet<>(all.stream().map(UserDTO.Response::email).toList()));
+    }
+
+    @Test
+    void findAll_shouldRethrowShardFailureUnwrapped() {
+        UserRepository failing = mock(UserRepository.class);
+        when(failing.findByIdGreaterThanOrderByIdAsc(anyString(), any(Limit.class)))
+                .thenThrow(new CannotGetJdbcConnectionException("shard fora"));
+        ShardedUserService sharded = new ShardedUserService(mock(UserService.class), failing,
+                new ShardRouter(3), mock(EmailDirectory.class), new BatchLookupProperties(500),
+                new ShardingProperties(true, List.of(), 500, false), mock(PlatformTransactionManager.class));
+
+        try {
+            assertThrows(CannotGetJdbcConnectionException.class, sharded::findAll);
+        } finally {
+            sharded.shutdown();
+        }
+    }
+
+    @Test
+    void findAllById_shouldResolveIdsAcrossShardsInRequestOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            service.insert(buildRequest("Usuario " + i, "user" + i + "@email.com"));
+            ids.add(directory.lookup("user" + i + "@email.com").orElseThrow().userId());
+        }
+        Collections.reverse(ids);
+        ids.add(3, "01H0000000000000000000MISS");
+
+        UserDTO.BatchResponse result = service.findAllById(ids);
+
+        List<String> expected = new ArrayList<>(ids);
+        expected.remove("01H0000000000000000000MISS");
+        assertEquals(expected, List.copyOf(result.users().keySet()));
+        assertEquals(List.of("01H0000000000000000000MISS"), result.missing());
+    }
+
+    @Test
+    void findAllById_shouldApplyBatchLimitToWholeRequest_notPerShard() {
+        // 600 ids distintos espalhados em 3 shards: cada shard receberia ~200, abaixo do limite de 500
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            ids.add(UlidCreator.getMonotonicUlid().toString());
+        }
+        ids.addAll(ids.subList(0, 100));   // repetidos não contam
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.findAllById(ids));
+        assertEquals("Máximo de 500 ids por requisição: 600", e.getMessage());
+    }
+
+    @Test
+    void update_shouldMoveEmailClaimInDirectory() {
+        service.insert(buildRequest("Fulano", "antigo@email.com"));
+        String id = directory.lookup("antigo@email.com").orElseThrow().userId();
+
+        service.update(id, buildRequest("Fulano", "novo@email.com"));
+
+        assertTrue(directory.lookup("antigo@email.com").isEmpty());
+        assertEquals(id, directory.lookup("novo@email.com").orElseThrow().userId());
+        assertEquals("novo@email.com", service.findById(id).email());
+    }
+
+    @Test
+    void delete_shouldReleaseEmail() {
+        service.insert(buildRequest("Fulano", "fulano@email.com"));
+        String id = directory.lookup("fulano@email.com").orElseThrow().userId();
+
+        service.delete(id);
+
+        assertThrows(EntityNotFoundException.class, () -> service.findById(id));
+        assertDoesNotThrow(() -> service.insert(buildRequest("Fulano", "fulano@email.com")));
+    }
+
+    // entrada de cache com um e-mail que o usuário já não tem (ex.: trocado por outra réplica)
+    private void cacheStaleEmail(String id) {
+        cacheManager.getCache(ConfigCache.USERS).put(id,
+                new UserDTO.Response("Fulano", "antigo@email.com", LocalDate.of(2000, 1, 1)));
+    }
+
+    @Test
+    void update_shouldReleaseTheStoredEmail_notTheCachedOne() {
+        service.insert(buildRequest("Fulano", "fulano@email.com"));
+        String id = directory.lookup("fulano@email.com").orElseThrow().userId();
+        cacheStaleEmail(id);
+
+        service.update(id, buildRequest("Fulano", "novo@email.com"));
+
+        assertTrue(directory.lookup("fulano@email.com").isEmpty());
+        assertEquals(id, directory.lookup("novo@email.com").orElseThrow().userId());
+        assertEquals("novo@email.com", service.findById(id).email());
+    }
+
+    @Test
+    void delete_shouldReleaseTheStoredEmail_notTheCachedOne() {
+        service.insert(buildRequest("Fulano", "fulano@email.com"));
+        String id = directory.lookup("fulano@email.com").orElseThrow().userId();
+        cacheStaleEmail(id);
+
+        service.delete(id);
+
+        assertTrue(directory.lookup("fulano@email.com").isEmpty());
+        assertDoesNotThrow(() -> service.insert(buildRequest("Fulano", "fulano@email.com")));
+    }
+
+    @Test
+    void rebalance_shouldMoveMisplacedUsersToTheirShard() {
+        JdbcTemplate shard0 = new JdbcTemplate(shards.get(0));
+        int misplaced = 0;
+        for (int i = 0; i < 30; i++) {
+            String id = UlidCreator.getMonotonicUlid().toString();
+            String email = "legado" + i + "@email.com";
+            shard0.update("INSERT INTO tb_usuario (id, name, email, birth_date, created_at) VALUES (?, ?, ?, ?, ?)",
+                    id, "Legado " + i, email, LocalDate.of(1990, 1, 1), LocalDateTime.now());
+            directory.claim(email, id, 0);
+            if (router.shardFor(id) != 0) {
+                misplaced++;
+            }
+        }
+
+        ShardRebalancer.Result result = rebalancer.rebalance();
+
+        assertEquals(misplaced, result.moved());
+        assertEquals(30 - misplaced, countOn(0));
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (String id : new JdbcTemplate(shards.get(shard))
+                    .queryForList("SELECT id FROM tb_usuario", String.class)) {
+                assertEquals(shard, router.shardFor(id));
+            }
+        }
+        for (int i = 0; i < 30; i++) {
+            EmailDirectory.Entry entry = directory.lookup("legado" + i + "@email.com").orElseThrow();
+            assertEquals(router.shardFor(entry.userId()), entry.shard());
+            assertEquals("Legado " + i, service.findById(entry.userId()).name());
+        }
+    }
+
+    private String misplacedOnShard0(String name, String email) {
+        String id;
+        do {
+            id = UlidCreator.getMonotonicUlid().toString();
+        } while (router.shardFor(id) == 0);
+        new JdbcTemplate(shards.get(0)).update(
+                "INSERT INTO tb_usuario (id, name, email, birth_date, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, name, email, LocalDate.of(1990, 1, 1), LocalDateTime.now());
+        directory.claim(email, id, 0);
+        return id;
+    }
+
+    @Test
+    void rebalance_shouldWaitForAConcurrentUpdateOnTheSourceAndCopyIt() throws Exception {
+        String id = misplacedOnShard0("Legado", "legado@email.com");
+        int target = router.shardFor(id);
+
+        CompletableFuture<ShardRebalancer.Result> running;
+        try (Connection writer = shards.get(0).getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement update = writer.prepareStatement("UPDATE tb_usuario SET name = ? WHERE id = ?")) {
+                update.setString(1, "Atualizado");
+                update.setString(2, id);
+                update.executeUpdate();
+            }
+            // o rebalanceamento encontra a linha travada pela escrita ainda não confirmada
+            running = CompletableFuture.supplyAsync(rebalancer::rebalance);
+            Thread.sleep(300);
+            writer.commit();
+        }
+
+        assertEquals(1, running.get(10, TimeUnit.SECONDS).moved());
+        assertEquals(0, countOn(0));
+        assertEquals("Atualizado", new JdbcTemplate(shards.get(target))
+                .queryForObject("SELECT name FROM tb_usuario WHERE id = ?", String.class, id));
+        assertEquals(target, directory.lookup("legado@email.com").orElseThrow().shard());
+    }
+
+    @Test
+    void rebalance_shouldReplaceAStaleCopyLeftByAnInterruptedRun() {
+        String id = misplacedOnShard0("Legado", "legado@email.com");
+        int target = router.shardFor(id);
+        // execução anterior copiou a linha e parou antes do diretório; a origem seguiu recebendo escritas
+        new JdbcTemplate(shards.get(target)).update(
+                "INSERT INTO tb_usuario (id, name, email, birth_date, created_at) VALUES (?, ?, ?, ?, ?)",
+                id, "Legado", "legado@email.com", LocalDate.of(1990, 1, 1), LocalDateTime.now());
+        new JdbcTemplate(shards.get(0)).update("UPDATE tb_usuario SET name = ? WHERE id = ?", "Atualizado", id);
+
+        rebalancer.rebalance();
+
+        assertEquals(0, countOn(0));
+        assertEquals(1, countOn(target));
+        assertEquals("Atualizado", service.findById(id).name());
+    }
+
+    @Test
+    void upsert_shouldCreateThenSkipThenUpdate() {
+        UserDTO.UpsertResponse created = service.upsert("sync@email.com", buildRequest("Sincronizado", "sync@email.com"));
+        UserDTO.UpsertResponse unchanged = service.upsert("sync@email.com", buildRequest("Sincronizado", "sync@email.com"));
+        JdbcTemplate shard = new JdbcTemplate(shards.get(router.shardFor(created.id())));
+        Map<String, Object> afterCreate = shard.queryForMap(
+                "SELECT created_at, last_update FROM tb_usuario WHERE id = ?", created.id());
+
+        UserDTO.UpsertResponse updated = service.upsert("sync@email.com", buildRequest("Renomeado", "sync@email.com"));
+        Map<String, Object> afterUpdate = shard.queryForMap(
+                "SELECT name, created_at, last_update FROM tb_usuario WHERE id = ?", created.id());
+
+        assertEquals(UserDTO.UpsertStatus.CREATED, created.status());
+        assertEquals(UserDTO.UpsertStatus.UNCHANGED, unchanged.status());
+        assertEquals(UserDTO.UpsertStatus.UPDATED, updated.status());
+        assertEquals(created.id(), unchanged.id());
+        assertEquals(created.id(), updated.id());
+        assertEquals("Renomeado", afterUpdate.get("name"));
+        assertEquals(afterCreate.get("created_at"), afterUpdate.get("created_at"));
+        assertNotEquals(afterCreate.get("last_update"), afterUpdate.get("last_update"));
+        assertEquals(created.id(), directory.lookup("sync@email.com").orElseThrow().userId());
+        assertEquals("Renomeado", service.findById(created.id()).name());
+    }
+
+    @Test
+    void upsertAll_shouldMixCreatesAndUpdatesAcrossShards() {
+        UserDTO.Response existing = service.insert(buildRequest("Existente", "existente@email.com"));
+
+        List<UserDTO.Request> batch = new ArrayList<>();
+        batch.add(buildRequest("Existente Novo", "existente@email.com"));
+        for (int i = 0; i < 10; i++) {
+            batch.add(buildRequest("Lote " + i, "lote" + i + "@email.com"));
+        }
+
+        List<UserDTO.UpsertResponse> results = service.upsertAll(batch);
+
+        assertEquals(11, results.size());
+        assertEquals(UserDTO.UpsertStatus.UPDATED, results.get(0).status());
+        assertEquals(existing.email(), results.get(0).user().email());
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(UserDTO.UpsertStatus.CREATED, results.get(i).status());
+            assertEquals("lote" + (i - 1) + "@email.com", results.get(i).user().email());
+            EmailDirectory.Entry entry = directory.lookup(results.get(i).user().email()).orElseThrow();
+            assertEquals(results.get(i).id(), entry.userId());
+            assertEquals(router.shardFor(entry.userId()), entry.shard());
+        }
+    }
+
+    @Test
+    void upsertAll_shouldRejectRepeatedEmails_beforeClaimingAny() {
+        List<UserDTO.Request> batch = List.of(
+                buildRequest("Novo", "novo@email.com"),
+                buildRequest("Repetido", "repetido@email.com"),
+                buildRequest("Repetido", "repetido@email.com"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.upsertAll(batch));
+
+        assertTrue(directory.lookup("novo@email.com").isEmpty());
+        assertTrue(directory.lookup("repetido@email.com").isEmpty());
+    }
+
+    @Test
+    void upsertAll_shouldApplyBatchLimitToWholeRequest_beforeClaimingAny() {
+        // 501 e-mails novos dariam ~167 por shard, cada parte abaixo do limite
+        List<UserDTO.Request> batch = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            batch.add(buildRequest("Lote " + i, "lote" + i + "@email.com"));
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.upsertAll(batch));
+
+        assertEquals("Máximo de 500 usuários por requisição: 501", e.getMessage());
+        assertEquals(0, new JdbcTemplate(shards.get(0))
+                .queryForObject("SELECT COUNT(*) FROM tb_email_shard", Integer.class));
+    }
+
+    @Test
+    void upsertAll_shouldKeepOtherShards_andReleaseClaimsOfTheFailedOne() {
+        ShardRouter threeShards = new ShardRouter(3);
+        UserService users = mock(UserService.class);
+        Map<String, Integer> shardOf = new ConcurrentHashMap<>();
+        Map<Integer, Boolean> failedShard = new ConcurrentHashMap<>();
+        when(users.upsertAll(anyList(), anyMap())).thenAnswer(invocation -> {
+            List<UserDTO.Request> part = invocation.getArgument(0);
+            Map<String, String> newIds = invocation.getArgument(1);
+            part.forEach(dto -> shardOf.put(dto.email(), ShardContext.current()));
+            if (part.stream().anyMatch(dto -> dto.email().equals("falha@email.com"))) {
+                failedShard.put(ShardContext.current(), true);
+                throw new CannotGetJdbcConnectionException("shard fora");
+            }
+            return part.stream().map(dto -> new UserDTO.UpsertResponse(newIds.get(dto.email()),
+                    UserDTO.UpsertStatus.CREATED,
+                    new UserDTO.Response(dto.name(), dto.email(), dto.birthDate()))).toList();
+        });
+        ShardedUserService sharded = new ShardedUserService(users, mock(UserRepository.class), threeShards,
+                directory, new BatchLookupProperties(500), new ShardingProperties(true, List.of(), 500, false),
+                mock(PlatformTransactionManager.class));
+
+        List<UserDTO.Request> batch = new ArrayList<>();
+        batch.add(buildRequest("Falha", "falha@email.com"));
+        for (int i = 0; i < 12; i++) {
+            batch.add(buildRequest("Lote " + i, "lote" + i + "@email.com"));
+        }
+
+        try {
+            assertThrows(CannotGetJdbcConnectionException.class, () -> sharded.upsertAll(batch));
+        } finally {
+            sharded.shutdown();
+        }
+
+        // as partes confirmadas ficam; só as reservas do shard que falhou são desfeitas
+        for (UserDTO.Request dto : batch) {
+            boolean failed = failedShard.containsKey(shardOf.get(dto.email()));
+            assertEquals(failed, directory.lookup(dto.email()).isEmpty(), dto.email());
+        }
+    }
+}
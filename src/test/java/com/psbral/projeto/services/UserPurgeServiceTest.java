@@ -0,0 +1,76 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.SoftDeleteProperties;
+import com.psbral.projeto.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPurgeServiceTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    private UserPurgeService buildService(int batchSize, int maxBatches) {
+        SoftDeleteProperties properties = new SoftDeleteProperties(
+                true, Duration.ofDays(7), batchSize, maxBatches, Duration.ZERO);
+        return new UserPurgeService(repository, properties, registry);
+    }
+
+    @Test
+    void purge_shouldStopAtFirstPartialBatch() {
+        UserPurgeService service = buildService(100, 10);
+        when(repository.purgeDeletedBefore(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 40);
+
+        long total = service.purge();
+
+        assertEquals(240, total);
+        verify(repository, times(3)).purgeDeletedBefore(any(LocalDateTime.class), eq(100));
+        assertEquals(240.0, registry.counter("users.purge.rows").count());
+        assertEquals(3, registry.timer("users.purge.batch").count());
+    }
+
+    @Test
+    void purge_shouldRespectMaxBatchesPerRun() {
+        UserPurgeService service = buildService(50, 2);
+        when(repository.purgeDeletedBefore(any(LocalDateTime.class), eq(50)))
+                .thenReturn(50);
+
+        long total = service.purge();
+
+        assertEquals(100, total);
+        verify(repository, times(2)).purgeDeletedBefore(any(LocalDateTime.class), eq(50));
+    }
+
+    @Test
+    void purge_shouldOnlyTouchTombstonesOlderThanRetention() {
+        UserPurgeService service = buildService(10, 1);
+        when(repository.purgeDeletedBefore(any(LocalDateTime.class), eq(10))).thenReturn(0);
+
+        LocalDateTime before = LocalDateTime.now().minusDays(7);
+        service.purge();
+
+        verify(repository).purgeDeletedBefore(argThat(cutoff -> !cutoff.isBefore(before)
+                && cutoff.isBefore(LocalDateTime.now().minusDays(6))), eq(10));
+    }
+}
@@ -1,18 +1,27 @@
 package com.psbral.projeto.services;
 
+import com.psbral.projeto.config.BatchLookupProperties;
+import com.psbral.projeto.config.SoftDeleteProperties;
 import com.psbral.projeto.dto.UserDTO;
 import com.psbral.projeto.models.User;
+import com.psbral.projeto.models.UserSnapshot;
 import com.psbral.projeto.repository.UserRepository;
+import com.psbral.projeto.repository.UserUpsertRepository;
+import com.psbral.projeto.services.events.UserChangedEvent;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.modelmapper.ModelMapper;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -32,11 +41,14 @@ class UserServiceTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
     private UserService service;
 
     @BeforeEach
     void setUp() {
-        service = new UserService(repository, modelMapper);
+        service = buildService(false);
 
         lenient().when(modelMapper.map(any(UserDTO.Request.class), eq(User.class)))
                 .thenAnswer(invocation -> {
@@ -60,6 +72,15 @@ class UserServiceTest {
                 });
     }
 
+    private UserService buildService(boolean softDeleteEnabled) {
+        return new UserService(
+                repository,
+                new SoftDeleteProperties(softDeleteEnabled, Duration.ofDays(7), 500, 200, Duration.ZERO),
+                new BatchLookupProperties(3),
+                events
+        );
+    }
+
     private User buildUser(String id, String name, String email) {
         User u = new User();
         u.setId(id);
@@ -69,6 +90,10 @@ class UserServiceTest {
         return u;
     }
 
+    private UserSnapshot snapshot(String id, String name, String email) {
+        return new UserSnapshot(id, name, email, LocalDate.of(2000, 1, 1), LocalDateTime.now());
+    }
+
     private UserDTO.Request buildRequest(String id, String name, String email) {
         return new UserDTO.Request(
                 id,
@@ -177,6 +202,47 @@ class UserServiceTest {
         verify(repository).findById("01H00000000000000000000001");
     }
 
+    // FIND MANY BY ID
+    @Test
+    void findAllById_shouldPreserveRequestOrderAndReportMissing() {
+        User u1 = buildUser("01H00000000000000000000001", "Fulano", "f1@email.com");
+        User u3 = buildUser("01H00000000000000000000003", "Beltrano", "f3@email.com");
+
+        when(repository.findAllByIdIn(anyCollection())).thenReturn(List.of(u1, u3));
+
+        UserDTO.BatchResponse result = service.findAllById(List.of(
+                "01H00000000000000000000003",
+                "01H00000000000000000000002",
+                "01H00000000000000000000001"));
+
+        assertEquals(List.of("01H00000000000000000000003", "01H00000000000000000000001"),
+                List.copyOf(result.users().keySet()));
+        assertEquals("Beltrano", result.users().get("01H00000000000000000000003").name());
+        assertEquals(List.of("01H00000000000000000000002"), result.missing());
+        verify(repository, times(1)).findAllByIdIn(anyCollection());
+    }
+
+    @Test
+    void findAllById_shouldDeduplicateIds() {
+        when(repository.findAllByIdIn(anyCollection())).thenReturn(List.of());
+
+        UserDTO.BatchResponse result = service.findAllById(List.of(
+                "01H00000000000000000000001", "01H00000000000000000000001"));
+
+        assertEquals(List.of("01H00000000000000000000001"), result.missing());
+    }
+
+    @Test
+    void findAllById_shouldThrowIllegalArgumentException_whenBatchTooLarge() {
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> service.findAllById(List.of("a", "b", "c", "d"))
+        );
+
+        assertTrue(ex.getMessage().contains("3"));
+        verify(repository, never()).findAllByIdIn(anyCollection());
+    }
+
     // UPDATE
     @Test
     void update_shouldReturnUpdatedResponse_whenValidRequestAndIdExists() {
@@ -239,24 +305,122 @@ class UserServiceTest {
         verify(repository).getReferenceById("01H00000000000000000000001");
     }
 
+    // UPSERT
+    @Test
+    void upsert_shouldReportCreated_whenEmailIsNew() {
+        UserDTO.Request dto = buildRequest(null, "Fulano", "fulano@email.com");
+        when(repository.lockByEmailIn(any())).thenReturn(List.of());
+        when(repository.upsertByEmail(anyList())).thenAnswer(invocation -> {
+            List<User> rows = invocation.getArgument(0);
+            return List.of(new UserUpsertRepository.Upserted(UserSnapshot.of(rows.get(0)), true));
+        });
+
+        UserDTO.UpsertResponse result = service.upsert("fulano@email.com", dto);
+
+        assertEquals(UserDTO.UpsertStatus.CREATED, result.status());
+        assertNotNull(result.id());
+        assertEquals("Fulano", result.user().name());
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(UserChangedEvent.Type.CREATED, event.getValue().type());
+        verify(repository, never()).existsByEmail(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void upsert_shouldSendRowsWithOnCreateTimestamps() {
+        UserDTO.Request dto = buildRequest(null, "Fulano", "fulano@email.com");
+        when(repository.lockByEmailIn(any())).thenReturn(List.of());
+        when(repository.upsertByEmail(anyList())).thenAnswer(invocation -> {
+            List<User> rows = invocation.getArgument(0);
+            return List.of(new UserUpsertRepository.Upserted(UserSnapshot.of(rows.get(0)), true));
+        });
+
+        service.upsert("fulano@email.com", dto);
+
+        ArgumentCaptor<List<User>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertByEmail(rows.capture());
+        User row = rows.getValue().get(0);
+        assertNotNull(row.getCreatedAt());
+        assertNotNull(row.getLastUpdate());
+        assertEquals(row.getLastUpdate(), row.getLegacyUpdatedAt());
+    }
+
+    @Test
+    void upsert_shouldPublishUpdatedEventWithLockedPreviousState() {
+        UserDTO.Request dto = buildRequest(null, "Novo Nome", "fulano@email.com");
+        UserSnapshot before = new UserSnapshot("01H00000000000000000000001", "Antigo Nome",
+                "fulano@email.com", LocalDate.of(2000, 1, 1), LocalDateTime.of(2020, 1, 1, 0, 0));
+        UserSnapshot after = new UserSnapshot("01H00000000000000000000001", "Novo Nome",
+                "fulano@email.com", LocalDate.of(2000, 1, 1), LocalDateTime.of(2020, 1, 1, 0, 0));
+        when(repository.lockByEmailIn(any())).thenReturn(List.of(before));
+        when(repository.upsertByEmail(anyList()))
+                .thenReturn(List.of(new UserUpsertRepository.Upserted(after, false)));
+
+        UserDTO.UpsertResponse result = service.upsert("fulano@email.com", dto);
+
+        assertEquals(UserDTO.UpsertStatus.UPDATED, result.status());
+        assertEquals("01H00000000000000000000001", result.id());
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals("Antigo Nome", event.getValue().before().name());
+        assertEquals("Novo Nome", event.getValue().after().name());
+    }
+
+    @Test
+    void upsert_shouldReportUnchangedWithoutEvent_whenNothingWasWritten() {
+        UserDTO.Request dto = buildRequest(null, "Fulano", "fulano@email.com");
+        UserSnapshot current = new UserSnapshot("01H00000000000000000000001", "Fulano",
+                "fulano@email.com", LocalDate.of(2000, 1, 1), LocalDateTime.of(2020, 1, 1, 0, 0));
+        when(repository.lockByEmailIn(any())).thenReturn(List.of(current));
+        when(repository.upsertByEmail(anyList())).thenReturn(List.of());
+
+        UserDTO.UpsertResponse result = service.upsert("fulano@email.com", dto);
+
+        assertEquals(UserDTO.UpsertStatus.UNCHANGED, result.status());
+        assertEquals("01H00000000000000000000001", result.id());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void upsert_shouldRejectBodyWithDifferentEmail() {
+        UserDTO.Request dto = buildRequest(null, "Fulano", "outro@email.com");
+
+        assertThrows(IllegalArgumentException.class, () -> service.upsert("fulano@email.com", dto));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void upsertAll_shouldRejectRepeatedEmailAndOversizedBatch() {
+        UserDTO.Request dto = buildRequest(null, "Fulano", "fulano@email.com");
+
+        IllegalArgumentException repeated = assertThrows(IllegalArgumentException.class,
+                () -> service.upsertAll(List.of(dto, dto)));
+        IllegalArgumentException oversized = assertThrows(IllegalArgumentException.class,
+                () -> service.upsertAll(Collections.nCopies(4, dto)));
+
+        assertTrue(repeated.getMessage().contains("repetido"));
+        assertTrue(oversized.getMessage().contains("Máximo de 3"));
+        verifyNoInteractions(repository);
+    }
+
     // DELETE
     @Test
-    void delete_shouldDeleteUser_whenIdExists() {
-        when(repository.existsById("01H00000000000000000000001"))
-                .thenReturn(true);
-        doNothing().when(repository)
-                .deleteById("01H00000000000000000000001");
+    void delete_shouldDeleteUserWithSingleStatement_whenIdExists() {
+        when(repository.deleteReturning("01H00000000000000000000001"))
+                .thenReturn(Optional.of(snapshot("01H00000000000000000000001", "Fulano", "fulano@email.com")));
 
         service.delete("01H00000000000000000000001");
 
-        verify(repository).existsById("01H00000000000000000000001");
-        verify(repository).deleteById("01H00000000000000000000001");
+        verify(repository).deleteReturning("01H00000000000000000000001");
+        verifyNoMoreInteractions(repository);
     }
 
     @Test
     void delete_shouldThrowEntityNotFoundException_whenIdDoesNotExist() {
-        when(repository.existsById("01H00000000000000000000001"))
-                .thenReturn(false);
+        when(repository.deleteReturning("01H00000000000000000000001"))
+                .thenReturn(Optional.empty());
 
         EntityNotFoundException ex = assertThrows(
                 EntityNotFoundException.class,
@@ -264,16 +428,15 @@ class UserServiceTest {
         );
 
         assertTrue(ex.getMessage().toLowerCase().contains("usuário"));
-        verify(repository).existsById("01H00000000000000000000001");
-        verify(repository, never()).deleteById(anyString());
+        verify(repository).deleteReturning("01H00000000000000000000001");
+        verifyNoMoreInteractions(repository);
+        verifyNoInteractions(events);
     }
 
     @Test
     void delete_shouldThrowIllegalArgumentException_whenDataIntegrityViolationOccurs() {
-        when(repository.existsById("01H00000000000000000000001"))
-                .thenReturn(true);
-        doThrow(new DataIntegrityViolationException("erro"))
-                .when(repository).deleteById("01H00000000000000000000001");
+        when(repository.deleteReturning("01H00000000000000000000001"))
+                .thenThrow(new DataIntegrityViolationException("erro"));
 
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
@@ -281,7 +444,83 @@ class UserServiceTest {
         );
 
         assertTrue(ex.getMessage().toLowerCase().contains("integridade"));
-        verify(repository).existsById("01H00000000000000000000001");
-        verify(repository).deleteById("01H00000000000000000000001");
+        verifyNoInteractions(events);
+    }
+
+    // SOFT DELETE
+    @Test
+    void delete_shouldMarkTombstoneWithSingleUpdate_whenSoftDeleteEnabled() {
+        service = buildService(true);
+        when(repository.softDeleteReturning(eq("01H00000000000000000000001"), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(snapshot("01H00000000000000000000001", "Fulano", "fulano@email.com")));
+
+        service.delete("01H00000000000000000000001");
+
+        verify(repository).softDeleteReturning(eq("01H00000000000000000000001"), any(LocalDateTime.class));
+        verify(repository, never()).existsById(anyString());
+        verify(repository, never()).findById(anyString());
+        verify(repository, never()).deleteReturning(anyString());
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void delete_shouldThrowEntityNotFoundException_whenSoftDeleteEnabledAndIdDoesNotExist() {
+        service = buildService(true);
+        when(repository.softDeleteReturning(eq("01H00000000000000000000001"), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        EntityNotFoundException ex = assertThrows(
+                EntityNotFoundException.class,
+                () -> service.delete("01H00000000000000000000001")
+        );
+
+        assertTrue(ex.getMessage().toLowerCase().contains("usuário"));
+        verify(repository, never()).deleteReturning(anyString());
+        verifyNoInteractions(events);
+    }
+
+    // EVENTOS
+    @Test
+    void insert_shouldPublishCreatedEvent() {
+        UserDTO.Request dto = buildRequest(null, "Fulano", "fulano@email.com");
+        User saved = buildUser("01H00000000000000000000001", "Fulano", "fulano@email.com");
+        when(repository.existsByEmail(dto.email())).thenReturn(false);
+        when(repository.save(any(User.class))).thenReturn(saved);
+
+        service.insert(dto);
+
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(UserChangedEvent.Type.CREATED, event.getValue().type());
+        assertEquals("01H00000000000000000000001", event.getValue().id());
+    }
+
+    @Test
+    void update_shouldPublishEventWithPreviousAndNewState() {
+        UserDTO.Request dto = buildRequest(null, "Novo Nome", "novo@email.com");
+        User existing = buildUser("01H00000000000000000000001", "Antigo Nome", "antigo@email.com");
+        when(repository.getReferenceById("01H00000000000000000000001")).thenReturn(existing);
+        when(repository.existsByEmail(dto.email())).thenReturn(false);
+        when(repository.save(existing)).thenReturn(existing);
+
+        service.update("01H00000000000000000000001", dto);
+
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals("Antigo Nome", event.getValue().before().name());
+        assertEquals("Novo Nome", event.getValue().after().name());
+    }
+
+    @Test
+    void delete_shouldPublishDeletedEventWithPreviousState() {
+        when(repository.deleteReturning("01H00000000000000000000001"))
+                .thenReturn(Optional.of(snapshot("01H00000000000000000000001", "Fulano", "fulano@email.com")));
+
+        service.delete("01H00000000000000000000001");
+
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(UserChangedEvent.Type.DELETED, event.getValue().type());
+        assertEquals("fulano@email.com", event.getValue().before().email());
     }
 }
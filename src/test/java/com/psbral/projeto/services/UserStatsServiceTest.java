@@ -0,0 +1,159 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.UserStatsProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserStatsServiceTest {
+
+    private final List<UserSnapshot> table = new ArrayList<>();
+    private UserStatsService service;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        service = new UserStatsService(this::scanTable, new UserStatsProperties(List.of(0, 18, 65), 366));
+    }
+
+    private void scanTable(Consumer<Predicate<String>> onSnapshot, Consumer<UserSnapshot> consumer) {
+        onSnapshot.accept(id -> true);
+        List.copyOf(table).forEach(consumer);
+    }
+
+    private UserSnapshot user(String id, int age, LocalDateTime createdAt) {
+        return new UserSnapshot(id, "Usuario " + id, id + "@email.com", today.minusYears(age), createdAt);
+    }
+
+    private long bucket(UserDTO.Stats stats, String range) {
+        return stats.ageDistribution().stream()
+                .filter(b -> b.range().equals(range))
+                .findFirst().orElseThrow().count();
+    }
+
+    @Test
+    void rebuild_shouldComputeTotalsSignupsAndAges() {
+        table.add(user("a", 10, today.atTime(9, 0)));
+        table.add(user("b", 30, today.atTime(10, 0)));
+        table.add(user("c", 70, today.minusDays(1).atStartOfDay()));
+
+        service.rebuild();
+        UserDTO.Stats stats = service.stats(2);
+
+        assertEquals(3, stats.total());
+        assertEquals(2L, stats.signupsPerDay().get(today));
+        assertEquals(1L, stats.signupsPerDay().get(today.minusDays(1)));
+        assertEquals(1, bucket(stats, "0-17"));
+        assertEquals(1, bucket(stats, "18-64"));
+        assertEquals(1, bucket(stats, "65+"));
+        assertNotNull(stats.reconciledAt());
+    }
+
+    @Test
+    void ageBuckets_shouldUseExactBirthdays() {
+        // faz 18 anos hoje / faz 18 anos amanhã
+        table.add(new UserSnapshot("a", "A", "a@email.com", today.minusYears(18), today.atStartOfDay()));
+        table.add(new UserSnapshot("b", "B", "b@email.com", today.minusYears(18).plusDays(1), today.atStartOfDay()));
+
+        service.rebuild();
+        UserDTO.Stats stats = service.stats(1);
+
+        assertEquals(1, bucket(stats, "0-17"));
+        assertEquals(1, bucket(stats, "18-64"));
+    }
+
+    @Test
+    void onUserChanged_shouldUpdateAggregatesIncrementally() {
+        service.rebuild();
+        UserSnapshot created = user("a", 20, today.atStartOfDay());
+
+        service.onUserChanged(UserChangedEvent.created(created));
+        assertEquals(1, bucket(service.stats(1), "18-64"));
+
+        UserSnapshot older = new UserSnapshot("a", "A", "a@email.com", today.minusYears(80), created.createdAt());
+        service.onUserChanged(UserChangedEvent.updated(created, older));
+        UserDTO.Stats afterUpdate = service.stats(1);
+        assertEquals(1, afterUpdate.total());
+        assertEquals(0, bucket(afterUpdate, "18-64"));
+        assertEquals(1, bucket(afterUpdate, "65+"));
+
+        service.onUserChanged(UserChangedEvent.deleted(older));
+        UserDTO.Stats afterDelete = service.stats(1);
+        assertEquals(0, afterDelete.total());
+        assertEquals(0L, afterDelete.signupsPerDay().get(today));
+    }
+
+    @Test
+    void rebuild_shouldReplayChangesCommittedDuringTheScan() {
+        table.add(user("a", 30, today.atStartOfDay()));
+        UserSnapshot concurrent = user("b", 40, today.atStartOfDay());
+        service = new UserStatsService((onSnapshot, consumer) -> {
+            scanTable(onSnapshot, consumer);
+            service.onUserChanged(UserChangedEvent.created(concurrent));
+        }, new UserStatsProperties(List.of(0, 18, 65), 366));
+
+        service.rebuild();
+
+        assertEquals(2, service.stats(1).total());
+    }
+
+    @Test
+    void rebuild_shouldNotReplayChangesTheScanAlreadySaw() {
+        table.add(user("a", 30, today.atStartOfDay()));
+        UserSnapshot before = user("b", 40, today.atStartOfDay());
+        UserSnapshot older = user("b", 70, today.atStartOfDay());
+        service = new UserStatsService((onSnapshot, consumer) -> {
+            // confirmados entre a abertura do journal e a leitura da varredura
+            table.add(before);
+            service.onUserChanged(UserChangedEvent.created(before));
+            table.set(1, older);
+            service.onUserChanged(UserChangedEvent.updated(before, older));
+            scanTable(onSnapshot, consumer);
+        }, new UserStatsProperties(List.of(0, 18, 65), 366));
+
+        service.rebuild();
+        UserDTO.Stats stats = service.stats(1);
+
+        assertEquals(2, stats.total());
+        assertEquals(1, bucket(stats, "18-64"));
+        assertEquals(1, bucket(stats, "65+"));
+    }
+
+    @Test
+    void rebuild_shouldJudgeEachShardByItsOwnSnapshot() {
+        UserSnapshot onFirst = user("a", 30, today.atStartOfDay());
+        UserSnapshot onSecond = user("b", 40, today.atStartOfDay());
+        List<UserSnapshot> second = new ArrayList<>();
+        service = new UserStatsService((onSnapshot, consumer) -> {
+            onSnapshot.accept("a"::equals);
+            // o primeiro shard já foi lido; o segundo ainda não
+            service.onUserChanged(UserChangedEvent.created(onFirst));
+            service.onUserChanged(UserChangedEvent.created(onSecond));
+            second.add(onSecond);
+            onSnapshot.accept("b"::equals);
+            second.forEach(consumer);
+        }, new UserStatsProperties(List.of(0, 18, 65), 366));
+
+        service.rebuild();
+
+        assertEquals(2, service.stats(1).total());
+    }
+
+    @Test
+    void stats_shouldRejectWindowOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.stats(0));
+        assertThrows(IllegalArgumentException.class, () -> service.stats(367));
+    }
+}
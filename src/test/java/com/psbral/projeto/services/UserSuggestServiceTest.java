@@ -0,0 +1,142 @@
+package com.psbral.projeto.services;
+
+import com.psbral.projeto.config.UserSuggestProperties;
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.models.UserSnapshot;
+import com.psbral.projeto.services.events.UserChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSuggestServiceTest {
+
+    private static final String ID_1 = "01H00000000000000000000001";
+    private static final String ID_2 = "01H00000000000000000000002";
+    private static final String ID_3 = "01H00000000000000000000003";
+
+    private final List<UserSnapshot> table = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private UserSuggestService service;
+
+    @BeforeEach
+    void setUp() {
+        table.add(user(ID_1, "João da Silva", "joao.silva@email.com"));
+        table.add(user(ID_2, "Maria Souza", "maria@empresa.com.br"));
+        table.add(user(ID_3, "Joana Prado", "jprado@email.com"));
+        service = new UserSuggestService(
+                (onSnapshot, consumer) -> {
+                    onSnapshot.accept(id -> true);
+                    table.forEach(consumer);
+                },
+                new UserSuggestProperties(10, 50, 0.5, 64),
+                registry);
+        service.rebuild();
+    }
+
+    private static UserSnapshot user(String id, String name, String email) {
+        return new UserSnapshot(id, name, email, LocalDate.of(1990, 1, 1), LocalDateTime.now());
+    }
+
+    private static List<String> ids(List<UserDTO.Suggestion> suggestions) {
+        return suggestions.stream().map(UserDTO.Suggestion::id).toList();
+    }
+
+    @Test
+    void suggest_shouldMatchPrefixesOfAnyWord() {
+        // empate no score: nome mais curto primeiro
+        assertEquals(List.of(ID_3, ID_1), ids(service.suggest("jo", null)));
+        assertEquals(List.of(ID_2), ids(service.suggest("souz", null)));
+        assertEquals(List.of(ID_2), ids(service.suggest("empresa", null)));
+    }
+
+    @Test
+    void suggest_shouldIgnoreAccentsAndCase() {
+        UserDTO.Suggestion best = service.suggest("JOÃO S", null).get(0);
+
+        assertEquals(ID_1, best.id());
+        assertEquals(1.0, best.score());
+        assertEquals(List.of(ID_1), ids(service.suggest("joao silva", null)));
+    }
+
+    @Test
+    void suggest_shouldTolerateTypos_rankingExactMatchesFirst() {
+        table.add(user("01H00000000000000000000004", "Mariana Souza", "mariana@email.com"));
+        service.rebuild();
+
+        List<UserDTO.Suggestion> result = service.suggest("mraia souza", null);
+
+        assertFalse(result.isEmpty());
+        assertEquals(ID_2, result.get(0).id());
+        assertTrue(result.get(0).score() < 1.0);
+        assertEquals(1.0, service.suggest("maria souza", null).get(0).score());
+    }
+
+    @Test
+    void suggest_shouldRespectLimit() {
+        assertEquals(1, service.suggest("jo", 1).size());
+        assertThrows(IllegalArgumentException.class, () -> service.suggest("jo", 0));
+        assertThrows(IllegalArgumentException.class, () -> service.suggest("jo", 51));
+    }
+
+    @Test
+    void suggest_shouldReturnEmpty_whenQueryBlankOrUnknown() {
+        assertTrue(service.suggest("  ", null).isEmpty());
+        assertTrue(service.suggest("zzzz", null).isEmpty());
+    }
+
+    @Test
+    void onUserChanged_shouldKeepIndexInSyncWithMutations() {
+        UserSnapshot created = user("01H00000000000000000000004", "Pedro Alves", "pedro@email.com");
+        service.onUserChanged(UserChangedEvent.created(created));
+        assertEquals(List.of(created.id()), ids(service.suggest("pedro", null)));
+
+        UserSnapshot renamed = user(created.id(), "Paulo Alves", "paulo@email.com");
+        service.onUserChanged(UserChangedEvent.updated(created, renamed));
+        assertTrue(service.suggest("pedro", null).isEmpty());
+        assertEquals(List.of(created.id()), ids(service.suggest("paulo", null)));
+
+        service.onUserChanged(UserChangedEvent.deleted(renamed));
+        assertTrue(service.suggest("alves", null).isEmpty());
+        assertEquals(3, service.size());
+    }
+
+    @Test
+    void suggest_shouldKeepLegacyNumericIds() {
+        // a V3 manteve os ids numéricos de antes do ULID
+        table.add(user("1", "Carlos Lima", "carlos@email.com"));
+        service.rebuild();
+        assertEquals(List.of("1"), ids(service.suggest("carlos", null)));
+
+        UserSnapshot legacy = table.get(table.size() - 1);
+        UserSnapshot renamed = user("1", "Bruno Reis", "bruno@email.com");
+        service.onUserChanged(UserChangedEvent.updated(legacy, renamed));
+        assertTrue(service.suggest("carlos", null).isEmpty());
+        assertEquals(List.of("1"), ids(service.suggest("bruno", null)));
+
+        service.onUserChanged(UserChangedEvent.deleted(renamed));
+        assertTrue(service.suggest("bruno", null).isEmpty());
+        assertEquals(3, service.size());
+    }
+
+    @Test
+    void rebuild_shouldHandleManyUsersAndReportMemory() {
+        table.clear();
+        for (int i = 0; i < 5_000; i++) {
+            String id = String.format("01H%023d", i);
+            table.add(user(id, "Usuario " + i, "usuario" + i + "@email.com"));
+        }
+        service.rebuild();
+
+        assertEquals(5_000, service.size());
+        assertEquals(List.of(String.format("01H%023d", 4321)), ids(service.suggest("usuario4321@", 1)));
+        assertTrue(service.memoryBytes() > 0);
+        assertEquals(service.memoryBytes(), registry.get("users.suggest.index.bytes").gauge().value());
+    }
+}
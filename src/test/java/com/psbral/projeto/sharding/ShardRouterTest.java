@@ -0,0 +1,70 @@
+package com.psbral.projeto.sharding;
+
+import com.github.f4b6a3.ulid.UlidCreator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    private List<String> ulids(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UlidCreator.getMonotonicUlid().toString());
+        }
+        return ids;
+    }
+
+    @Test
+    void shardFor_shouldBeDeterministicAndInRange() {
+        ShardRouter router = new ShardRouter(4);
+
+        for (String id : ulids(1_000)) {
+            int shard = router.shardFor(id);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, router.shardFor(id));
+        }
+    }
+
+    @Test
+    void shardFor_shouldSpreadSequentialUlidsEvenly() {
+        ShardRouter router = new ShardRouter(4);
+        int[] counts = new int[4];
+
+        for (String id : ulids(40_000)) {
+            counts[router.shardFor(id)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 9_000 && count < 11_000, "distribuição desigual: " + count);
+        }
+    }
+
+    @Test
+    void shardFor_shouldOnlyMoveKeysToTheNewShard_whenAddingAShard() {
+        ShardRouter before = new ShardRouter(3);
+        ShardRouter after = new ShardRouter(4);
+        int moved = 0;
+
+        List<String> ids = ulids(20_000);
+        for (String id : ids) {
+            int from = before.shardFor(id);
+            int to = after.shardFor(id);
+            if (from != to) {
+                assertEquals(3, to);
+                moved++;
+            }
+        }
+
+        // esperado ~1/4 das chaves
+        assertTrue(moved > 4_000 && moved < 6_000, "chaves movidas: " + moved);
+    }
+
+    @Test
+    void constructor_shouldRejectZeroShards() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(0));
+    }
+}
@@ -0,0 +1,62 @@
+package com.psbral.projeto.warmup;
+
+import com.psbral.projeto.dto.UserDTO;
+import com.psbral.projeto.services.ServiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClient;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.warmup.iterations=20", "app.warmup.measurements=5"})
+@ActiveProfiles("sharding-local")
+class WarmupRunnerTest {
+
+    @Autowired
+    private WarmupRunner runner;
+
+    @Autowired
+    private ServiceRepository service;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void startup_shouldWarmUpBeforeReadiness() {
+        WarmupReport report = runner.report();
+
+        assertEquals("COMPLETED", report.status());
+        assertEquals(0, report.failures());
+        assertTrue(report.connectionsPrimed() > 0);
+        assertTrue(report.latencies().containsKey("GET /users/{id} (404)"));
+
+        String readiness = RestClient.create("http://localhost:" + port)
+                .get().uri("/actuator/health/readiness").retrieve().body(String.class);
+        assertTrue(readiness.contains("UP"));
+    }
+
+    @Test
+    void warmup_shouldExerciseSampledUsers() {
+        service.insert(new UserDTO.Request(null, "Aquecimento", "aquecimento@email.com",
+                LocalDate.of(1990, 1, 1), null, null));
+
+        WarmupReport report = runner.warmup(port);
+
+        assertEquals("COMPLETED", report.status());
+        assertEquals(0, report.failures());
+        WarmupReport.Latency byId = report.latencies().get("GET /users/{id}");
+        assertNotNull(byId);
+        assertTrue(byId.p50Millis() <= byId.p99Millis());
+
+        WarmupReport exposed = RestClient.create("http://localhost:" + port)
+                .get().uri("/actuator/warmup").retrieve().body(WarmupReport.class);
+        assertEquals("COMPLETED", exposed.status());
+    }
+}
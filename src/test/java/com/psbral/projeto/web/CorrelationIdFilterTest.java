@@ -0,0 +1,68 @@
+package com.psbral.projeto.web;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.psbral.projeto.services.exceptions.ApiExceptionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("sharding-local")
+class CorrelationIdFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ListAppender<ILoggingEvent> errors = new ListAppender<>();
+
+    @BeforeEach
+    void attachAppender() {
+        errors.start();
+        ((Logger) LoggerFactory.getLogger(ApiExceptionHandler.class)).addAppender(errors);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        ((Logger) LoggerFactory.getLogger(ApiExceptionHandler.class)).detachAppender(errors);
+    }
+
+    @Test
+    void request_shouldReceiveGeneratedCorrelationId() throws Exception {
+        mockMvc.perform(get("/users/stats"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CorrelationIdFilter.HEADER, matchesPattern("[0-9A-Z]{26}")));
+    }
+
+    @Test
+    void unsafeCorrelationId_shouldBeReplaced() throws Exception {
+        mockMvc.perform(get("/users/stats").header(CorrelationIdFilter.HEADER, "x\nforjado"))
+                .andExpect(header().string(CorrelationIdFilter.HEADER, matchesPattern("[0-9A-Z]{26}")));
+    }
+
+    @Test
+    void handleUnexpected_shouldLogWithRequestCorrelationId() throws Exception {
+        // days não numérico não tem handler específico e cai no handleUnexpected (500)
+        mockMvc.perform(get("/users/stats").param("days", "abc")
+                        .header(CorrelationIdFilter.HEADER, "pedido-42"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().string(CorrelationIdFilter.HEADER, "pedido-42"));
+
+        assertEquals(1, errors.list.size());
+        assertEquals("pedido-42", errors.list.get(0).getMDCPropertyMap().get(CorrelationIdFilter.MDC_KEY));
+    }
+}
@@ -0,0 +1,86 @@
+package com.psbral.projeto.web;
+
+import com.github.luben.zstd.Zstd;
+import com.psbral.projeto.config.CompressionProperties;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressionFilterTest {
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(new CompressionProperties(
+            true, List.of("zstd", "gzip"), DataSize.ofBytes(256), List.of("application/json"), 3));
+
+    private final String json = "[" + "{\"name\":\"Fulano\",\"email\":\"f@email.com\"},".repeat(50) + "{}]";
+
+    private FilterChain writing(String contentType, String body) {
+        return (req, res) -> {
+            res.setContentType(contentType);
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse run(String acceptEncoding, String contentType, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, writing(contentType, body));
+        return response;
+    }
+
+    @Test
+    void shouldPreferZstd_whenClientAcceptsBoth() throws Exception {
+        MockHttpServletResponse response = run("gzip, zstd", "application/json", json);
+
+        assertEquals("zstd", response.getHeader("Content-Encoding"));
+        byte[] compressed = response.getContentAsByteArray();
+        assertTrue(compressed.length < json.length());
+        byte[] restored = Zstd.decompress(compressed, (int) Zstd.getFrameContentSize(compressed));
+        assertEquals(json, new String(restored, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldUseGzip_whenZstdIsRefused() throws Exception {
+        MockHttpServletResponse response = run("zstd;q=0, gzip", "application/json", json);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(json, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldNotCompress_belowThreshold() throws Exception {
+        MockHttpServletResponse response = run("zstd", "application/json", "[]");
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void shouldNotCompress_unlistedContentType() throws Exception {
+        MockHttpServletResponse response = run("gzip", "text/html", json);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(json, response.getContentAsString());
+    }
+
+    @Test
+    void shouldPassThrough_whenNoAcceptEncoding() throws Exception {
+        MockHttpServletResponse response = run(null, "application/json", json);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(json, response.getContentAsString());
+    }
+}
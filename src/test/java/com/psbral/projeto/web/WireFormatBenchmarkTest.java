@@ -0,0 +1,109 @@
+package com.psbral.projeto.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.Zstd;
+import com.psbral.projeto.dto.UserDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Custo de codificação e tamanho do payload de {@code List<UserDTO.Response>} em cada formato.
+ * Rodar com {@code mvn test -Pbenchmark -Dtest=WireFormatBenchmarkTest}.
+ */
+@Tag("benchmark")
+class WireFormatBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmarkTest.class);
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 5_000;
+
+    private interface Encoder {
+        byte[] encode(List<UserDTO.Response> users) throws IOException;
+    }
+
+    private static ObjectMapper mapper(ObjectMapper base) {
+        return base.registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private List<UserDTO.Response> users(int count) {
+        List<UserDTO.Response> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new UserDTO.Response("Usuario Numero " + i, "usuario" + i + "@example.com",
+                    LocalDate.of(1960 + i % 50, 1 + i % 12, 1 + i % 28)));
+        }
+        return users;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    @Test
+    void compareEncodeCostAndPayloadSize() throws IOException {
+        ObjectMapper json = mapper(new ObjectMapper());
+        ObjectMapper cbor = mapper(new ObjectMapper(new CBORFactory()));
+        ObjectMapper smile = mapper(new ObjectMapper(new SmileFactory()));
+
+        Map<String, Encoder> encoders = new LinkedHashMap<>();
+        encoders.put("json", json::writeValueAsBytes);
+        encoders.put("cbor", cbor::writeValueAsBytes);
+        encoders.put("smile", smile::writeValueAsBytes);
+        encoders.put("protobuf", users -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            UserProtobufCodec.writeUserList(users, out);
+            return out.toByteArray();
+        });
+
+        for (int size : new int[]{10, 100, 1_000}) {
+            List<UserDTO.Response> users = users(size);
+            int rounds = Math.max(50, MEASURED_ROUNDS * 10 / size);
+            int jsonBytes = json.writeValueAsBytes(users).length;
+
+            log.info("--- {} usuários ---", size);
+            log.info(String.format("%-9s %10s %10s %10s %12s", "formato", "bytes", "gzip", "zstd", "encode (µs)"));
+
+            for (Map.Entry<String, Encoder> entry : encoders.entrySet()) {
+                Encoder encoder = entry.getValue();
+                for (int i = 0; i < WARMUP_ROUNDS * 10 / size; i++) {
+                    encoder.encode(users);
+                }
+                long start = System.nanoTime();
+                byte[] payload = null;
+                for (int i = 0; i < rounds; i++) {
+                    payload = encoder.encode(users);
+                }
+                double micros = (System.nanoTime() - start) / 1_000.0 / rounds;
+
+                log.info(String.format("%-9s %10d %10d %10d %12.1f", entry.getKey(), payload.length,
+                        gzip(payload).length, Zstd.compress(payload, 3).length, micros));
+
+                if (!"json".equals(entry.getKey())) {
+                    assertTrue(payload.length < jsonBytes, entry.getKey() + " deveria ser menor que JSON");
+                }
+            }
+        }
+    }
+}